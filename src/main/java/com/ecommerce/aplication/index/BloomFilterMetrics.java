@@ -0,0 +1,48 @@
+package com.ecommerce.aplication.index;
+
+import com.ecommerce.aplication.records.CacheRecords.DataBloomFilterStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contadores de uso de um filtro de Bloom; sobrevivem às reconstruções do filtro.
+public final class BloomFilterMetrics {
+
+    private final String name;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public BloomFilterMetrics(String name) {
+        this.name = name;
+    }
+
+    public void negative() {
+        checks.increment();
+        negatives.increment();
+    }
+
+    // Positivo do filtro confirmado (ou não) pelo banco.
+    public void positive(boolean confirmed) {
+        checks.increment();
+        if (!confirmed) {
+            falsePositives.increment();
+        }
+    }
+
+    // Falsos positivos sobre todos os valores ausentes: os descartados pelo filtro mais os que ele deixou passar.
+    public DataBloomFilterStats stats(boolean ready, BloomFilter filter) {
+        long negativeCount = negatives.sum();
+        long falsePositiveCount = falsePositives.sum();
+        long absent = negativeCount + falsePositiveCount;
+        return new DataBloomFilterStats(
+                name,
+                ready,
+                filter.insertions(),
+                checks.sum(),
+                negativeCount,
+                falsePositiveCount,
+                absent == 0 ? 0 : (double) falsePositiveCount / absent,
+                filter.expectedFalsePositiveRate()
+        );
+    }
+}
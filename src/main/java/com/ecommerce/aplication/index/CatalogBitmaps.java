@@ -0,0 +1,287 @@
+package com.ecommerce.aplication.index;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataFacetCounts;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsQuery;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import static com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor.SORT_ID;
+import static com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor.SORT_PRICE_DESC;
+
+public final class CatalogBitmaps {
+
+    public record Selection(List<DataProductsResponse> content, boolean hasNext, Long total) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<CategoryItem, RoaringBitmap> byItem = new EnumMap<>(CategoryItem.class);
+    private final Map<CategoryType, RoaringBitmap> byType = new EnumMap<>(CategoryType.class);
+    private final Map<String, RoaringBitmap> bySize = new HashMap<>();
+    private final Map<String, RoaringBitmap> byColor = new HashMap<>();
+    private final Map<Integer, DataProductsResponse> products = new HashMap<>();
+    private final PriceIndex prices = new PriceIndex();
+
+    public void upsert(DataProductsResponse product) {
+        int doc = Math.toIntExact(product.id());
+        lock.writeLock().lock();
+        try {
+            removeInternal(doc);
+            products.put(doc, product);
+            prices.add(PriceIndex.toCents(product.price()), doc);
+            all.add(doc);
+            if (product.item() != null) {
+                byItem.computeIfAbsent(product.item(), k -> new RoaringBitmap()).add(doc);
+            }
+            if (product.type() != null) {
+                byType.computeIfAbsent(product.type(), k -> new RoaringBitmap()).add(doc);
+            }
+            valuesOf(product.sizes()).forEach(size -> bySize.computeIfAbsent(size, k -> new RoaringBitmap()).add(doc));
+            valuesOf(product.colors()).forEach(color -> byColor.computeIfAbsent(color, k -> new RoaringBitmap()).add(doc));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return products.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // E entre facetas, OU entre os valores de uma mesma faceta. Ordenação por preço percorre o PriceIndex
+    // a partir do limite da faixa (ou do cursor), então o custo é O(log n + k) nos itens visitados.
+    public Selection select(DataProductsQuery query, DataProductsCursor after, int offset, int limit, boolean withTotal) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap filter = intersect(
+                    selection(query.items(), byItem::get),
+                    selection(query.types(), byType::get),
+                    selection(query.sizes(), bySize::get),
+                    selection(query.colors(), byColor::get));
+            Long min = query.minPrice() == null ? null : PriceIndex.toCents(query.minPrice());
+            Long max = query.maxPrice() == null ? null : PriceIndex.toCents(query.maxPrice());
+
+            List<DataProductsResponse> content = new ArrayList<>(Math.min(limit + 1, products.size()));
+            Long total = SORT_ID.equals(query.sort())
+                    ? selectById(filter, min, max, after, offset, limit, withTotal, content)
+                    : selectByPrice(filter, min, max, SORT_PRICE_DESC.equals(query.sort()), after, offset, limit, withTotal, content);
+
+            boolean hasNext = content.size() > limit;
+            return new Selection(hasNext ? content.subList(0, limit) : content, hasNext, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Long selectById(RoaringBitmap filter, Long min, Long max, DataProductsCursor after,
+                            int offset, int limit, boolean withTotal, List<DataProductsResponse> content) {
+        RoaringBitmap matches = filter == null ? all : filter;
+        if (min != null || max != null) {
+            matches = matches.and(priceRange(min, max));
+        }
+
+        long start = after == null ? 0 : after.id() + 1;
+        int value = start > Integer.MAX_VALUE ? -1 : matches.nextValue((int) start);
+        int skip = after == null ? offset : 0;
+        while (value >= 0 && content.size() <= limit) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                content.add(products.get(value));
+            }
+            value = value == Integer.MAX_VALUE ? -1 : matches.nextValue(value + 1);
+        }
+        return withTotal ? (long) matches.cardinality() : null;
+    }
+
+    private Long selectByPrice(RoaringBitmap filter, Long min, Long max, boolean descending, DataProductsCursor after,
+                               int offset, int limit, boolean withTotal, List<DataProductsResponse> content) {
+        int low = prices.lowerBound(min);
+        int high = prices.upperBound(max);
+        int skip = after == null ? offset : 0;
+
+        if (descending) {
+            int position = high - 1;
+            if (after != null) {
+                position = Math.min(position, prices.position(PriceIndex.toCents(after.key()), cursorId(after)) - 1);
+            }
+            for (; position >= low && content.size() <= limit; position--) {
+                skip = collect(filter, prices.idAt(position), skip, content);
+            }
+        } else {
+            int position = low;
+            if (after != null) {
+                position = Math.max(position, prices.after(PriceIndex.toCents(after.key()), cursorId(after)));
+            }
+            for (; position < high && content.size() <= limit; position++) {
+                skip = collect(filter, prices.idAt(position), skip, content);
+            }
+        }
+
+        if (!withTotal) {
+            return null;
+        }
+        if (filter == null) {
+            return (long) Math.max(high - low, 0);
+        }
+        long total = 0;
+        for (int position = low; position < high; position++) {
+            if (filter.contains(prices.idAt(position))) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private int collect(RoaringBitmap filter, int doc, int skip, List<DataProductsResponse> content) {
+        if (filter != null && !filter.contains(doc)) {
+            return skip;
+        }
+        if (skip > 0) {
+            return skip - 1;
+        }
+        content.add(products.get(doc));
+        return 0;
+    }
+
+    private static int cursorId(DataProductsCursor cursor) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, cursor.id()));
+    }
+
+    private RoaringBitmap priceRange(Long min, Long max) {
+        RoaringBitmap range = new RoaringBitmap();
+        int high = prices.upperBound(max);
+        for (int position = prices.lowerBound(min); position < high; position++) {
+            range.add(prices.idAt(position));
+        }
+        return range;
+    }
+
+    // A contagem de cada faceta ignora o filtro da própria faceta, para o cliente ver quantos itens teria ao trocar a seleção.
+    public DataFacetCounts facets(DataProductsQuery query) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap price = query.minPrice() == null && query.maxPrice() == null
+                    ? null
+                    : priceRange(query.minPrice() == null ? null : PriceIndex.toCents(query.minPrice()),
+                                 query.maxPrice() == null ? null : PriceIndex.toCents(query.maxPrice()));
+            RoaringBitmap items = selection(query.items(), byItem::get);
+            RoaringBitmap types = selection(query.types(), byType::get);
+            RoaringBitmap sizes = selection(query.sizes(), bySize::get);
+            RoaringBitmap colors = selection(query.colors(), byColor::get);
+
+            RoaringBitmap matches = intersect(price, items, types, sizes, colors);
+            return new DataFacetCounts(
+                    matches == null ? all.cardinality() : matches.cardinality(),
+                    count(byItem, intersect(price, types, sizes, colors), new EnumMap<>(CategoryItem.class)),
+                    count(byType, intersect(price, items, sizes, colors), new EnumMap<>(CategoryType.class)),
+                    sortedByCount(count(bySize, intersect(price, items, types, colors), new HashMap<>())),
+                    sortedByCount(count(byColor, intersect(price, items, types, sizes), new HashMap<>()))
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> RoaringBitmap selection(List<K> values, Function<K, RoaringBitmap> lookup) {
+        return values.isEmpty() ? null : restrict(null, values, lookup);
+    }
+
+    // null representa "sem filtro".
+    private static RoaringBitmap intersect(RoaringBitmap... selections) {
+        RoaringBitmap result = null;
+        for (RoaringBitmap selection : selections) {
+            if (selection != null) {
+                result = result == null ? selection : result.and(selection);
+            }
+        }
+        return result;
+    }
+
+    private static <K> Map<K, Integer> count(Map<K, RoaringBitmap> bitmaps, RoaringBitmap within, Map<K, Integer> counts) {
+        bitmaps.forEach((value, bitmap) -> {
+            int count = within == null ? bitmap.cardinality() : bitmap.andCardinality(within);
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private static Map<String, Integer> sortedByCount(Map<String, Integer> counts) {
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static <K> RoaringBitmap restrict(RoaringBitmap current, List<K> values, Function<K, RoaringBitmap> lookup) {
+        if (values.isEmpty()) {
+            return current;
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (K value : values) {
+            RoaringBitmap bitmap = lookup.apply(value);
+            if (bitmap != null) {
+                union = union.or(bitmap);
+            }
+        }
+        return current == null ? union : current.and(union);
+    }
+
+    private void removeInternal(int doc) {
+        DataProductsResponse previous = products.remove(doc);
+        if (previous == null) {
+            return;
+        }
+        prices.remove(PriceIndex.toCents(previous.price()), doc);
+        all.remove(doc);
+        if (previous.item() != null) {
+            clear(byItem, previous.item(), doc);
+        }
+        if (previous.type() != null) {
+            clear(byType, previous.type(), doc);
+        }
+        valuesOf(previous.sizes()).forEach(size -> clear(bySize, size, doc));
+        valuesOf(previous.colors()).forEach(color -> clear(byColor, color, doc));
+    }
+
+    private static <K> void clear(Map<K, RoaringBitmap> bitmaps, K key, int doc) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.remove(doc);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    private static List<String> valuesOf(List<String> values) {
+        return values == null ? List.of() : values.stream()
+                .map(DataProductsQuery::normalize)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.aplication.index;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+
+import java.util.List;
+
+public interface CatalogIndex {
+
+    void rebuild(List<DataProductsResponse> products);
+
+    void upsert(DataProductsResponse product);
+
+    // Lote de produtos da importação; índices com custo fixo por publicação sobrescrevem para publicar uma vez só.
+    default void upsertAll(List<DataProductsResponse> products) {
+        products.forEach(this::upsert);
+    }
+
+    void remove(Long productId);
+}
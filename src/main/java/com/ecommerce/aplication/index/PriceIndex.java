@@ -0,0 +1,91 @@
+package com.ecommerce.aplication.index;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+// Pares (preço em centavos, id) ordenados em dois arrays paralelos. Não é thread-safe: o CatalogBitmaps controla o acesso.
+final class PriceIndex {
+
+    private long[] cents = new long[64];
+    private int[] ids = new int[64];
+    private int size;
+
+    static long toCents(BigDecimal price) {
+        return price == null ? Long.MAX_VALUE : price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    void add(long price, int id) {
+        int index = search(price, id);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (size == cents.length) {
+            cents = Arrays.copyOf(cents, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(cents, index, cents, index + 1, size - index);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        cents[index] = price;
+        ids[index] = id;
+        size++;
+    }
+
+    void remove(long price, int id) {
+        int index = search(price, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(cents, index + 1, cents, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int position) {
+        return ids[position];
+    }
+
+    // Primeira posição com preço >= min (ou 0 se não houver limite).
+    int lowerBound(Long min) {
+        return min == null ? 0 : position(min, Integer.MIN_VALUE);
+    }
+
+    // Primeira posição com preço > max (ou size se não houver limite).
+    int upperBound(Long max) {
+        return max == null ? size : after(max, Integer.MAX_VALUE);
+    }
+
+    // Primeira posição estritamente depois do par (price, id).
+    int after(long price, int id) {
+        int index = search(price, id);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // Primeira posição igual ou depois do par (price, id).
+    int position(long price, int id) {
+        int index = search(price, id);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int search(long price, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = cents[mid] != price ? Long.compare(cents[mid], price) : Integer.compare(ids[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
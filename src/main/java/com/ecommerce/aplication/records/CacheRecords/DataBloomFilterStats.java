@@ -0,0 +1,12 @@
+package com.ecommerce.aplication.records.CacheRecords;
+
+public record DataBloomFilterStats(String filter,
+                                   boolean ready,
+                                   long entries,
+                                   long checks,
+                                   long negatives,
+                                   long falsePositives,
+                                   double observedFalsePositiveRate,
+                                   double expectedFalsePositiveRate
+) {
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.aplication.records.CacheRecords;
+
+public record DataCacheTierStats(String tier,
+                                 long hits,
+                                 long misses,
+                                 long evictions,
+                                 long errors
+) {
+}
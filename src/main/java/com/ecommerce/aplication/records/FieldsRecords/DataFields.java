@@ -0,0 +1,81 @@
+package com.ecommerce.aplication.records.FieldsRecords;
+
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+// Campos pedidos em ?fields=, validados contra os componentes do record de resposta; sem nomes, a representação é completa.
+public record DataFields(SortedSet<String> names) {
+    private static final DataFields ALL = new DataFields(null);
+
+    public static DataFields all() {
+        return ALL;
+    }
+
+    public static DataFields parse(String fields, Class<? extends Record> type) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> allowed = new LinkedHashSet<>();
+        for (RecordComponent component : type.getRecordComponents()) {
+            allowed.add(component.getName());
+        }
+
+        SortedSet<String> names = new TreeSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BusinessRuleException("Campo inválido: " + name + ". Use: " + String.join(", ", allowed) + ".");
+            }
+            names.add(name);
+        }
+        return names.isEmpty() || names.size() == allowed.size() ? ALL : new DataFields(Collections.unmodifiableSortedSet(names));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    public String cacheKey() {
+        return names == null ? "" : ":f" + String.join(",", names);
+    }
+
+    // Mantém a ordem dos componentes do record, a mesma da representação completa.
+    public Map<String, Object> select(Record value) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (RecordComponent component : value.getClass().getRecordComponents()) {
+            if (includes(component.getName())) {
+                selected.put(component.getName(), read(component, value));
+            }
+        }
+        return selected;
+    }
+
+    public List<Map<String, Object>> select(List<? extends Record> values) {
+        return values.stream().map(this::select).toList();
+    }
+
+    private static Object read(RecordComponent component, Record value) {
+        try {
+            return component.getAccessor().invoke(value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Falha ao ler o campo " + component.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.ecommerce.aplication.records.ImportRecords;
+
+public record DataImportError(long row, String message) {
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.aplication.records.ImportRecords;
+
+import java.util.List;
+
+public record DataImportReport(long rows,
+                               long imported,
+                               long duplicates,
+                               long failed,
+                               long elapsedMillis,
+                               double rowsPerSecond,
+                               List<DataImportError> errors
+) {
+}
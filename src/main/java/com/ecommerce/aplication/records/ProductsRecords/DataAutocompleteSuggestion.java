@@ -0,0 +1,4 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+public record DataAutocompleteSuggestion(Long id, String name) {
+}
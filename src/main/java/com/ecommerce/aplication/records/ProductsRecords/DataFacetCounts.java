@@ -0,0 +1,14 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+
+import java.util.Map;
+
+public record DataFacetCounts(int total,
+                              Map<CategoryItem, Integer> items,
+                              Map<CategoryType, Integer> types,
+                              Map<String, Integer> sizes,
+                              Map<String, Integer> colors
+) {
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+
+public record DataPageRequest(int page,
+                              int size,
+                              String cursor,
+                              boolean withTotal,
+                              DataFields fields
+) {
+    public static final int DEFAULT_SIZE = 5;
+    public static final int MAX_SIZE = 100;
+
+    public DataPageRequest {
+        if (page < 0) {
+            throw new BusinessRuleException("A página não pode ser negativa.");
+        }
+        if (size < 1) {
+            throw new BusinessRuleException("O tamanho da página deve ser maior que zero.");
+        }
+        size = Math.min(size, MAX_SIZE);
+        cursor = cursor == null || cursor.isBlank() ? null : cursor.trim();
+        fields = fields == null ? DataFields.all() : fields;
+    }
+
+    public DataPageRequest(int page, int size, String cursor, boolean withTotal) {
+        this(page, size, cursor, withTotal, null);
+    }
+
+    public static DataPageRequest of(int page, Integer size, String cursor) {
+        return of(page, size, cursor, false);
+    }
+
+    public static DataPageRequest of(int page, Integer size, String cursor, boolean withTotal) {
+        return new DataPageRequest(page, size == null ? DEFAULT_SIZE : size, cursor, withTotal);
+    }
+
+    public static DataPageRequest of(int page, Integer size, String cursor, boolean withTotal, DataFields fields) {
+        return new DataPageRequest(page, size == null ? DEFAULT_SIZE : size, cursor, withTotal, fields);
+    }
+
+    public static DataPageRequest ofPage(int page) {
+        return of(page, DEFAULT_SIZE, null);
+    }
+
+    public String cacheKey() {
+        return (cursor == null ? "p" + page + ":" + size : "c" + cursor + ":" + size) + fields.cacheKey();
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+public record DataProductConflictStats(Long productId,
+                                       long conflicts,
+                                       long exhausted
+) {
+}
@@ -0,0 +1,4 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+public record DataProductSales(Long productId, Long sold) {
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+public record DataProductStock(Long id,
+                               int quant,
+                               Long version
+) {
+}
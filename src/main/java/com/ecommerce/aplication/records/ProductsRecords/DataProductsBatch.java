@@ -0,0 +1,6 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import java.util.List;
+
+public record DataProductsBatch(List<DataProductsResponse> products, List<Long> missing) {
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import java.util.List;
+
+public record DataProductsBatchRequest(List<Long> ids) {
+    public static final int MAX_IDS = 500;
+}
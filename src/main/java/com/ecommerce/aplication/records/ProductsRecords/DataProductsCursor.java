@@ -0,0 +1,46 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record DataProductsCursor(String sort,
+                                 BigDecimal key,
+                                 Long id
+) {
+    public static final String SORT_ID = "id";
+    public static final String SORT_PRICE_ASC = "preco-asc";
+    public static final String SORT_PRICE_DESC = "preco-desc";
+    public static final String SORT_RELEVANCE = "relevancia";
+
+    public static DataProductsCursor after(String sort, DataProductsResponse last) {
+        return new DataProductsCursor(sort, SORT_ID.equals(sort) ? null : last.price(), last.id());
+    }
+
+    public String encode() {
+        String raw = sort + "|" + (key == null ? "" : key.toPlainString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static DataProductsCursor decode(String token, String expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new BusinessRuleException("Cursor inválido para esta listagem.");
+            }
+
+            BigDecimal key = parts[1].isEmpty() ? null : new BigDecimal(parts[1]);
+            if (!SORT_ID.equals(expectedSort) && key == null) {
+                throw new BusinessRuleException("Cursor inválido para esta listagem.");
+            }
+
+            return new DataProductsCursor(parts[0], key, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Cursor inválido.");
+        }
+    }
+}
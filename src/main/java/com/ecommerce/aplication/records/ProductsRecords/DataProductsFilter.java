@@ -0,0 +1,39 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+
+public record DataProductsFilter(CategoryItem item,
+                                 CategoryType type,
+                                 String name,
+                                 String size,
+                                 String color
+) {
+    public static DataProductsFilter all() {
+        return new DataProductsFilter(null, null, null, null, null);
+    }
+
+    public static DataProductsFilter byItem(CategoryItem item) {
+        return new DataProductsFilter(item, null, null, null, null);
+    }
+
+    public static DataProductsFilter byType(CategoryType type) {
+        return new DataProductsFilter(null, type, null, null, null);
+    }
+
+    public static DataProductsFilter byItemAndType(CategoryItem item, CategoryType type) {
+        return new DataProductsFilter(item, type, null, null, null);
+    }
+
+    public static DataProductsFilter byName(String name) {
+        return new DataProductsFilter(null, null, name, null, null);
+    }
+
+    public static DataProductsFilter bySize(String size) {
+        return new DataProductsFilter(null, null, null, size, null);
+    }
+
+    public static DataProductsFilter byColor(String color) {
+        return new DataProductsFilter(null, null, null, null, color);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import java.util.List;
+
+public record DataProductsPage(List<DataProductsResponse> content,
+                               String nextCursor,
+                               Long total
+) {
+    public DataProductsPage(List<DataProductsResponse> content, String nextCursor) {
+        this(content, nextCursor, null);
+    }
+
+    public DataProductsPage withTotal(Long total) {
+        return new DataProductsPage(content, nextCursor, total);
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.aplication.records.ProductsRecords;
+
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor.*;
+
+public record DataProductsQuery(List<CategoryItem> items,
+                                List<CategoryType> types,
+                                List<String> sizes,
+                                List<String> colors,
+                                BigDecimal minPrice,
+                                BigDecimal maxPrice,
+                                String sort
+) {
+    private static final Set<String> SORTS = Set.of(SORT_ID, SORT_PRICE_ASC, SORT_PRICE_DESC);
+
+    public DataProductsQuery {
+        items = items == null ? List.of() : List.copyOf(items);
+        types = types == null ? List.of() : List.copyOf(types);
+        sizes = normalize(sizes);
+        colors = normalize(colors);
+        sort = sort == null || sort.isBlank() ? SORT_ID : sort.trim().toLowerCase();
+
+        if (!SORTS.contains(sort)) {
+            throw new BusinessRuleException("Ordenação inválida: " + sort + ". Use id, preco-asc ou preco-desc.");
+        }
+        if ((minPrice != null && minPrice.signum() < 0) || (maxPrice != null && maxPrice.signum() < 0)) {
+            throw new BusinessRuleException("O preço não pode ser negativo.");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BusinessRuleException("O preço mínimo não pode ser maior que o máximo.");
+        }
+    }
+
+    public static DataProductsQuery all() {
+        return new DataProductsQuery(null, null, null, null, null, null, null);
+    }
+
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toUpperCase();
+    }
+
+    private static List<String> normalize(List<String> values) {
+        return values == null ? List.of() : values.stream()
+                .map(DataProductsQuery::normalize)
+                .filter(value -> !value.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
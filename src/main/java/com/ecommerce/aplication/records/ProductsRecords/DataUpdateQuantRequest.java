@@ -1,4 +1,6 @@
 package com.ecommerce.aplication.records.ProductsRecords;
 
-public record DataUpdateQuantRequest(Integer quant) {
+// Variação de estoque (delta): positiva para entrada, negativa para retirada. A forma antiga, com a quantidade
+// absoluta (quant), continua aceita desde que venha a versão lida em GET /{id}/estoque, no corpo ou no If-Match.
+public record DataUpdateQuantRequest(Integer delta, Integer quant, Long version) {
 }
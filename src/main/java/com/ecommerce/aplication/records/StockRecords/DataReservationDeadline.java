@@ -0,0 +1,8 @@
+package com.ecommerce.aplication.records.StockRecords;
+
+import java.time.LocalDateTime;
+
+public record DataReservationDeadline(Long orderId,
+                                      LocalDateTime expiresAt
+) {
+}
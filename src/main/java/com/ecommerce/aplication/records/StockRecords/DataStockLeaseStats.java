@@ -0,0 +1,10 @@
+package com.ecommerce.aplication.records.StockRecords;
+
+public record DataStockLeaseStats(String instance,
+                                  Long productId,
+                                  int available,
+                                  int pending,
+                                  int unflushed,
+                                  int leased
+) {
+}
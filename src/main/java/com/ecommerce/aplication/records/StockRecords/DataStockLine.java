@@ -0,0 +1,10 @@
+package com.ecommerce.aplication.records.StockRecords;
+
+public record DataStockLine(Long productId,
+                            String productName,
+                            int quantity
+) {
+    public DataStockLine plus(DataStockLine other) {
+        return new DataStockLine(productId, productName, quantity + other.quantity());
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.aplication.records.StockRecords;
+
+import java.util.List;
+
+public record DataStockShardStats(Long productId,
+                                  int total,
+                                  List<Integer> shards
+) {
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.aplication.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Prazos agrupados em rodas de wheelSize posições: a roda 0 anda um tick por vez e cada roda acima tem posições
+// wheelSize vezes mais largas. Um prazo desce de roda em roda quando a posição dele é alcançada, então agendar,
+// cancelar e avançar um tick custam O(1) amortizado, independente de quantos prazos estão pendentes.
+public final class HierarchicalTimingWheel<K> {
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Entry(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final int levels;
+    private final long[] resolution;
+    private final List<ArrayDeque<Entry<K>>> buckets;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final List<Entry<K>> due = new ArrayList<>();
+    private long currentTick;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Roda de tempo inválida");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.resolution = new long[levels + 1];
+        this.buckets = new ArrayList<>(levels * wheelSize);
+        this.currentTick = startMillis / tickMillis;
+
+        resolution[0] = 1;
+        for (int level = 1; level <= levels; level++) {
+            resolution[level] = Math.multiplyExact(resolution[level - 1], wheelSize);
+        }
+        for (int i = 0; i < levels * wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+    }
+
+    // Reagendar a mesma chave substitui o prazo anterior; prazos já vencidos saem no próximo advance.
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        Entry<K> entry = new Entry<>(key, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Avança tick a tick até nowMillis e devolve as chaves cujo prazo venceu.
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        drainDue(expired);
+
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = levels - 1; level >= 1; level--) {
+                if (currentTick % resolution[level] == 0) {
+                    cascade(bucket(level, slot(currentTick, level)));
+                }
+            }
+            expire(bucket(0, slot(currentTick, 0)), expired);
+            drainDue(expired);
+        }
+        return expired;
+    }
+
+    // Fica na roda mais baixa que alcança o prazo: a posição dele nessa roda só é visitada depois de agora.
+    // Prazos além da última roda esperam na posição atual dela, revisitada só depois de uma volta inteira.
+    private void place(Entry<K> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (delta < resolution[level + 1]) {
+                bucket(level, slot(entry.deadlineTick, level)).add(entry);
+                return;
+            }
+        }
+        bucket(levels - 1, slot(currentTick, levels - 1)).add(entry);
+    }
+
+    private void cascade(ArrayDeque<Entry<K>> bucket) {
+        int count = bucket.size();
+        for (int i = 0; i < count; i++) {
+            Entry<K> entry = bucket.poll();
+            if (!entry.cancelled) {
+                place(entry);
+            }
+        }
+    }
+
+    private void expire(ArrayDeque<Entry<K>> bucket, List<K> expired) {
+        Entry<K> entry;
+        while ((entry = bucket.poll()) != null) {
+            if (entry.deadlineTick > currentTick) {
+                place(entry);
+            } else if (!entry.cancelled) {
+                entries.remove(entry.key);
+                expired.add(entry.key);
+            }
+        }
+    }
+
+    private void drainDue(List<K> expired) {
+        for (Entry<K> entry : due) {
+            if (!entry.cancelled) {
+                entries.remove(entry.key);
+                expired.add(entry.key);
+            }
+        }
+        due.clear();
+    }
+
+    // As rodas ficam lado a lado numa lista só: a roda level ocupa as posições [level * wheelSize, (level + 1) * wheelSize).
+    private ArrayDeque<Entry<K>> bucket(int level, int slot) {
+        return buckets.get(level * wheelSize + slot);
+    }
+
+    private int slot(long tick, int level) {
+        return (int) Math.floorMod(tick / resolution[level], (long) wheelSize);
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.aplication.search;
+
+import java.util.*;
+
+public final class AutocompleteTrie {
+
+    public static final int MAX_SUGGESTIONS = 10;
+    // Cada nó guarda o dobro do que a API devolve: entradas escondidas por mudanças ainda não compactadas
+    // saem do resultado sem deixá-lo curto.
+    public static final int TOP_SIZE = 2 * MAX_SUGGESTIONS;
+    private static final int MAX_WORDS = 8;
+    public static final Comparator<Entry> RANKING = Comparator
+            .comparingLong(Entry::weight).reversed()
+            .thenComparingLong(Entry::productId);
+
+    public record Entry(long productId, String name, long weight) {
+    }
+
+    // Entradas ordenadas por ranking: o índice de cada uma já é sua posição, então o top-K de um nó é só um int[] crescente.
+    private final Entry[] entries;
+    private final Node root;
+
+    private AutocompleteTrie(Entry[] entries, Node root) {
+        this.entries = entries;
+        this.root = root;
+    }
+
+    public static AutocompleteTrie empty() {
+        return new AutocompleteTrie(new Entry[0], new Node("", new char[0], new Node[0], new int[0]));
+    }
+
+    public static AutocompleteTrie build(Collection<Entry> products) {
+        if (products.isEmpty()) {
+            return empty();
+        }
+
+        Entry[] entries = products.toArray(Entry[]::new);
+        Arrays.sort(entries, RANKING);
+
+        List<String> keys = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < entries.length; slot++) {
+            for (String key : keys(entries[slot].name())) {
+                keys.add(key);
+                slots.add(slot);
+            }
+        }
+        if (keys.isEmpty()) {
+            return new AutocompleteTrie(entries, empty().root);
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+
+        String[] sortedKeys = new String[order.length];
+        int[] sortedSlots = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedSlots[i] = slots.get(order[i]);
+        }
+
+        return new AutocompleteTrie(entries, buildNode(sortedKeys, sortedSlots, 0, sortedKeys.length, 0));
+    }
+
+    // Um nome casa com a consulta quando alguma destas chaves começa por ela.
+    public static List<String> keys(String name) {
+        List<String> words = TextNormalizer.words(name);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < Math.min(words.size(), MAX_WORDS); i++) {
+            if (i == 0 || !TextNormalizer.isStopword(words.get(i))) {
+                keys.add(String.join(" ", words.subList(i, words.size())));
+            }
+        }
+        return keys;
+    }
+
+    public static String query(String prefix) {
+        return String.join(" ", TextNormalizer.words(prefix));
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public List<Entry> suggest(String prefix, int limit) {
+        String query = query(prefix);
+        if (query.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        Node node = root;
+        int position = 0;
+        while (true) {
+            int length = Math.min(node.label.length(), query.length() - position);
+            if (!node.label.regionMatches(0, query, position, length)) {
+                return List.of();
+            }
+            position += length;
+            if (position == query.length()) {
+                return toEntries(node.top, limit);
+            }
+
+            int child = Arrays.binarySearch(node.firstChars, query.charAt(position));
+            if (child < 0) {
+                return List.of();
+            }
+            node = node.children[child];
+        }
+    }
+
+    private List<Entry> toEntries(int[] top, int limit) {
+        int count = Math.min(limit, top.length);
+        Entry[] result = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = entries[top[i]];
+        }
+        return Arrays.asList(result);
+    }
+
+    private static Node buildNode(String[] keys, int[] slots, int from, int to, int depth) {
+        String first = keys[from];
+        String last = keys[to - 1];
+        int end = depth;
+        while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+            end++;
+        }
+
+        Candidates candidates = new Candidates();
+        int i = from;
+        while (i < to && keys[i].length() == end) {
+            candidates.add(slots[i]);
+            i++;
+        }
+
+        List<Character> firstChars = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (i < to) {
+            char c = keys[i].charAt(end);
+            int groupEnd = i;
+            while (groupEnd < to && keys[groupEnd].charAt(end) == c) {
+                groupEnd++;
+            }
+            Node child = buildNode(keys, slots, i, groupEnd, end);
+            firstChars.add(c);
+            children.add(child);
+            for (int slot : child.top) {
+                candidates.add(slot);
+            }
+            i = groupEnd;
+        }
+
+        char[] chars = new char[firstChars.size()];
+        for (int c = 0; c < chars.length; c++) {
+            chars[c] = firstChars.get(c);
+        }
+        return new Node(first.substring(depth, end), chars, children.toArray(Node[]::new), candidates.top());
+    }
+
+    private record Node(String label, char[] firstChars, Node[] children, int[] top) {
+    }
+
+    private static final class Candidates {
+        private int[] values = new int[16];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] top() {
+            Arrays.sort(values, 0, size);
+            int[] top = new int[Math.min(size, TOP_SIZE)];
+            int count = 0;
+            for (int i = 0; i < size && count < top.length; i++) {
+                if (count == 0 || top[count - 1] != values[i]) {
+                    top[count++] = values[i];
+                }
+            }
+            return count == top.length ? top : Arrays.copyOf(top, count);
+        }
+    }
+}
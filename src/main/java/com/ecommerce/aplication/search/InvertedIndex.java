@@ -0,0 +1,292 @@
+package com.ecommerce.aplication.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_WEIGHT = 0.8f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final float FUZZY_WEIGHT = 0.6f;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+
+    private long[] productByDoc = new long[64];
+    private int[] docLength = new int[64];
+    private String[][] docTerms = new String[64][];
+    private String[] docText = new String[64];
+    // Slots liberados por remoções; o produto reindexado fica no próprio slot, então os arrays só crescem com o catálogo.
+    private final ArrayDeque<Integer> freeDocs = new ArrayDeque<>();
+    private int nextDoc;
+    private int liveDocs;
+    private long totalLength;
+
+    // Texto igual ao já indexado não mexe nas listas de postings.
+    public void upsert(long productId, String text) {
+        lock.writeLock().lock();
+        try {
+            Integer current = docByProduct.get(productId);
+            if (current != null && Objects.equals(docText[current], text)) {
+                return;
+            }
+            removeInternal(productId);
+
+            List<String> tokens = TextNormalizer.tokenize(text);
+            if (tokens.isEmpty()) {
+                return;
+            }
+
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+
+            int doc = freeDocs.isEmpty() ? nextDoc++ : freeDocs.pop();
+            ensureCapacity(doc + 1);
+            productByDoc[doc] = productId;
+            docLength[doc] = tokens.size();
+            docTerms[doc] = frequencies.keySet().toArray(String[]::new);
+            docText[doc] = text;
+            docByProduct.put(productId, doc);
+
+            frequencies.forEach((term, tf) -> terms.computeIfAbsent(term, t -> {
+                trigrams.add(t);
+                return new Postings();
+            }).insert(doc, tf));
+            liveDocs++;
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query) {
+        return search(query, false);
+    }
+
+    public List<SearchHit> search(String query, boolean fuzzy) {
+        List<String> tokens = TextNormalizer.tokenize(query).stream().distinct().toList();
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return List.of();
+            }
+
+            float avgLength = (float) totalLength / liveDocs;
+            Scored result = null;
+            for (String token : tokens) {
+                Scored scored = scoreToken(token, fuzzy, avgLength);
+                result = result == null ? scored : result.intersect(scored);
+                if (result.size == 0) {
+                    return List.of();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(result.size);
+            for (int i = 0; i < result.size; i++) {
+                hits.add(new SearchHit(productByDoc[result.docs[i]], result.scores[i]));
+            }
+            hits.sort(SearchHit.RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Scored scoreToken(String token, boolean fuzzy, float avgLength) {
+        List<Scored> candidates = new ArrayList<>();
+        Postings exact = terms.get(token);
+        if (exact != null) {
+            candidates.add(score(exact, 1f, avgLength));
+        }
+
+        int expanded = 0;
+        for (Postings postings : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+            if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            candidates.add(score(postings, PREFIX_WEIGHT, avgLength));
+        }
+
+        int edits = maxEdits(token);
+        if (fuzzy && edits > 0) {
+            for (TrigramIndex.Match match : trigrams.within(token, edits)) {
+                if (match.distance() > 0) {
+                    float weight = (float) Math.pow(FUZZY_WEIGHT, match.distance());
+                    candidates.add(score(terms.get(match.term()), weight, avgLength));
+                }
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return new Scored(0);
+        }
+        return candidates.size() == 1 ? candidates.get(0) : merge(candidates);
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() <= 3) {
+            return 0;
+        }
+        return token.length() <= 7 ? 1 : 2;
+    }
+
+    // (doc << 32 | bits do score) ordena por documento; duplicatas entre expansões ficam com o maior score.
+    private static Scored merge(List<Scored> candidates) {
+        int total = candidates.stream().mapToInt(scored -> scored.size).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (Scored scored : candidates) {
+            for (int i = 0; i < scored.size; i++) {
+                all[offset++] = ((long) scored.docs[i] << 32) | (Float.floatToIntBits(scored.scores[i]) & 0xffffffffL);
+            }
+        }
+        Arrays.sort(all);
+
+        Scored merged = new Scored(all.length);
+        for (long entry : all) {
+            int doc = (int) (entry >>> 32);
+            float score = Float.intBitsToFloat((int) entry);
+            if (merged.size > 0 && merged.docs[merged.size - 1] == doc) {
+                merged.scores[merged.size - 1] = Math.max(merged.scores[merged.size - 1], score);
+            } else {
+                merged.add(doc, score);
+            }
+        }
+        return merged;
+    }
+
+    private Scored score(Postings postings, float weight, float avgLength) {
+        float idf = (float) Math.log(1 + (liveDocs - postings.size + 0.5) / (postings.size + 0.5));
+        Scored scored = new Scored(postings.size);
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            int tf = postings.freqs[i];
+            float norm = tf + K1 * (1 - B + B * docLength[doc] / avgLength);
+            scored.add(doc, weight * idf * tf * (K1 + 1) / norm);
+        }
+        return scored;
+    }
+
+    private void removeInternal(long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+
+        for (String term : docTerms[doc]) {
+            Postings postings = terms.get(term);
+            postings.remove(doc);
+            if (postings.size == 0) {
+                terms.remove(term);
+                trigrams.remove(term);
+            }
+        }
+        liveDocs--;
+        totalLength -= docLength[doc];
+        docTerms[doc] = null;
+        docText[doc] = null;
+        freeDocs.push(doc);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productByDoc.length) {
+            return;
+        }
+        int grown = Math.max(capacity, productByDoc.length * 2);
+        productByDoc = Arrays.copyOf(productByDoc, grown);
+        docLength = Arrays.copyOf(docLength, grown);
+        docTerms = Arrays.copyOf(docTerms, grown);
+        docText = Arrays.copyOf(docText, grown);
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        // Slots reaproveitados podem ser menores que os já presentes; a lista continua ordenada por documento.
+        private void insert(int doc, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            int index = size == 0 || docs[size - 1] < doc ? size : -Arrays.binarySearch(docs, 0, size, doc) - 1;
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(freqs, index, freqs, index + 1, size - index);
+            docs[index] = doc;
+            freqs[index] = tf;
+            size++;
+        }
+
+        private void remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(freqs, index + 1, freqs, index, size - index - 1);
+            size--;
+        }
+    }
+
+    private static final class Scored {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        private Scored(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        private void add(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        private Scored intersect(Scored other) {
+            Scored result = new Scored(Math.min(size, other.size));
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] == other.docs[j]) {
+                    result.add(docs[i], scores[i] + other.scores[j]);
+                    i++;
+                    j++;
+                } else if (docs[i] < other.docs[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return result;
+        }
+    }
+}
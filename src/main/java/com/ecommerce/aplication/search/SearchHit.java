@@ -0,0 +1,9 @@
+package com.ecommerce.aplication.search;
+
+import java.util.Comparator;
+
+public record SearchHit(long productId, float score) {
+    public static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble((SearchHit hit) -> hit.score()).reversed()
+            .thenComparingLong(SearchHit::productId);
+}
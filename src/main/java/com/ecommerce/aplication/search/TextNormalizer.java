@@ -0,0 +1,69 @@
+package com.ecommerce.aplication.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos",
+            "em", "na", "no", "nas", "nos", "com", "para", "por", "um", "uma"
+    );
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String raw : SEPARATORS.split(fold(text))) {
+            if (!raw.isEmpty() && !STOPWORDS.contains(raw)) {
+                tokens.add(stem(raw));
+            }
+        }
+        return tokens;
+    }
+
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String raw : SEPARATORS.split(fold(text))) {
+            if (!raw.isEmpty()) {
+                words.add(raw);
+            }
+        }
+        return words;
+    }
+
+    public static boolean isStopword(String word) {
+        return STOPWORDS.contains(word);
+    }
+
+    static String stem(String token) {
+        if (token.length() <= 3) {
+            return token;
+        }
+        if (token.endsWith("oes") || token.endsWith("aes")) {
+            return token.substring(0, token.length() - 3) + "ao";
+        }
+        if (token.endsWith("ns")) {
+            return token.substring(0, token.length() - 2) + "m";
+        }
+        if (token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("is") && !token.endsWith("us")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
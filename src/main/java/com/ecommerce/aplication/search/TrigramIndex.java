@@ -0,0 +1,139 @@
+package com.ecommerce.aplication.search;
+
+import java.util.*;
+
+final class TrigramIndex {
+
+    record Match(String term, int distance) {
+    }
+
+    private final Map<String, Integer> idByTerm = new HashMap<>();
+    private final Map<String, TermIds> termsByGram = new HashMap<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+    private String[] terms = new String[64];
+    private int nextId;
+
+    void add(String term) {
+        if (idByTerm.containsKey(term)) {
+            return;
+        }
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, id * 2);
+        }
+        terms[id] = term;
+        idByTerm.put(term, id);
+        for (String gram : grams(term)) {
+            termsByGram.computeIfAbsent(gram, g -> new TermIds()).insert(id);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = idByTerm.remove(term);
+        if (id == null) {
+            return;
+        }
+        terms[id] = null;
+        for (String gram : grams(term)) {
+            TermIds ids = termsByGram.get(gram);
+            ids.remove(id);
+            if (ids.size == 0) {
+                termsByGram.remove(gram);
+            }
+        }
+        freeIds.push(id);
+    }
+
+    // Cada edição destrói no máximo 3 trigramas: termos com menos trigramas em comum são descartados sem calcular distância.
+    // A contagem cobre só os termos que aparecem nas listas dos trigramas da consulta, não o vocabulário inteiro.
+    List<Match> within(String token, int maxEdits) {
+        Set<String> queryGrams = grams(token);
+        int required = queryGrams.size() - 3 * maxEdits;
+        if (required < 1) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            TermIds ids = termsByGram.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                shared.merge(ids.values[i], 1, Integer::sum);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            String term = terms[entry.getKey()];
+            if (entry.getValue() < required || Math.abs(term.length() - token.length()) > maxEdits) {
+                continue;
+            }
+            int distance = boundedDistance(token, term, maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(term, distance));
+            }
+        }
+        return matches;
+    }
+
+    static int boundedDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = "$" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static final class TermIds {
+        private int[] values = new int[4];
+        private int size;
+
+        // IDs reaproveitados podem ser menores que os já presentes; a lista segue ordenada para o remove.
+        private void insert(int id) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int index = size == 0 || values[size - 1] < id ? size : -Arrays.binarySearch(values, 0, size, id) - 1;
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = id;
+            size++;
+        }
+
+        private void remove(int id) {
+            int index = Arrays.binarySearch(values, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+}
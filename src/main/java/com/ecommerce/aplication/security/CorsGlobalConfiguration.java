@@ -1,8 +1,10 @@
 package com.ecommerce.aplication.security;
 
 
+import com.ecommerce.infra.controllers.ProductsControllerRead;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -18,6 +20,8 @@ public class CorsGlobalConfiguration {
         config.setAllowedOriginPatterns(List.of("*"));
         config.setAllowedHeaders(List.of("*"));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
+        config.setExposedHeaders(List.of(ProductsControllerRead.NEXT_CURSOR_HEADER, ProductsControllerRead.TOTAL_COUNT_HEADER,
+                HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
@@ -3,6 +3,7 @@ package com.ecommerce.aplication.services;
 import com.ecommerce.aplication.records.CartRecords.DataCart;
 import com.ecommerce.aplication.records.CartRecords.DataCartItemRequest;
 import com.ecommerce.aplication.records.CartRecords.DataCartItemResponse;
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
 import com.ecommerce.infra.exceptions.*;
 import com.ecommerce.model.cart.CartModel;
 import com.ecommerce.model.cart.cartItem.CartItem;
@@ -27,12 +28,14 @@ public class ServiceCart {
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
     private final UsersRepositroy usersRepositroy;
+    private final ServiceStock stock;
 
-    public ServiceCart(CartItemRepository cartItemRepository, CartRepository cartRepository, ProductRepository productRepository, UsersRepositroy usersRepositroy) {
+    public ServiceCart(CartItemRepository cartItemRepository, CartRepository cartRepository, ProductRepository productRepository, UsersRepositroy usersRepositroy, ServiceStock stock) {
         this.cartItemRepository = cartItemRepository;
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.usersRepositroy = usersRepositroy;
+        this.stock = stock;
     }
 
 
@@ -149,18 +152,9 @@ public class ServiceCart {
         CartModel cart = cartRepository.findByUsersId(userId)
                 .orElseThrow(() -> new CartNotFoundException("Carrinho não encontrado"));
 
-        for (CartItem item : cart.getItems()) {
-            var product = item.getProduct();
-            int remaining = product.getQuant() - item.getQuantity();
-
-            if (remaining < 0) {
-                logger.warn("Estoque insuficiente para o produto {}", product.getName());
-                throw new StockUnavailableException("Estoque insuficiente para o produto: " + product.getName());
-            }
-
-            product.setQuant(remaining);
-            productRepository.save(product);
-        }
+        stock.decrement(cart.getItems().stream()
+                .map(item -> new DataStockLine(item.getProduct().getId(), item.getProduct().getName(), item.getQuantity()))
+                .toList());
 
         cart.getItems().clear();
         cartRepository.save(cart);
@@ -0,0 +1,166 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+public class ServiceCatalogExport {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceCatalogExport.class);
+
+    private static final int CHUNK_SIZE = ProductRepository.STREAM_FETCH_SIZE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,nome,preco,quantidade,categoria_item,categoria_tipo,tamanhos,cores,imagem_url";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String fileName() {
+            return "catalogo." + extension;
+        }
+
+        public static Format of(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new BusinessRuleException("Formato de arquivo inválido: use ndjson ou csv.");
+            }
+        }
+    }
+
+    private final ProductRepository repository;
+    private final EntityManager entityManager;
+    private final ObjectMapper mapper;
+
+    public ServiceCatalogExport(ProductRepository repository, EntityManager entityManager, ObjectMapper mapper) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.mapper = mapper;
+    }
+
+    // Memória constante: no máximo CHUNK_SIZE entidades no contexto de persistência, que é limpo a cada bloco escrito.
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream output) throws IOException {
+        logger.info("Iniciando exportação do catálogo em {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long exported = 0;
+        List<ProductModel> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (Stream<ProductModel> products = repository.streamAllByOrderByIdAsc()) {
+            Iterator<ProductModel> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    exported += writeChunk(format, chunk, writer);
+                }
+            }
+            exported += writeChunk(format, chunk, writer);
+        }
+        writer.flush();
+
+        logger.info("Exportação do catálogo concluída com {} produtos", exported);
+        return exported;
+    }
+
+    // Tamanhos e cores do bloco inteiro são carregados pelo @BatchSize no primeiro acesso.
+    private int writeChunk(Format format, List<ProductModel> chunk, Writer writer) throws IOException {
+        for (ProductModel product : chunk) {
+            DataProductsResponse row = toResponseDto(product);
+            if (format == Format.NDJSON) {
+                writer.write(mapper.writeValueAsString(row));
+            } else {
+                writeCsv(row, writer);
+            }
+            writer.write('\n');
+        }
+        int written = chunk.size();
+        writer.flush();
+        entityManager.clear();
+        chunk.clear();
+        return written;
+    }
+
+    private void writeCsv(DataProductsResponse row, Writer writer) throws IOException {
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writer.write(csv(row.name()));
+        writer.write(',');
+        writer.write(row.price() == null ? "" : row.price().toPlainString());
+        writer.write(',');
+        writer.write(row.quant() == null ? "" : row.quant().toString());
+        writer.write(',');
+        writer.write(row.item() == null ? "" : row.item().name());
+        writer.write(',');
+        writer.write(row.type() == null ? "" : row.type().name());
+        writer.write(',');
+        writer.write(csv(String.join("|", row.sizes())));
+        writer.write(',');
+        writer.write(csv(String.join("|", row.colors())));
+        writer.write(',');
+        writer.write(csv(row.imageUrl()));
+    }
+
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private DataProductsResponse toResponseDto(ProductModel product) {
+        return new DataProductsResponse(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getQuant(),
+                product.getItem(),
+                product.getType(),
+                copyOf(product.getSizes()),
+                copyOf(product.getColors()),
+                product.getImageUrl()
+        );
+    }
+
+    private List<String> copyOf(List<String> values) {
+        return values == null ? List.of() : List.copyOf(values);
+    }
+}
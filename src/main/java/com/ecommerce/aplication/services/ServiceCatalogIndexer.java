@@ -0,0 +1,228 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CatalogRebuiltEvent;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Service
+public class ServiceCatalogIndexer {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceCatalogIndexer.class);
+
+    static final int CHUNK_SIZE = 1000;
+    private static final Sort BY_ID = Sort.by("id").ascending();
+
+    private final ProductRepository repository;
+    private final List<CatalogIndex> indexes;
+    private final TransactionTemplate readTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Última versão aplicada de cada produto; produto excluído fica com versão máxima e sem dados.
+    private record Indexed(long version, DataProductsResponse product) {
+        private static final Indexed REMOVED = new Indexed(Long.MAX_VALUE, null);
+    }
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Object applyLock = new Object();
+    // Alterações que chegam durante a carga do snapshot são reaplicadas depois da troca dos índices.
+    private final Set<Long> pending = new LinkedHashSet<>();
+    private Map<Long, Indexed> indexed = new HashMap<>();
+
+    public ServiceCatalogIndexer(ProductRepository repository,
+                                 List<CatalogIndex> indexes,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.indexes = indexes;
+        this.eventPublisher = eventPublisher;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            logger.info("Reconstrução dos índices do catálogo já em andamento");
+            return;
+        }
+
+        try {
+            synchronized (applyLock) {
+                pending.clear();
+            }
+
+            logger.info("Iniciando reconstrução dos índices do catálogo");
+            Map<Long, Indexed> loaded = new LinkedHashMap<>();
+            loadSnapshot(loaded);
+            List<DataProductsResponse> snapshot = loaded.values().stream().map(Indexed::product).toList();
+
+            synchronized (applyLock) {
+                indexes.forEach(index -> index.rebuild(snapshot));
+                indexed = loaded;
+                pending.forEach(productId -> apply(productId, load(productId)));
+                pending.clear();
+                rebuilding.set(false);
+            }
+            eventPublisher.publishEvent(new CatalogRebuiltEvent(snapshot.size()));
+            logger.info("Índices do catálogo reconstruídos com {} produtos", snapshot.size());
+        } catch (RuntimeException e) {
+            rebuilding.set(false);
+            logger.error("Falha ao reconstruir índices do catálogo", e);
+        }
+    }
+
+    // A leitura no banco fica fora do applyLock; sob a trava, uma leitura mais antiga que a já aplicada é
+    // descartada e um produto igual ao indexado não passa pelos índices.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Indexed current = load(event.productId());
+        synchronized (applyLock) {
+            if (rebuilding.get()) {
+                pending.add(event.productId());
+            }
+            apply(event.productId(), current);
+        }
+    }
+
+    // Bloco da importação: uma leitura com findAllById e uma chamada de upsertAll por índice, em vez de uma
+    // leitura e uma publicação por produto.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        Map<Long, Indexed> current = loadAll(event.productIds());
+        synchronized (applyLock) {
+            if (rebuilding.get()) {
+                pending.addAll(event.productIds());
+            }
+            List<DataProductsResponse> upserts = new ArrayList<>(current.size());
+            for (Long productId : event.productIds()) {
+                Indexed product = current.getOrDefault(productId, Indexed.REMOVED);
+                if (!record(productId, product)) {
+                    continue;
+                }
+                if (product.product() == null) {
+                    indexes.forEach(index -> index.remove(productId));
+                } else {
+                    upserts.add(product.product());
+                }
+            }
+            if (!upserts.isEmpty()) {
+                logger.debug("Atualizando {} produtos importados nos índices do catálogo", upserts.size());
+                indexes.forEach(index -> index.upsertAll(upserts));
+            }
+        }
+    }
+
+    private Map<Long, Indexed> loadAll(List<Long> productIds) {
+        Map<Long, Indexed> products = readTransaction.execute(status -> repository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductModel::getId, this::toIndexed)));
+        return products == null ? Map.of() : products;
+    }
+
+    private Indexed load(Long productId) {
+        Optional<Indexed> product = readTransaction.execute(status -> repository.findById(productId).map(this::toIndexed));
+        return product == null || product.isEmpty() ? Indexed.REMOVED : product.get();
+    }
+
+    private void apply(Long productId, Indexed current) {
+        if (!record(productId, current)) {
+            return;
+        }
+
+        if (current.product() == null) {
+            logger.debug("Removendo produto ID {} dos índices do catálogo", productId);
+            indexes.forEach(index -> index.remove(productId));
+        } else {
+            logger.debug("Atualizando produto ID {} nos índices do catálogo", productId);
+            indexes.forEach(index -> index.upsert(current.product()));
+        }
+    }
+
+    // Guarda a leitura como a última aplicada e diz se os índices precisam dela.
+    private boolean record(Long productId, Indexed current) {
+        Indexed previous = indexed.get(productId);
+        if (previous != null && (previous.version() > current.version() || Objects.equals(previous.product(), current.product()))) {
+            if (previous.version() < current.version()) {
+                indexed.put(productId, current);
+            }
+            return false;
+        }
+        indexed.put(productId, current);
+        return true;
+    }
+
+    private void loadSnapshot(Map<Long, Indexed> snapshot) {
+        ScrollPosition position = ScrollPosition.keyset();
+
+        while (true) {
+            ScrollPosition current = position;
+            Window<ProductModel> window = readTransaction.execute(status -> {
+                Window<ProductModel> result = repository.findBy(current, Limit.of(CHUNK_SIZE), BY_ID);
+                result.forEach(product -> snapshot.put(product.getId(), toIndexed(product)));
+                return result;
+            });
+
+            if (window == null || !window.hasNext() || window.isEmpty()) {
+                return;
+            }
+            position = window.positionAt(window.size() - 1);
+        }
+    }
+
+    private Indexed toIndexed(ProductModel product) {
+        return new Indexed(product.getVersion() == null ? 0 : product.getVersion(), toResponseDto(product));
+    }
+
+    private DataProductsResponse toResponseDto(ProductModel product) {
+        return new DataProductsResponse(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                product.getQuant(),
+                product.getItem(),
+                product.getType(),
+                copyOf(product.getSizes()),
+                copyOf(product.getColors()),
+                product.getImageUrl()
+        );
+    }
+
+    private List<String> copyOf(List<String> values) {
+        return values == null ? List.of() : List.copyOf(values);
+    }
+}
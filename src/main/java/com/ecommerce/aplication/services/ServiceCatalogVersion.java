@@ -0,0 +1,94 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.model.product.CatalogRebuiltEvent;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ServiceCatalogVersion {
+
+    public record Stamp(String etag, long lastModified) {
+    }
+
+    private record Version(long value, long lastModified) {
+    }
+
+    private final Clock clock;
+    // Os contadores vivem em memória: a época distingue as versões de cada nó e de cada reinício.
+    private final String epoch = Long.toString(UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE, 36);
+    private final Map<Long, Version> products = new ConcurrentHashMap<>();
+    private final Version initial;
+    private volatile Version catalog;
+    // Fonte única dos números de versão: um produto que muda sozinho nunca repete um número que o catálogo
+    // ainda vai dar a ele.
+    private long sequence;
+
+    public ServiceCatalogVersion() {
+        this(Clock.systemUTC());
+    }
+
+    ServiceCatalogVersion(Clock clock) {
+        this.clock = clock;
+        this.initial = new Version(0, clock.millis());
+        this.catalog = initial;
+    }
+
+    public Stamp catalog() {
+        Version current = catalog;
+        return new Stamp("\"c-" + epoch + "-" + current.value() + "\"", current.lastModified());
+    }
+
+    public Stamp product(Long productId) {
+        Version current = products.getOrDefault(productId, initial);
+        return new Stamp("\"p" + productId + "-" + epoch + "-" + current.value() + "\"", current.lastModified());
+    }
+
+    // Executa depois dos caches e índices: uma versão nova nunca é emitida antes dos dados que ela representa.
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump(event.productId());
+    }
+
+    // O saldo não entra nas listagens enquanto não passa por zero: só a versão do produto muda.
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductStockChanged(ProductStockChangedEvent event) {
+        Version current = products.getOrDefault(event.productId(), initial);
+        products.put(event.productId(), new Version(++sequence, Math.max(clock.millis(), current.lastModified())));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        bump(event.productIds());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogRebuilt(CatalogRebuiltEvent event) {
+        bump(List.of());
+    }
+
+    private void bump(Long productId) {
+        bump(List.of(productId));
+    }
+
+    // Uma versão nova do catálogo por chamada, mesmo quando vários produtos mudam juntos.
+    private synchronized void bump(List<Long> productIds) {
+        long now = Math.max(clock.millis(), catalog.lastModified());
+        catalog = new Version(++sequence, now);
+        productIds.forEach(productId -> products.put(productId, catalog));
+    }
+}
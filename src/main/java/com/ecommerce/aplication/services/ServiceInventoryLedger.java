@@ -0,0 +1,467 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.records.StockRecords.DataStockLeaseStats;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Estoque de produtos em promoção vendido a partir de blocos concedidos a esta instância: a baixa é um CAS
+// em memória, a venda confirmada é um INSERT em estoque_concessoes_vendas na transação do pedido, e a linha
+// da concessão só é tocada ao pegar um bloco novo e ao descontar, em lote, as vendas acumuladas.
+// Cada instância tem sua linha em estoque_concessoes, então as duas instâncias nunca disputam o mesmo contador.
+@Service
+public class ServiceInventoryLedger implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceInventoryLedger.class);
+
+    static final String LOCK_PRODUCT = "SELECT quantidade FROM produtos WHERE id = ? FOR UPDATE";
+    static final String TAKE_FROM_PRODUCT = "UPDATE produtos SET quantidade = quantidade - ?, versao = versao + 1 WHERE id = ?";
+    static final String RETURN_TO_PRODUCT = "UPDATE produtos SET quantidade = quantidade + ?, versao = versao + 1 WHERE id = ?";
+    static final String ADD_TO_LEASE = "UPDATE estoque_concessoes SET quantidade = quantidade + ? WHERE produto_id = ? AND instancia = ?";
+    static final String INSERT_LEASE = "INSERT INTO estoque_concessoes (produto_id, instancia, quantidade) VALUES (?, ?, ?)";
+    static final String DELETE_LEASE = "DELETE FROM estoque_concessoes WHERE produto_id = ? AND instancia = ?";
+    static final String SELECT_LEASES = "SELECT produto_id, quantidade FROM estoque_concessoes WHERE instancia = ?";
+    static final String LOCK_LEASE = "SELECT quantidade FROM estoque_concessoes WHERE produto_id = ? AND instancia = ? FOR UPDATE";
+    static final String INSERT_SALE = "INSERT INTO estoque_concessoes_vendas (produto_id, instancia, quantidade) VALUES (?, ?, ?)";
+    static final String SELECT_SALES = "SELECT id, produto_id, quantidade FROM estoque_concessoes_vendas WHERE instancia = ?";
+    static final String SUM_SALES = "SELECT COALESCE(SUM(quantidade), 0) FROM estoque_concessoes_vendas WHERE produto_id = ? AND instancia = ?";
+    static final String DELETE_SALE = "DELETE FROM estoque_concessoes_vendas WHERE id = ?";
+    static final String DELETE_SALES = "DELETE FROM estoque_concessoes_vendas WHERE produto_id = ? AND instancia = ?";
+
+    private final class Lease {
+        private final Long productId;
+        private final AtomicInteger available = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger unflushed = new AtomicInteger();
+        private final AtomicInteger returning = new AtomicInteger();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        // Valor da linha em estoque_concessoes segundo esta instância; só muda sob rowLock.
+        private int recorded;
+        private volatile boolean retiring;
+        // Marcada antes de conferir pending e returning na devolução do bloco; take() e give() somam o contador
+        // antes de ler a marca, então ou a devolução vê a operação em andamento ou a operação vê a concessão fechando.
+        private volatile boolean closed;
+
+        private Lease(Long productId) {
+            this.productId = productId;
+        }
+
+        private boolean take(int quantity) {
+            pending.addAndGet(quantity);
+            if (retiring || closed) {
+                pending.addAndGet(-quantity);
+                return false;
+            }
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    pending.addAndGet(-quantity);
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+    }
+
+    // Unidades separadas até a transação de quem reservou terminar: confirmadas viram vendas a gravar, canceladas voltam.
+    public final class Reservation {
+        private final Lease lease;
+        private final int quantity;
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private Reservation(Lease lease, int quantity) {
+            this.lease = lease;
+            this.quantity = quantity;
+        }
+
+        public void confirm() {
+            if (settled.compareAndSet(false, true)) {
+                lease.pending.addAndGet(-quantity);
+                lease.unflushed.addAndGet(quantity);
+            }
+        }
+
+        public void cancel() {
+            if (settled.compareAndSet(false, true)) {
+                lease.pending.addAndGet(-quantity);
+                lease.available.addAndGet(quantity);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate leaseTransaction;
+    private final Executor executor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int blockSize;
+    private final String instance;
+
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final Set<Long> hot = ConcurrentHashMap.newKeySet();
+    private final Object rowLock = new Object();
+    private volatile boolean reconciled;
+
+    public ServiceInventoryLedger(JdbcTemplate jdbc,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("taskExecutor") Executor executor,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${inventory.ledger.enabled:false}") boolean enabled,
+                                  @Value("${inventory.ledger.block-size:50}") int blockSize,
+                                  @Value("${inventory.ledger.instance:${HOSTNAME:local}}") String instance) {
+        this.jdbc = jdbc;
+        this.executor = executor;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.blockSize = blockSize;
+        this.instance = instance;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean handles(Long productId) {
+        return enabled && reconciled && hot.contains(productId);
+    }
+
+    // Sem bloco suficiente, pega outro no banco; se o banco também não tem, a reserva é recusada.
+    // Unidades concedidas à outra instância não são vistas aqui: o tamanho do bloco limita quanto fica preso lá.
+    public Optional<Reservation> reserve(Long productId, int quantity) {
+        Lease lease = leases.computeIfAbsent(productId, Lease::new);
+        while (!lease.take(quantity)) {
+            if (lease.retiring || !acquire(lease, quantity)) {
+                return Optional.empty();
+            }
+        }
+
+        if (lease.available.get() < blockSize / 2 && lease.refilling.compareAndSet(false, true)) {
+            executor.execute(() -> refill(lease));
+        }
+        return Optional.of(new Reservation(lease, quantity));
+    }
+
+    // A venda é gravada na transação de quem reservou, então uma queda antes da próxima gravação não a devolve
+    // ao produto. Confirma no commit e devolve no rollback; fora de transação grava e confirma na hora.
+    public void settleWithTransaction(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        List<Object[]> sales = reservations.stream()
+                .map(reservation -> new Object[]{reservation.lease.productId, instance, reservation.quantity})
+                .toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                jdbc.batchUpdate(INSERT_SALE, sales);
+            } catch (RuntimeException e) {
+                reservations.forEach(Reservation::cancel);
+                throw e;
+            }
+            reservations.forEach(Reservation::confirm);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                Consumer<Reservation> settle = status == STATUS_COMMITTED ? Reservation::confirm : Reservation::cancel;
+                reservations.forEach(settle);
+            }
+        });
+        jdbc.batchUpdate(INSERT_SALE, sales);
+    }
+
+    // Unidades de uma reserva de pedido liberada voltam ao bloco desta instância como venda negativa, na transação
+    // de quem liberou; no commit ficam disponíveis em memória. Sem bloco aberto, quem chamou devolve ao produto.
+    public boolean give(Long productId, int quantity) {
+        Lease lease = handles(productId) ? leases.get(productId) : null;
+        if (lease == null) {
+            return false;
+        }
+        lease.returning.addAndGet(quantity);
+        if (lease.closed) {
+            lease.returning.addAndGet(-quantity);
+            return false;
+        }
+
+        Consumer<Boolean> settle = committed -> {
+            if (committed) {
+                lease.unflushed.addAndGet(-quantity);
+                lease.available.addAndGet(quantity);
+            }
+            lease.returning.addAndGet(-quantity);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                jdbc.update(INSERT_SALE, productId, instance, -quantity);
+            } catch (RuntimeException e) {
+                settle.accept(false);
+                throw e;
+            }
+            settle.accept(true);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                settle.accept(status == STATUS_COMMITTED);
+            }
+        });
+        jdbc.update(INSERT_SALE, productId, instance, -quantity);
+        return true;
+    }
+
+    public List<DataStockLeaseStats> stats() {
+        synchronized (rowLock) {
+            return leases.values().stream()
+                    .map(lease -> new DataStockLeaseStats(instance, lease.productId, lease.available.get(),
+                            lease.pending.get(), lease.unflushed.get(), lease.recorded))
+                    .toList();
+        }
+    }
+
+    // Concessões que sobraram de uma execução anterior desta instância voltam para o produto antes de qualquer venda,
+    // descontadas as vendas confirmadas que a instância não chegou a gravar na concessão.
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rowLock) {
+            List<Long> returned = leaseTransaction.execute(status -> {
+                List<Long> products = jdbc.queryForList(SELECT_LEASES, instance).stream()
+                        .map(row -> ((Number) row.get("produto_id")).longValue())
+                        .toList();
+                products.forEach(this::returnLease);
+                return products;
+            });
+            reconciled = true;
+            logger.info("Ledger de estoque da instância {} reconciliado; {} concessões anteriores devolvidas", instance, returned.size());
+        }
+    }
+
+    // Vendas gravadas desde o último desconto saem das concessões num único lote, uma linha por produto.
+    // As vendas são apagadas pelo ID lido, então uma venda confirmada durante o desconto fica para o próximo.
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rowLock) {
+            Map<Long, Integer> sold = leaseTransaction.execute(status -> {
+                Map<Long, Integer> byProduct = new TreeMap<>();
+                List<Object[]> ids = new ArrayList<>();
+                jdbc.query(SELECT_SALES, rs -> {
+                    byProduct.merge(rs.getLong("produto_id"), rs.getInt("quantidade"), Integer::sum);
+                    ids.add(new Object[]{rs.getLong("id")});
+                }, instance);
+                if (!ids.isEmpty()) {
+                    jdbc.batchUpdate(ADD_TO_LEASE, byProduct.entrySet().stream()
+                            .map(entry -> new Object[]{-entry.getValue(), entry.getKey(), instance})
+                            .toList());
+                    jdbc.batchUpdate(DELETE_SALE, ids);
+                }
+                return byProduct;
+            });
+
+            sold.forEach((productId, quantity) -> {
+                Lease lease = leases.get(productId);
+                if (lease != null) {
+                    lease.unflushed.addAndGet(-quantity);
+                    lease.recorded -= quantity;
+                }
+            });
+            if (!sold.isEmpty()) {
+                logger.debug("Ledger de estoque gravou vendas de {} produtos", sold.size());
+            }
+
+            for (Lease lease : List.copyOf(leases.values())) {
+                if (lease.retiring && lease.pending.get() == 0) {
+                    release(lease);
+                }
+            }
+        }
+    }
+
+    // A linha da concessão só é alterada por esta instância; diferença entre ela e o valor registrado é ajuste externo.
+    @Scheduled(fixedDelayString = "${inventory.ledger.drift-check-interval-ms:60000}")
+    public void checkDrift() {
+        if (!enabled || !reconciled) {
+            return;
+        }
+        synchronized (rowLock) {
+            Map<Long, Integer> rows = new HashMap<>();
+            for (Map<String, Object> row : jdbc.queryForList(SELECT_LEASES, instance)) {
+                rows.put(((Number) row.get("produto_id")).longValue(), ((Number) row.get("quantidade")).intValue());
+            }
+
+            for (Lease lease : leases.values()) {
+                int actual = rows.getOrDefault(lease.productId, 0);
+                int drift = actual - lease.recorded;
+                if (drift != 0) {
+                    logger.warn("Divergência de {} unidades na concessão do produto {}; ajustando o ledger", drift, lease.productId);
+                    lease.recorded = actual;
+                    lease.available.updateAndGet(available -> Math.max(0, available + drift));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        leases.values().forEach(lease -> lease.retiring = true);
+        flush();
+    }
+
+    @Override
+    public void rebuild(List<DataProductsResponse> products) {
+        Set<Long> promoted = ConcurrentHashMap.newKeySet();
+        products.stream().filter(product -> product.type() == CategoryType.PROMOÇÕES).forEach(product -> promoted.add(product.id()));
+
+        hot.addAll(promoted);
+        hot.retainAll(promoted);
+        leases.values().forEach(lease -> lease.retiring = !promoted.contains(lease.productId));
+        logger.info("Ledger de estoque acompanhando {} produtos em promoção", promoted.size());
+    }
+
+    @Override
+    public void upsert(DataProductsResponse product) {
+        if (product.type() == CategoryType.PROMOÇÕES) {
+            hot.add(product.id());
+            Lease lease = leases.get(product.id());
+            if (lease != null) {
+                lease.retiring = false;
+            }
+        } else {
+            remove(product.id());
+        }
+    }
+
+    // A devolução do bloco fica para a próxima gravação, fora da thread que aplica as mudanças do catálogo.
+    @Override
+    public void remove(Long productId) {
+        hot.remove(productId);
+        Lease lease = leases.get(productId);
+        if (lease != null) {
+            lease.retiring = true;
+        }
+    }
+
+    private boolean acquire(Lease lease, int quantity) {
+        synchronized (rowLock) {
+            if (lease.closed) {
+                return false;
+            }
+            int missing = quantity - lease.available.get();
+            return missing <= 0 || lease(lease, Math.max(blockSize, missing), missing) > 0;
+        }
+    }
+
+    private void refill(Lease lease) {
+        try {
+            synchronized (rowLock) {
+                if (!lease.retiring && lease.available.get() < blockSize / 2) {
+                    lease(lease, blockSize, 1);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao renovar a concessão do produto {}: {}", lease.productId, e.getMessage());
+        } finally {
+            lease.refilling.set(false);
+        }
+    }
+
+    // Chamado sob rowLock. Trava a linha do produto, retira até wanted unidades (nunca menos que minimum) e
+    // registra o bloco na concessão, tudo numa transação própria que não depende do checkout.
+    private int lease(Lease lease, int wanted, int minimum) {
+        Integer taken = leaseTransaction.execute(status -> {
+            Integer stock;
+            try {
+                stock = jdbc.queryForObject(LOCK_PRODUCT, Integer.class, lease.productId);
+            } catch (EmptyResultDataAccessException e) {
+                return 0;
+            }
+            if (stock == null || stock < minimum) {
+                return 0;
+            }
+
+            int take = Math.min(wanted, stock);
+            jdbc.update(TAKE_FROM_PRODUCT, take, lease.productId);
+            if (jdbc.update(ADD_TO_LEASE, take, lease.productId, instance) == 0) {
+                jdbc.update(INSERT_LEASE, lease.productId, instance, take);
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(lease.productId));
+            return take;
+        });
+
+        int leased = taken == null ? 0 : taken;
+        if (leased > 0) {
+            lease.recorded += leased;
+            lease.available.addAndGet(leased);
+            logger.debug("Instância {} recebeu {} unidades do produto {}", instance, leased, lease.productId);
+        }
+        return leased;
+    }
+
+    // Chamado sob rowLock. Fecha a concessão e, se nenhuma reserva entrou antes disso, devolve a linha ao produto.
+    private void release(Lease lease) {
+        lease.closed = true;
+        if (lease.pending.get() != 0 || lease.returning.get() != 0) {
+            lease.closed = false;
+            return;
+        }
+        int unsold = lease.available.getAndSet(0);
+        int returned = leaseTransaction.execute(status -> returnLease(lease.productId));
+        leases.remove(lease.productId, lease);
+        if (unsold != returned) {
+            logger.warn("Concessão do produto {} encerrada com {} unidades em memória e {} devolvidas", lease.productId, unsold, returned);
+        }
+        logger.info("Instância {} devolveu {} unidades do produto {}", instance, returned, lease.productId);
+    }
+
+    // Dentro de uma transação: a linha da concessão, menos as vendas ainda não descontadas dela, volta ao produto.
+    private int returnLease(Long productId) {
+        List<Integer> rows = jdbc.queryForList(LOCK_LEASE, Integer.class, productId, instance);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int leased = rows.get(0);
+        int sold = jdbc.queryForObject(SUM_SALES, Integer.class, productId, instance);
+        jdbc.update(RETURN_TO_PRODUCT, leased - sold, productId);
+        jdbc.update(DELETE_LEASE, productId, instance);
+        jdbc.update(DELETE_SALES, productId, instance);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        return leased - sold;
+    }
+}
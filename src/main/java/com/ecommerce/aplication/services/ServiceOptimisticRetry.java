@@ -0,0 +1,93 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductConflictStats;
+import com.ecommerce.infra.exceptions.ConcurrentUpdateException;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Cada tentativa roda numa transação nova e relê o produto; conflito de versão espera um tempo aleatório
+// até o dobro do anterior, para que os escritores de um produto disputado não voltem todos juntos.
+@Service
+public class ServiceOptimisticRetry {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceOptimisticRetry.class);
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private static final class Counters {
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+
+    private final TransactionTemplate attemptTransaction;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    public ServiceOptimisticRetry(PlatformTransactionManager transactionManager,
+                                  @Value("${products.optimistic.max-attempts:5}") int maxAttempts,
+                                  @Value("${products.optimistic.backoff-ms:10}") long backoffMillis) {
+        if (maxAttempts < 1 || backoffMillis < 0) {
+            throw new IllegalArgumentException("Configuração de novas tentativas inválida");
+        }
+        this.attemptTransaction = new TransactionTemplate(transactionManager);
+        this.attemptTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Long productId, Supplier<T> attempt) {
+        for (int tries = 1; ; tries++) {
+            try {
+                return attemptTransaction.execute(status -> attempt.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                Counters product = counters.computeIfAbsent(productId, id -> new Counters());
+                product.conflicts.increment();
+                if (tries >= maxAttempts) {
+                    product.exhausted.increment();
+                    logger.warn("Produto ID {} continuou em conflito após {} tentativas", productId, tries);
+                    throw new ConcurrentUpdateException(productId);
+                }
+                logger.debug("Conflito de versão no produto ID {}, tentativa {} de {}", productId, tries, maxAttempts);
+                backoff(productId, tries);
+            }
+        }
+    }
+
+    // Produtos com mais conflitos primeiro: são os SKUs disputados entre edição e checkout.
+    public List<DataProductConflictStats> stats(int limit) {
+        return counters.entrySet().stream()
+                .map(entry -> new DataProductConflictStats(entry.getKey(),
+                        entry.getValue().conflicts.sum(), entry.getValue().exhausted.sum()))
+                .sorted(Comparator.comparingLong(DataProductConflictStats::conflicts).reversed()
+                        .thenComparing(DataProductConflictStats::productId))
+                .limit(limit)
+                .toList();
+    }
+
+    private void backoff(Long productId, int tries) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(tries, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException(productId);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.aplication.services;
 
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
 import com.ecommerce.aplication.records.OrderRecords.DataOrderItemResponse;
 import com.ecommerce.aplication.records.OrderRecords.DataOrderResponse;
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
 import com.ecommerce.infra.exceptions.*;
 import com.ecommerce.model.cart.CartModel;
 import com.ecommerce.model.cart.cartItem.CartItem;
@@ -27,7 +29,8 @@ public class ServiceOrders {
     private final OrdersRepository ordersRepository;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
+    private final ServiceStock stock;
+    private final ServiceStockReservations reservations;
     private final ServiceAsync serviceAsync;
     private final UsersRepositroy usersRepositroy;
 
@@ -35,14 +38,16 @@ public class ServiceOrders {
             OrdersRepository ordersRepository,
             CartRepository cartRepository,
             CartItemRepository cartItemRepository,
-            ProductRepository productRepository,
+            ServiceStock stock,
+            ServiceStockReservations reservations,
             ServiceAsync serviceAsync,
             UsersRepositroy usersRepositroy
     ) {
         this.ordersRepository = ordersRepository;
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
-        this.productRepository = productRepository;
+        this.stock = stock;
+        this.reservations = reservations;
         this.serviceAsync = serviceAsync;
         this.usersRepositroy = usersRepositroy;
     }
@@ -64,6 +69,7 @@ public class ServiceOrders {
         var order = buildOrder(user, orderItems);
 
         ordersRepository.save(order);
+        reservations.hold(order);
         cartItemRepository.deleteAll(cartItems);
 
         serviceAsync.sendConfirmationEmail(order);
@@ -90,13 +96,6 @@ public class ServiceOrders {
     private List<OrderItem> buildOrderItems(List<CartItem> cartItems) {
         List<OrderItem> orderItems = cartItems.stream().map(item -> {
             var product = item.getProduct();
-            if (product.getQuant() < item.getQuantity()) {
-                logger.warn("⚠️ Estoque insuficiente para produto {}", product.getName());
-                throw new StockUnavailableException(product.getName());
-            }
-            product.setQuant(product.getQuant() - item.getQuantity());
-            productRepository.save(product);
-
             var orderItem = new OrderItem();
             orderItem.setProduct(product);
             orderItem.setQuantity(item.getQuantity());
@@ -117,6 +116,9 @@ public class ServiceOrders {
             }
         }
 
+        stock.decrement(orderItems.stream()
+                .map(item -> new DataStockLine(item.getProduct().getId(), item.getProduct().getName(), item.getQuantity()))
+                .toList());
         return orderItems;
     }
 
@@ -144,8 +146,16 @@ public class ServiceOrders {
     }
 
     public List<DataOrderResponse> listOrdersByUser(Long userId) {
-        return ordersRepository.findByUsersId(userId).stream().map(order -> {
-            List<DataOrderItemResponse> items = order.getItems().stream().map(i ->
+        return listOrdersByUser(userId, DataFields.all());
+    }
+
+    // Sem "items" em ?fields=, a consulta nem junta os itens do pedido.
+    public List<DataOrderResponse> listOrdersByUser(Long userId, DataFields fields) {
+        boolean withItems = fields.includes("items");
+        var orders = withItems ? ordersRepository.findByUsersId(userId) : ordersRepository.findSummariesByUsersId(userId);
+
+        return orders.stream().map(order -> {
+            List<DataOrderItemResponse> items = !withItems ? null : order.getItems().stream().map(i ->
                     new DataOrderItemResponse(
                             i.getProduct().getId(),
                             i.getProduct().getName(),
@@ -1,6 +1,7 @@
 package com.ecommerce.aplication.services;
 
 import com.ecommerce.aplication.records.PaymentRecords.DataPaymentsResponse;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
 import com.ecommerce.infra.exceptions.OrderNotFoundException;
 import com.ecommerce.infra.exceptions.PaymentNotFoundException;
 import com.ecommerce.model.orders.OrderModel;
@@ -25,19 +26,24 @@ public class ServicePayment {
     private final OrdersRepository orderRepository;
     private final  ServiceAsync serviceAsync;
     private final ServiceCart serviceCart;
+    private final ServiceStockReservations reservations;
     private final Random random = new Random();
 
-    public ServicePayment(PaymentRepository paymentRepository, OrdersRepository orderRepository, ServiceAsync serviceAsync, ServiceCart serviceCart) {
+    public ServicePayment(PaymentRepository paymentRepository, OrdersRepository orderRepository, ServiceAsync serviceAsync, ServiceCart serviceCart, ServiceStockReservations reservations) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.serviceAsync = serviceAsync;
         this.serviceCart = serviceCart;
+        this.reservations = reservations;
     }
 
 
     @Transactional
     public DataPaymentsResponse simulatePayment(Long orderId, Boolean forceFail) {
         OrderModel order = orderRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException(orderId));
+        if (order.getStatus() == OrderStatus.CANCELADO) {
+            throw new BusinessRuleException("Pedido " + orderId + " cancelado; pagamento recusado.");
+        }
 
         PaymentModel payment = paymentRepository.findByOrderId(orderId).orElse(null);
 
@@ -52,7 +58,9 @@ public class ServicePayment {
 
         if (fail) {
             payment.setStatus(PaymentStatus.FALHOU);
+            reservations.release(orderId);
         } else {
+            reservations.commit(order);
             payment.setStatus(PaymentStatus.PAGO);
             order.setStatus(OrderStatus.PAGO);
             orderRepository.save(order);
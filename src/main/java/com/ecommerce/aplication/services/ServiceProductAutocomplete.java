@@ -0,0 +1,197 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataAutocompleteSuggestion;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductSales;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.search.AutocompleteTrie;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// A trie é imutável e cara de montar, então as gravações não mexem nela: novos nomes e renomeações entram
+// num overlay pequeno e os nomes antigos ficam escondidos até a compactação periódica montar a trie de novo.
+@Service
+public class ServiceProductAutocomplete implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductAutocomplete.class);
+
+    // O que a busca enxerga: a última trie compactada mais as mudanças feitas depois dela.
+    private record View(AutocompleteTrie trie, List<Added> added, Set<Long> hidden) {
+    }
+
+    private record Added(AutocompleteTrie.Entry entry, List<String> keys) {
+    }
+
+    private final ProductRepository repository;
+
+    private final Map<Long, String> names = new HashMap<>();
+    // Nomes usados na trie atual; o overlay é a diferença entre eles e names.
+    private Map<Long, String> compacted = Map.of();
+    private final Map<Long, Added> added = new HashMap<>();
+    private final Set<Long> hidden = new HashSet<>();
+    // Produtos alterados enquanto uma compactação monta a trie fora da trava; nulo fora da compactação.
+    private Set<Long> changedWhileCompacting;
+    private long rebuilds;
+    private Map<Long, Long> sales = Map.of();
+    private volatile View view = new View(AutocompleteTrie.empty(), List.of(), Set.of());
+
+    public ServiceProductAutocomplete(ProductRepository repository) {
+        this.repository = repository;
+    }
+
+    public List<DataAutocompleteSuggestion> suggest(String prefix, Integer limit) {
+        int size = limit == null ? AutocompleteTrie.MAX_SUGGESTIONS : limit;
+        if (size < 1) {
+            throw new BusinessRuleException("Limite de sugestões deve ser maior que zero.");
+        }
+
+        View current = view;
+        List<AutocompleteTrie.Entry> candidates = new ArrayList<>();
+        for (AutocompleteTrie.Entry entry : current.trie().suggest(prefix, AutocompleteTrie.TOP_SIZE)) {
+            if (!current.hidden().contains(entry.productId())) {
+                candidates.add(entry);
+            }
+        }
+        if (!current.added().isEmpty()) {
+            String query = AutocompleteTrie.query(prefix);
+            for (Added entry : current.added()) {
+                if (!query.isEmpty() && entry.keys().stream().anyMatch(key -> key.startsWith(query))) {
+                    candidates.add(entry.entry());
+                }
+            }
+            candidates.sort(AutocompleteTrie.RANKING);
+        }
+
+        return candidates.stream()
+                .limit(Math.min(size, AutocompleteTrie.MAX_SUGGESTIONS))
+                .map(entry -> new DataAutocompleteSuggestion(entry.productId(), entry.name()))
+                .toList();
+    }
+
+    @Override
+    public synchronized void rebuild(List<DataProductsResponse> products) {
+        sales = repository.sumSoldQuantityByProduct().stream()
+                .collect(Collectors.toMap(DataProductSales::productId, DataProductSales::sold));
+        names.clear();
+        products.forEach(product -> names.put(product.id(), product.name()));
+        rebuilds++;
+        changedWhileCompacting = null;
+        install(Map.copyOf(names), build(names, sales));
+        logger.info("Autocomplete reconstruído com {} produtos", names.size());
+    }
+
+    // A trie só depende do nome e das vendas, e as vendas só mudam na reconstrução: mudança de estoque ou preço
+    // não mexe no overlay.
+    @Override
+    public synchronized void upsert(DataProductsResponse product) {
+        if (change(product.id(), product.name())) {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized void upsertAll(List<DataProductsResponse> products) {
+        boolean changed = false;
+        for (DataProductsResponse product : products) {
+            changed |= change(product.id(), product.name());
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        if (change(productId, null)) {
+            publish();
+        }
+    }
+
+    // A trie nova é montada fora da trava; mudanças feitas nesse meio-tempo voltam para o overlay da trie nova.
+    @Scheduled(fixedDelayString = "${catalog.autocomplete.compact-interval-ms:5000}")
+    public void compact() {
+        Map<Long, String> snapshot;
+        Map<Long, Long> weights;
+        long generation;
+        synchronized (this) {
+            if ((added.isEmpty() && hidden.isEmpty()) || changedWhileCompacting != null) {
+                return;
+            }
+            snapshot = Map.copyOf(names);
+            weights = sales;
+            generation = rebuilds;
+            changedWhileCompacting = new HashSet<>();
+        }
+
+        AutocompleteTrie trie = build(snapshot, weights);
+
+        synchronized (this) {
+            if (generation != rebuilds) {
+                return;
+            }
+            Set<Long> changed = changedWhileCompacting;
+            changedWhileCompacting = null;
+            install(snapshot, trie);
+            changed.forEach(productId -> overlay(productId, names.get(productId)));
+            publish();
+            logger.debug("Autocomplete compactado com {} produtos e {} mudanças pendentes", snapshot.size(), changed.size());
+        }
+    }
+
+    private boolean change(Long productId, String name) {
+        String previous = name == null ? names.remove(productId) : names.put(productId, name);
+        if (Objects.equals(previous, name)) {
+            return false;
+        }
+        if (changedWhileCompacting != null) {
+            changedWhileCompacting.add(productId);
+        }
+        overlay(productId, name);
+        return true;
+    }
+
+    private void overlay(Long productId, String name) {
+        String base = compacted.get(productId);
+        added.remove(productId);
+        hidden.remove(productId);
+        if (Objects.equals(base, name)) {
+            return;
+        }
+        if (base != null) {
+            hidden.add(productId);
+        }
+        if (name != null) {
+            added.put(productId, new Added(new AutocompleteTrie.Entry(productId, name, sales.getOrDefault(productId, 0L)),
+                    AutocompleteTrie.keys(name)));
+        }
+    }
+
+    private void install(Map<Long, String> snapshot, AutocompleteTrie trie) {
+        compacted = snapshot;
+        added.clear();
+        hidden.clear();
+        view = new View(trie, List.of(), Set.of());
+    }
+
+    private void publish() {
+        view = new View(view.trie(), List.copyOf(added.values()), Set.copyOf(hidden));
+    }
+
+    private static AutocompleteTrie build(Map<Long, String> names, Map<Long, Long> sales) {
+        return AutocompleteTrie.build(names.entrySet().stream()
+                .map(e -> new AutocompleteTrie.Entry(e.getKey(), e.getValue(), sales.getOrDefault(e.getKey(), 0L)))
+                .toList());
+    }
+}
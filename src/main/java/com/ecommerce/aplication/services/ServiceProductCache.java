@@ -0,0 +1,387 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.CacheRecords.DataCacheTierStats;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+public class ServiceProductCache {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductCache.class);
+
+    public static final String INVALIDATION_CHANNEL = "produtos:invalidacao";
+    private static final String ID_KEY_PREFIX = "produtos:id:";
+    private static final String PAGES_KEY = "produtos:paginas";
+    private static final String IMPORTED_MESSAGE = "importados";
+    private static final String STOCK_MESSAGE = "estoque";
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration redisTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Cache<Long, DataProductsResponse> localById;
+    private final Cache<String, DataProductsPage> localPages;
+
+    // Incrementada a cada invalidação: um valor lido do banco antes de uma escrita não volta para o cache local.
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder localInvalidations = new LongAdder();
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
+    private final LongAdder redisEvictions = new LongAdder();
+    private final LongAdder redisErrors = new LongAdder();
+
+    public ServiceProductCache(StringRedisTemplate redis,
+                               ObjectMapper mapper,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${catalog.cache.local.max-size:10000}") long localMaxSize,
+                               @Value("${catalog.cache.local.ttl:60s}") Duration localTtl,
+                               @Value("${catalog.cache.redis.ttl:10m}") Duration redisTtl) {
+        this.redis = redis;
+        this.mapper = mapper;
+        this.eventPublisher = eventPublisher;
+        this.redisTtl = redisTtl;
+        this.localById = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        this.localPages = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+    }
+
+    public DataProductsResponse getById(Long id, Supplier<DataProductsResponse> loader) {
+        DataProductsResponse local = localById.getIfPresent(id);
+        if (local != null) {
+            return local;
+        }
+
+        long stamp = generation.get();
+        String key = ID_KEY_PREFIX + id;
+        DataProductsResponse value = readRedis(redisGet(key), DataProductsResponse.class);
+
+        if (value == null) {
+            value = loader.get();
+            redisSet(key, value, stamp);
+        }
+
+        if (generation.get() == stamp) {
+            localById.put(id, value);
+        }
+        return value;
+    }
+
+    // Local, depois um MGET no Redis e só então uma consulta ao banco para os IDs que faltarem.
+    public Map<Long, DataProductsResponse> getAllById(List<Long> ids,
+                                                      Function<List<Long>, List<DataProductsResponse>> loader) {
+        Map<Long, DataProductsResponse> found = new HashMap<>(localById.getAllPresent(ids));
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long stamp = generation.get();
+        List<String> cached = redisMultiGet(missing.stream().map(id -> ID_KEY_PREFIX + id).toList());
+        List<Long> toLoad = new ArrayList<>();
+        Map<Long, DataProductsResponse> fetched = new HashMap<>();
+        for (int i = 0; i < missing.size(); i++) {
+            DataProductsResponse value = readRedis(cached == null ? null : cached.get(i), DataProductsResponse.class);
+            if (value == null) {
+                toLoad.add(missing.get(i));
+            } else {
+                fetched.put(value.id(), value);
+            }
+        }
+
+        if (!toLoad.isEmpty()) {
+            Map<String, DataProductsResponse> loaded = new HashMap<>();
+            for (DataProductsResponse value : loader.apply(toLoad)) {
+                fetched.put(value.id(), value);
+                loaded.put(ID_KEY_PREFIX + value.id(), value);
+            }
+            redisSetAll(loaded, stamp);
+        }
+
+        if (generation.get() == stamp) {
+            localById.putAll(fetched);
+        }
+        found.putAll(fetched);
+        return found;
+    }
+
+    public DataProductsPage getPage(String key, Supplier<DataProductsPage> loader) {
+        DataProductsPage local = localPages.getIfPresent(key);
+        if (local != null) {
+            return local;
+        }
+
+        long stamp = generation.get();
+        DataProductsPage value = readRedis(redisHashGet(key), DataProductsPage.class);
+
+        if (value == null) {
+            value = loader.get();
+            redisHashSet(key, value, stamp);
+        }
+
+        if (generation.get() == stamp) {
+            localPages.put(key, value);
+        }
+        return value;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        logger.debug("Invalidando cache do produto ID {}", event.productId());
+        evictLocal(event.productId());
+
+        if (event.remote()) {
+            return;
+        }
+
+        try {
+            Long deleted = redis.delete(List.of(ID_KEY_PREFIX + event.productId(), PAGES_KEY));
+            redisEvictions.add(deleted == null ? 0 : deleted);
+            redis.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + event.productId());
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao invalidar produto ID {} no Redis: {}", event.productId(), e.getMessage());
+        }
+    }
+
+    // Baixa de checkout sem esgotar o produto: só a entrada por ID cai, local e no Redis, e as páginas seguem
+    // valendo até expirar, com o saldo exibido um pouco atrasado.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        logger.debug("Invalidando cache do estoque do produto ID {}", event.productId());
+        generation.incrementAndGet();
+        localById.invalidate(event.productId());
+        localInvalidations.increment();
+
+        if (event.remote()) {
+            return;
+        }
+
+        try {
+            Long deleted = redis.delete(List.of(ID_KEY_PREFIX + event.productId()));
+            redisEvictions.add(deleted == null ? 0 : deleted);
+            redis.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + STOCK_MESSAGE + ":" + event.productId());
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao invalidar estoque do produto ID {} no Redis: {}", event.productId(), e.getMessage());
+        }
+    }
+
+    // Produtos novos não têm entrada por ID em nenhum nó: só as páginas caem, e os outros nós recebem os IDs
+    // numa mensagem só para atualizar os próprios índices.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        logger.debug("Invalidando páginas do cache para {} produtos importados", event.productIds().size());
+        generation.incrementAndGet();
+        localById.invalidateAll(event.productIds());
+        localPages.invalidateAll();
+        localInvalidations.increment();
+
+        if (event.remote()) {
+            return;
+        }
+
+        try {
+            Long deleted = redis.delete(List.of(PAGES_KEY));
+            redisEvictions.add(deleted == null ? 0 : deleted);
+            redis.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + IMPORTED_MESSAGE + ":"
+                    + event.productIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao invalidar páginas de {} produtos importados no Redis: {}", event.productIds().size(), e.getMessage());
+        }
+    }
+
+    // Mensagens no formato nó:ID para uma alteração, nó:estoque:ID para uma baixa que não esgotou o produto e
+    // nó:importados:ID,ID,... para um bloco da importação.
+    public void onRemoteInvalidation(String message) {
+        String[] parts = message.split(":", 3);
+        if (parts.length < 2 || parts[0].equals(nodeId)) {
+            return;
+        }
+
+        if (parts.length == 3 && parts[1].equals(IMPORTED_MESSAGE)) {
+            List<Long> productIds = Arrays.stream(parts[2].split(",")).map(Long::valueOf).toList();
+            logger.debug("Invalidação remota recebida para {} produtos importados", productIds.size());
+            eventPublisher.publishEvent(new ProductsImportedEvent(productIds, true));
+            return;
+        }
+
+        if (parts.length == 3 && parts[1].equals(STOCK_MESSAGE)) {
+            Long productId = Long.valueOf(parts[2]);
+            logger.debug("Invalidação remota de estoque recebida para produto ID {}", productId);
+            eventPublisher.publishEvent(new ProductStockChangedEvent(productId, true));
+            return;
+        }
+
+        Long productId = Long.valueOf(parts[1]);
+        logger.debug("Invalidação remota recebida para produto ID {}", productId);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, true));
+    }
+
+    public List<DataCacheTierStats> stats() {
+        CacheStats byId = localById.stats();
+        CacheStats pages = localPages.stats();
+
+        return List.of(
+                new DataCacheTierStats(
+                        "local",
+                        byId.hitCount() + pages.hitCount(),
+                        byId.missCount() + pages.missCount(),
+                        byId.evictionCount() + pages.evictionCount() + localInvalidations.sum(),
+                        0),
+                new DataCacheTierStats(
+                        "redis",
+                        redisHits.sum(),
+                        redisMisses.sum(),
+                        redisEvictions.sum(),
+                        redisErrors.sum())
+        );
+    }
+
+    private void evictLocal(Long productId) {
+        generation.incrementAndGet();
+        localById.invalidate(productId);
+        localPages.invalidateAll();
+        localInvalidations.increment();
+    }
+
+    private String redisGet(String key) {
+        try {
+            return redis.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao ler chave {} do Redis: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private String redisHashGet(String field) {
+        try {
+            return redis.<String, String>opsForHash().get(PAGES_KEY, field);
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao ler página {} do Redis: {}", field, e.getMessage());
+            return null;
+        }
+    }
+
+    private void redisSet(String key, Object value, long stamp) {
+        if (generation.get() != stamp) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(key, mapper.writeValueAsString(value), redisTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao gravar chave {} no Redis: {}", key, e.getMessage());
+        }
+    }
+
+    private List<String> redisMultiGet(List<String> keys) {
+        try {
+            return redis.opsForValue().multiGet(keys);
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao ler {} chaves do Redis: {}", keys.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redisSetAll(Map<String, DataProductsResponse> values, long stamp) {
+        if (values.isEmpty() || generation.get() != stamp) {
+            return;
+        }
+        try {
+            Map<String, String> json = new HashMap<>();
+            for (Map.Entry<String, DataProductsResponse> entry : values.entrySet()) {
+                json.put(entry.getKey(), mapper.writeValueAsString(entry.getValue()));
+            }
+            redis.executePipelined(new SessionCallback<Object>() {
+                @Override
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, String> ops = (ValueOperations<String, String>) operations.opsForValue();
+                    json.forEach((key, value) -> ops.set(key, value, redisTtl));
+                    return null;
+                }
+            });
+        } catch (JsonProcessingException | RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao gravar {} chaves no Redis: {}", values.size(), e.getMessage());
+        }
+    }
+
+    private void redisHashSet(String field, Object value, long stamp) {
+        if (generation.get() != stamp) {
+            return;
+        }
+        try {
+            redis.opsForHash().put(PAGES_KEY, field, mapper.writeValueAsString(value));
+            redis.expire(PAGES_KEY, redisTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            redisErrors.increment();
+            logger.warn("Falha ao gravar página {} no Redis: {}", field, e.getMessage());
+        }
+    }
+
+    private <T> T readRedis(String json, Class<T> type) {
+        if (json == null) {
+            redisMisses.increment();
+            return null;
+        }
+        try {
+            T value = mapper.readValue(json, type);
+            redisHits.increment();
+            return value;
+        } catch (JsonProcessingException e) {
+            redisErrors.increment();
+            logger.warn("Valor inválido no cache Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+}
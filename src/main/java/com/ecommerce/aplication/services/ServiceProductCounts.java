@@ -0,0 +1,64 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsFilter;
+import com.ecommerce.model.repositorys.ProductRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+@Service
+public class ServiceProductCounts {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductCounts.class);
+
+    private final ProductRepository repository;
+    private final LoadingCache<DataProductsFilter, Long> counts;
+
+    public ServiceProductCounts(ProductRepository repository,
+                                @Qualifier("taskExecutor") Executor taskExecutor,
+                                @Value("${catalog.counts.max-size:1000}") long maxSize,
+                                @Value("${catalog.counts.refresh:30s}") Duration refreshAfter,
+                                @Value("${catalog.counts.expire:10m}") Duration expireAfter) {
+        this.repository = repository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterAccess(expireAfter)
+                .executor(taskExecutor)
+                .build(this::load);
+    }
+
+    public long count(DataProductsFilter filter) {
+        return counts.get(filter);
+    }
+
+    private long load(DataProductsFilter filter) {
+        logger.debug("Recalculando total de produtos para filtro {}", filter);
+
+        if (filter.item() != null && filter.type() != null) {
+            return repository.countByItemAndType(filter.item(), filter.type());
+        }
+        if (filter.item() != null) {
+            return repository.countByItem(filter.item());
+        }
+        if (filter.type() != null) {
+            return repository.countByType(filter.type());
+        }
+        if (filter.name() != null) {
+            return repository.countByNameContainingIgnoreCase(filter.name());
+        }
+        if (filter.size() != null) {
+            return repository.countBySizesContainingIgnoreCase(filter.size());
+        }
+        if (filter.color() != null) {
+            return repository.countByColorsContainingIgnoreCase(filter.color());
+        }
+        return repository.count();
+    }
+}
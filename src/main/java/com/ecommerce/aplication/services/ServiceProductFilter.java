@@ -0,0 +1,113 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogBitmaps;
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataFacetCounts;
+import com.ecommerce.aplication.records.ProductsRecords.DataPageRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsQuery;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.infra.exceptions.IndexNotReadyException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ServiceProductFilter implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductFilter.class);
+
+    private volatile CatalogBitmaps bitmaps = new CatalogBitmaps();
+    private volatile boolean ready;
+
+    private final Cache<DataProductsQuery, DataFacetCounts> facetCache;
+    // Mesmo esquema do cache de produtos: contagens calculadas antes de uma escrita não entram no cache.
+    private final AtomicLong generation = new AtomicLong();
+
+    public ServiceProductFilter(@Value("${catalog.facets.cache.max-size:1000}") long facetCacheSize) {
+        this.facetCache = Caffeine.newBuilder()
+                .maximumSize(facetCacheSize)
+                .build();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public DataFacetCounts facets(DataProductsQuery query) {
+        logger.debug("Calculando facetas para filtro {}", query);
+
+        if (!ready) {
+            throw new IndexNotReadyException("Índice do catálogo ainda está sendo carregado. Tente novamente em instantes.");
+        }
+
+        DataFacetCounts cached = facetCache.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = generation.get();
+        DataFacetCounts counts = bitmaps.facets(query);
+        if (generation.get() == stamp) {
+            facetCache.put(query, counts);
+        }
+        return counts;
+    }
+
+    public DataProductsPage search(DataProductsQuery query, DataPageRequest request) {
+        logger.debug("Filtrando produtos em memória: {}, requisição {}", query, request);
+
+        if (!ready) {
+            throw new IndexNotReadyException("Índice do catálogo ainda está sendo carregado. Tente novamente em instantes.");
+        }
+
+        DataProductsCursor after = request.cursor() == null ? null : DataProductsCursor.decode(request.cursor(), query.sort());
+        CatalogBitmaps.Selection selection = bitmaps.select(query, after, request.page() * request.size(), request.size(), request.withTotal());
+
+        List<DataProductsResponse> content = List.copyOf(selection.content());
+        String nextCursor = selection.hasNext() && !content.isEmpty()
+                ? DataProductsCursor.after(query.sort(), content.get(content.size() - 1)).encode()
+                : null;
+        return new DataProductsPage(content, nextCursor, selection.total());
+    }
+
+    @Override
+    public void rebuild(List<DataProductsResponse> products) {
+        CatalogBitmaps fresh = new CatalogBitmaps();
+        products.forEach(fresh::upsert);
+
+        bitmaps = fresh;
+        ready = true;
+        invalidateFacets();
+        logger.info("Índice de filtros reconstruído com {} produtos", fresh.size());
+    }
+
+    @Override
+    public void upsert(DataProductsResponse product) {
+        bitmaps.upsert(product);
+        invalidateFacets();
+    }
+
+    @Override
+    public void upsertAll(List<DataProductsResponse> products) {
+        products.forEach(bitmaps::upsert);
+        invalidateFacets();
+    }
+
+    @Override
+    public void remove(Long productId) {
+        bitmaps.remove(productId);
+        invalidateFacets();
+    }
+
+    private void invalidateFacets() {
+        generation.incrementAndGet();
+        facetCache.invalidateAll();
+    }
+}
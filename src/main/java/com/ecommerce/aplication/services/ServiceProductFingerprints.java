@@ -0,0 +1,162 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.BloomFilter;
+import com.ecommerce.aplication.index.BloomFilterMetrics;
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.CacheRecords.DataBloomFilterStats;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.ProductFingerprint;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+public class ServiceProductFingerprints implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductFingerprints.class);
+
+    static final double FALSE_POSITIVE_RATE = 0.01;
+    static final int MIN_CAPACITY = 10_000;
+    static final int BACKFILL_CHUNK_SIZE = 500;
+
+    private final ProductRepository repository;
+    private final TransactionTemplate writeTransaction;
+    private final BloomFilterMetrics metrics = new BloomFilterMetrics("assinaturas");
+
+    private volatile BloomFilter filter = newFilter(0);
+    private volatile boolean ready;
+
+    public ServiceProductFingerprints(ProductRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    // Negativo do filtro dispensa o banco; um positivo é confirmado pela coluna indexada.
+    public boolean isDuplicate(String fingerprint, Long productId) {
+        boolean filtered = ready;
+        if (filtered && !filter.mightContain(fingerprint)) {
+            metrics.negative();
+            return false;
+        }
+
+        Optional<Long> owner = repository.findIdByFingerprint(fingerprint);
+        if (filtered) {
+            metrics.positive(owner.isPresent());
+        }
+        return owner.filter(id -> !id.equals(productId)).isPresent();
+    }
+
+    public Set<String> existing(Collection<String> fingerprints) {
+        boolean filtered = ready;
+        List<String> candidates = new ArrayList<>(fingerprints.size());
+        for (String fingerprint : fingerprints) {
+            if (!filtered || filter.mightContain(fingerprint)) {
+                candidates.add(fingerprint);
+            } else {
+                metrics.negative();
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+
+        Set<String> found = new HashSet<>(repository.findExistingFingerprints(candidates));
+        if (filtered) {
+            candidates.forEach(candidate -> metrics.positive(found.contains(candidate)));
+        }
+        return found;
+    }
+
+    public DataBloomFilterStats stats() {
+        return metrics.stats(ready, filter);
+    }
+
+    @Override
+    public void rebuild(List<DataProductsResponse> products) {
+        BloomFilter fresh = newFilter(products.size());
+        products.forEach(product -> fresh.put(fingerprint(product)));
+
+        filter = fresh;
+        ready = true;
+        logger.info("Filtro de assinaturas reconstruído com {} produtos", products.size());
+    }
+
+    @Override
+    public void upsert(DataProductsResponse product) {
+        filter.put(fingerprint(product));
+    }
+
+    // O filtro não remove: a assinatura antiga vira um falso positivo que a consulta ao banco descarta.
+    @Override
+    public void remove(Long productId) {
+    }
+
+    // Preenche a coluna em produtos gravados antes dela existir; conflitos ficam nulos e são registrados.
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long after = 0;
+        int filled = 0;
+        int conflicts = 0;
+
+        while (true) {
+            long cursor = after;
+            List<ProductModel> batch = writeTransaction.execute(status -> {
+                List<ProductModel> products = repository.findByFingerprintIsNullAndIdGreaterThanOrderByIdAsc(
+                        cursor, Limit.of(BACKFILL_CHUNK_SIZE));
+                if (products.isEmpty()) {
+                    return products;
+                }
+
+                Set<String> taken = new HashSet<>(existing(products.stream().map(ProductFingerprint::of).toList()));
+                for (ProductModel product : products) {
+                    String fingerprint = ProductFingerprint.of(product);
+                    if (taken.add(fingerprint)) {
+                        product.setFingerprint(fingerprint);
+                    } else {
+                        logger.warn("Produto ID {} duplica a assinatura de outro produto e ficará sem assinatura", product.getId());
+                    }
+                }
+                return products;
+            });
+
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (ProductModel product : batch) {
+                if (product.getFingerprint() == null) {
+                    conflicts++;
+                } else {
+                    filled++;
+                }
+            }
+            after = batch.get(batch.size() - 1).getId();
+        }
+
+        if (filled > 0 || conflicts > 0) {
+            logger.info("Assinaturas preenchidas em {} produtos, {} conflitos", filled, conflicts);
+        }
+    }
+
+    private static String fingerprint(DataProductsResponse product) {
+        return ProductFingerprint.of(product.name(), product.type(), product.item(), product.sizes(), product.colors());
+    }
+
+    private static BloomFilter newFilter(int products) {
+        return new BloomFilter(Math.max(MIN_CAPACITY, 2L * products), FALSE_POSITIVE_RATE);
+    }
+}
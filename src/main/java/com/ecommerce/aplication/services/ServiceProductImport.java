@@ -0,0 +1,361 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ImportRecords.DataImportError;
+import com.ecommerce.aplication.records.ImportRecords.DataImportReport;
+import com.ecommerce.aplication.records.ProductsRecords.DataProducts;
+import com.ecommerce.aplication.services.ServiceCatalogExport.Format;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import com.ecommerce.model.repositorys.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ServiceProductImport {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductImport.class);
+
+    static final int CHUNK_SIZE = ProductRepository.STREAM_FETCH_SIZE;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            "nome", "preco", "quantidade", "categoria_item", "categoria_tipo", "tamanhos", "cores");
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO produtos (nome, preco, quantidade, categoria_item, categoria_tipo, imagem_url, assinatura)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_SIZE = "INSERT INTO produto_tamanhos (produto_id, tamanho) VALUES (?, ?)";
+    private static final String INSERT_COLOR = "INSERT INTO produto_cores (produto_id, cor) VALUES (?, ?)";
+
+    private record Row(long number, ProductModel product, String fingerprint) {
+    }
+
+    private final ServiceProductFingerprints fingerprints;
+    private final ServiceProductsWrite productsWrite;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate writeTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader productReader;
+
+    public ServiceProductImport(ServiceProductFingerprints fingerprints,
+                                ServiceProductsWrite productsWrite,
+                                JdbcTemplate jdbc,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper mapper) {
+        this.fingerprints = fingerprints;
+        this.productsWrite = productsWrite;
+        this.jdbc = jdbc;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.productReader = mapper.readerFor(DataProducts.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    // Lê o arquivo em fluxo e grava em blocos de CHUNK_SIZE, cada um na sua própria transação.
+    public DataImportReport importProducts(Format format, InputStream input) throws IOException {
+        logger.info("Iniciando importação de produtos em {}", format);
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) {
+            readCsv(reader, progress, seen, chunk);
+        } else {
+            readNdjson(reader, progress, seen, chunk);
+        }
+        flush(chunk, progress);
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? progress.rows : progress.rows * 1000.0 / elapsedMillis;
+        logger.info("Importação concluída: {} linhas, {} importadas, {} duplicadas, {} com erro em {} ms ({} linhas/s)",
+                progress.rows, progress.imported, progress.duplicates, progress.failed, elapsedMillis, Math.round(rowsPerSecond));
+
+        return new DataImportReport(progress.rows, progress.imported, progress.duplicates, progress.failed,
+                elapsedMillis, rowsPerSecond, List.copyOf(progress.errors));
+    }
+
+    private void readNdjson(BufferedReader reader, Progress progress, Set<String> seen, List<Row> chunk) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            progress.rows++;
+            try {
+                accept(lineNumber, productReader.readValue(line), progress, seen, chunk);
+            } catch (JsonProcessingException e) {
+                progress.fail(lineNumber, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Progress progress, Set<String> seen, List<Row> chunk) throws IOException {
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new BusinessRuleException("Cabeçalho CSV sem as colunas obrigatórias: " + String.join(", ", missing));
+        }
+
+        long rowNumber = 1;
+        List<String> fields;
+        while ((fields = readCsvRecord(reader)) != null) {
+            rowNumber++;
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+
+            progress.rows++;
+            try {
+                accept(rowNumber, fromCsv(fields, columns), progress, seen, chunk);
+            } catch (IllegalArgumentException e) {
+                progress.fail(rowNumber, "Valor inválido: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept(long rowNumber, DataProducts data, Progress progress, Set<String> seen, List<Row> chunk) {
+        ProductModel product;
+        try {
+            product = productsWrite.prepare(data);
+            if (product.getItem() == null || product.getType() == null) {
+                throw new BusinessRuleException("O produto precisa ter categoria de item e de tipo.");
+            }
+        } catch (BusinessRuleException e) {
+            progress.fail(rowNumber, e.getMessage());
+            return;
+        }
+
+        String fingerprint = product.getFingerprint();
+        if (!seen.add(fingerprint)) {
+            progress.duplicate(rowNumber);
+            return;
+        }
+
+        chunk.add(new Row(rowNumber, product, fingerprint));
+        if (chunk.size() == CHUNK_SIZE) {
+            flush(chunk, progress);
+        }
+    }
+
+    private void flush(List<Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        writeTransaction.executeWithoutResult(status -> {
+            Set<String> existing = existingFingerprints(chunk);
+            List<Row> fresh = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                if (existing.contains(row.fingerprint())) {
+                    progress.duplicate(row.number());
+                } else {
+                    fresh.add(row);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return;
+            }
+
+            List<Long> ids = insertProducts(fresh);
+            List<Object[]> sizes = new ArrayList<>();
+            List<Object[]> colors = new ArrayList<>();
+            for (int i = 0; i < fresh.size(); i++) {
+                Long id = ids.get(i);
+                ProductModel product = fresh.get(i).product();
+                product.getSizes().forEach(size -> sizes.add(new Object[]{id, size}));
+                product.getColors().forEach(color -> colors.add(new Object[]{id, color}));
+            }
+            jdbc.batchUpdate(INSERT_SIZE, sizes);
+            jdbc.batchUpdate(INSERT_COLOR, colors);
+
+            progress.imported += fresh.size();
+            eventPublisher.publishEvent(new ProductsImportedEvent(ids));
+        });
+
+        logger.debug("Bloco de {} produtos processado na importação", chunk.size());
+        chunk.clear();
+    }
+
+    // Uma consulta por bloco na coluna indexada, só com as assinaturas que o filtro de Bloom não descartou.
+    private Set<String> existingFingerprints(List<Row> chunk) {
+        return fingerprints.existing(chunk.stream().map(Row::fingerprint).toList());
+    }
+
+    private List<Long> insertProducts(List<Row> rows) {
+        return jdbc.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Row row : rows) {
+                    ProductModel product = row.product();
+                    statement.setString(1, product.getName());
+                    statement.setBigDecimal(2, product.getPrice());
+                    statement.setInt(3, product.getQuant());
+                    statement.setString(4, product.getItem().name());
+                    statement.setString(5, product.getType().name());
+                    statement.setString(6, product.getImageUrl());
+                    statement.setString(7, row.fingerprint());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> ids = new ArrayList<>(rows.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong("id"));
+                    }
+                }
+                if (ids.size() != rows.size()) {
+                    throw new IllegalStateException("O banco devolveu " + ids.size() + " IDs para " + rows.size() + " produtos");
+                }
+                return ids;
+            }
+        });
+    }
+
+    private DataProducts fromCsv(List<String> fields, Map<String, Integer> columns) {
+        String price = field(fields, columns, "preco");
+        String quant = field(fields, columns, "quantidade");
+        String item = field(fields, columns, "categoria_item");
+        String type = field(fields, columns, "categoria_tipo");
+
+        return new DataProducts(
+                field(fields, columns, "nome"),
+                price == null ? null : new BigDecimal(price),
+                null,
+                item == null ? null : CategoryItem.valueOf(item.toUpperCase(Locale.ROOT)),
+                type == null ? null : CategoryType.valueOf(type.toUpperCase(Locale.ROOT)),
+                quant == null ? null : Integer.valueOf(quant),
+                split(field(fields, columns, "tamanhos")),
+                split(field(fields, columns, "cores")),
+                field(fields, columns, "imagem_url")
+        );
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Tamanhos e cores usam '|' como na exportação do catálogo.
+    private List<String> split(String value) {
+        return value == null ? List.of() : Arrays.asList(value.split("\\|"));
+    }
+
+    // RFC 4180: campos entre aspas podem conter vírgulas, quebras de linha e aspas duplicadas.
+    static List<String> readCsvRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                int next = reader.read();
+                if (next == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    if (next != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static final class Progress {
+        private long rows;
+        private long imported;
+        private long duplicates;
+        private long failed;
+        // Os contadores são completos; a lista de erros é limitada para manter a memória constante.
+        private final List<DataImportError> errors = new ArrayList<>();
+
+        private void fail(long rowNumber, String message) {
+            failed++;
+            report(rowNumber, message);
+        }
+
+        private void duplicate(long rowNumber) {
+            duplicates++;
+            report(rowNumber, ServiceProductsWrite.DUPLICATE_MESSAGE);
+        }
+
+        private void report(long rowNumber, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new DataImportError(rowNumber, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class ServiceProductJson {
+
+    public static final int GZIP_MIN_SIZE = 1024;
+
+    public static final class Serialized {
+        private final Object source;
+        private final byte[] json;
+        private volatile byte[] gzip;
+
+        private Serialized(Object source, byte[] json) {
+            this.source = source;
+            this.json = json;
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        public boolean compressible() {
+            return json.length >= GZIP_MIN_SIZE;
+        }
+
+        // Comprimido uma única vez, na primeira requisição que aceita gzip.
+        public byte[] gzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+    }
+
+    private final ObjectMapper mapper;
+    private final Cache<Long, Serialized> products;
+    // Chaves fracas comparam por identidade: a lista de uma página em cache só é reaproveitada enquanto for a mesma instância.
+    private final Cache<List<DataProductsResponse>, Serialized> pages;
+
+    public ServiceProductJson(ObjectMapper mapper,
+                              @Value("${catalog.json.cache.max-size:10000}") long maxSize) {
+        this.mapper = mapper;
+        this.products = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.pages = Caffeine.newBuilder().weakKeys().maximumSize(maxSize).build();
+    }
+
+    public Serialized product(DataProductsResponse product) {
+        Serialized cached = products.getIfPresent(product.id());
+        if (cached != null && (cached.source == product || cached.source.equals(product))) {
+            return cached;
+        }
+
+        Serialized serialized = new Serialized(product, write(product));
+        products.put(product.id(), serialized);
+        return serialized;
+    }
+
+    public Serialized page(List<DataProductsResponse> content) {
+        Serialized cached = pages.getIfPresent(content);
+        if (cached != null) {
+            return cached;
+        }
+
+        Serialized serialized = new Serialized(content, concat(content));
+        pages.put(content, serialized);
+        return serialized;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        products.invalidate(event.productId());
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        products.invalidate(event.productId());
+    }
+
+    // A página é montada com os bytes já serializados de cada produto, sem passar pelo Jackson.
+    private byte[] concat(List<DataProductsResponse> content) {
+        byte[][] parts = new byte[content.size()][];
+        int length = 2 + Math.max(content.size() - 1, 0);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = product(content.get(i)).json();
+            length += parts[i].length;
+        }
+
+        byte[] json = new byte[length];
+        int offset = 0;
+        json[offset++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                json[offset++] = ',';
+            }
+            System.arraycopy(parts[i], 0, json, offset, parts[i].length);
+            offset += parts[i].length;
+        }
+        json[offset] = ']';
+        return json;
+    }
+
+    private byte[] write(DataProductsResponse product) {
+        try {
+            return mapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar produto ID " + product.id(), e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
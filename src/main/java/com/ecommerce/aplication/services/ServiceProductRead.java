@@ -1,6 +1,16 @@
 package com.ecommerce.aplication.services;
 
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
+import com.ecommerce.aplication.records.ProductsRecords.DataPageRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatch;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatchRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsFilter;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsQuery;
 import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.search.SearchHit;
+import com.ecommerce.aplication.search.TextNormalizer;
 import com.ecommerce.infra.exceptions.BusinessRuleException;
 import com.ecommerce.infra.exceptions.ResourceNotFoundException;
 import com.ecommerce.model.product.CategoryItem;
@@ -9,23 +19,52 @@ import com.ecommerce.model.product.ProductModel;
 import com.ecommerce.model.repositorys.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor.*;
+
 @Service
 public class ServiceProductRead {
     private final ProductRepository repository;
+    private final ServiceProductCache cache;
+    private final ServiceProductCounts counts;
+    private final ServiceProductSearch search;
+    private final ServiceProductFilter filter;
+    private final ServiceProductVariants variants;
 
     private static final Logger logger = LoggerFactory.getLogger(ServiceProductRead.class);
+    private static final Sort BY_ID = Sort.by("id").ascending();
 
-    public ServiceProductRead(ProductRepository repository) {
+    public ServiceProductRead(ProductRepository repository,
+                              ServiceProductCache cache,
+                              ServiceProductCounts counts,
+                              ServiceProductSearch search,
+                              ServiceProductFilter filter,
+                              ServiceProductVariants variants) {
         this.repository = repository;
+        this.cache = cache;
+        this.counts = counts;
+        this.search = search;
+        this.filter = filter;
+        this.variants = variants;
     }
 
     private DataProductsResponse toResponseDto(ProductModel product) {
+        return toResponseDto(product, DataFields.all());
+    }
+
+    // Coleções fora de ?fields= não são tocadas, então o Hibernate nunca as carrega.
+    private DataProductsResponse toResponseDto(ProductModel product, DataFields fields) {
         return new DataProductsResponse(
                 product.getId(),
                 product.getName(),
@@ -33,12 +72,108 @@ public class ServiceProductRead {
                 product.getQuant(),
                 product.getItem(),
                 product.getType(),
-                product.getSizes(),
-                product.getColors(),
+                fields.includes("sizes") ? copyOf(product.getSizes()) : null,
+                fields.includes("colors") ? copyOf(product.getColors()) : null,
                 product.getImageUrl()
         );
     }
 
+    private List<String> copyOf(List<String> values) {
+        return values == null ? List.of() : List.copyOf(values);
+    }
+
+    private DataProductsPage cachedPage(String key,
+                                        DataProductsFilter filter,
+                                        DataPageRequest request,
+                                        String sortTag,
+                                        Sort sort,
+                                        Function<Pageable, Slice<ProductModel>> offsetQuery,
+                                        BiFunction<ScrollPosition, Limit, Window<ProductModel>> keysetQuery) {
+        DataProductsPage page = cache.getPage(key + ":" + request.cacheKey(), () -> {
+            List<ProductModel> products;
+            boolean hasNext;
+
+            if (request.cursor() == null) {
+                Slice<ProductModel> result = offsetQuery.apply(PageRequest.of(request.page(), request.size(), sort));
+                products = result.getContent();
+                hasNext = result.hasNext();
+            } else {
+                DataProductsCursor cursor = DataProductsCursor.decode(request.cursor(), sortTag);
+                Window<ProductModel> result = keysetQuery.apply(toScrollPosition(cursor), Limit.of(request.size()));
+                products = result.getContent();
+                hasNext = result.hasNext();
+            }
+
+            List<DataProductsResponse> content = products.stream().map(product -> toResponseDto(product, request.fields())).toList();
+            String nextCursor = hasNext && !content.isEmpty()
+                    ? DataProductsCursor.after(sortTag, content.get(content.size() - 1)).encode()
+                    : null;
+            return new DataProductsPage(content, nextCursor);
+        });
+
+        return request.withTotal() ? page.withTotal(counts.count(filter)) : page;
+    }
+
+    private DataProductsPage rankedPage(String term, boolean fuzzy, DataPageRequest request) {
+        String key = (fuzzy ? "busca-aproximada:" : "busca:") + TextNormalizer.fold(term) + ":" + request.cacheKey();
+        DataProductsPage page = cache.getPage(key, () -> {
+            List<SearchHit> hits = search.search(term, fuzzy);
+
+            int from = request.cursor() == null
+                    ? request.page() * request.size()
+                    : positionAfter(hits, DataProductsCursor.decode(request.cursor(), SORT_RELEVANCE));
+            from = Math.min(from, hits.size());
+            int to = Math.min(from + request.size(), hits.size());
+            List<SearchHit> pageHits = hits.subList(from, to);
+
+            Map<Long, ProductModel> byId = repository.findAllById(pageHits.stream().map(SearchHit::productId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(ProductModel::getId, Function.identity()));
+            List<DataProductsResponse> content = pageHits.stream()
+                    .map(hit -> byId.get(hit.productId()))
+                    .filter(Objects::nonNull)
+                    .map(product -> toResponseDto(product, request.fields()))
+                    .toList();
+
+            String nextCursor = null;
+            if (to < hits.size() && !pageHits.isEmpty()) {
+                SearchHit last = pageHits.get(pageHits.size() - 1);
+                nextCursor = new DataProductsCursor(SORT_RELEVANCE, new BigDecimal(Float.toString(last.score())), last.productId()).encode();
+            }
+            return new DataProductsPage(content, nextCursor, (long) hits.size());
+        });
+
+        return request.withTotal() ? page : page.withTotal(null);
+    }
+
+    private int positionAfter(List<SearchHit> hits, DataProductsCursor cursor) {
+        if (cursor.key() == null) {
+            throw new BusinessRuleException("Cursor inválido para esta listagem.");
+        }
+        SearchHit last = new SearchHit(cursor.id(), cursor.key().floatValue());
+
+        int low = 0;
+        int high = hits.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (SearchHit.RANKING.compare(hits.get(mid), last) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private ScrollPosition toScrollPosition(DataProductsCursor cursor) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (cursor.key() != null) {
+            keys.put("price", cursor.key());
+        }
+        keys.put("id", cursor.id());
+        return ScrollPosition.forward(keys);
+    }
+
     public ProductModel findProductEntityById(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produto não encontrado"));
@@ -47,72 +182,125 @@ public class ServiceProductRead {
     public DataProductsResponse findById(Long id) {
         logger.debug("Buscando produto por ID: {}", id);
 
-        ProductModel model = repository.findById(id)
+        return cache.getById(id, () -> toResponseDto(load(id)));
+    }
+
+    // O cache guarda só o produto completo; com ?fields= a leitura vai ao banco e as coleções não pedidas
+    // nem são carregadas, sem gravar o DTO parcial no cache.
+    public DataProductsResponse findById(Long id, DataFields fields) {
+        if (fields.isAll()) {
+            return findById(id);
+        }
+        logger.debug("Buscando produto por ID: {} com campos {}", id, fields.cacheKey());
+        return toResponseDto(load(id), fields);
+    }
+
+    private ProductModel load(Long id) {
+        return repository.findById(id)
                 .orElseThrow(() -> {
                     logger.warn("Produto ID {} não encontrado", id);
                     return new ResourceNotFoundException("Produto com ID " + id + " não encontrado.");
                 });
+    }
 
-        return toResponseDto(model);
+    public DataProductsBatch findAllByIds(List<Long> ids) {
+        List<Long> distinct = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) {
+            throw new BusinessRuleException("Informe ao menos um ID de produto.");
+        }
+        if (distinct.size() > DataProductsBatchRequest.MAX_IDS) {
+            throw new BusinessRuleException("Máximo de " + DataProductsBatchRequest.MAX_IDS + " IDs por requisição.");
+        }
+        logger.debug("Buscando {} produtos por ID em lote", distinct.size());
+
+        Map<Long, DataProductsResponse> found = cache.getAllById(distinct, missing ->
+                repository.findAllById(missing).stream().map(this::toResponseDto).toList());
+
+        List<DataProductsResponse> products = distinct.stream().map(found::get).filter(Objects::nonNull).toList();
+        List<Long> missing = distinct.stream().filter(id -> !found.containsKey(id)).toList();
+        return new DataProductsBatch(products, missing);
     }
 
-    public Page<DataProductsResponse> findAll(int page) {
-        logger.debug("Buscando todos os produtos, página {}", page);
-        return repository.findAll(PageRequest.of(page, 5)).map(this::toResponseDto);
+    public DataProductsPage findAll(DataPageRequest request) {
+        logger.debug("Buscando todos os produtos, requisição {}", request);
+        return cachedPage("todos", DataProductsFilter.all(), request, SORT_ID, BY_ID,
+                repository::findBy,
+                (position, limit) -> repository.findBy(position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findByItem(CategoryItem item, int page) {
-        logger.debug("Buscando produtos por item {} na página {}", item, page);
-        return repository.findByItem(item, PageRequest.of(page, 5)).map(this::toResponseDto);
+    public DataProductsPage findByItem(CategoryItem item, DataPageRequest request) {
+        logger.debug("Buscando produtos por item {}, requisição {}", item, request);
+        return cachedPage("item:" + item, DataProductsFilter.byItem(item), request, SORT_ID, BY_ID,
+                pageable -> repository.findByItem(item, pageable),
+                (position, limit) -> repository.findByItem(item, position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findByType(CategoryType type, int page) {
-        logger.debug("Buscando produtos por tipo {} na página {}", type, page);
-        return repository.findByType(type, PageRequest.of(page, 5)).map(this::toResponseDto);
+    public DataProductsPage findByType(CategoryType type, DataPageRequest request) {
+        logger.debug("Buscando produtos por tipo {}, requisição {}", type, request);
+        return cachedPage("tipo:" + type, DataProductsFilter.byType(type), request, SORT_ID, BY_ID,
+                pageable -> repository.findByType(type, pageable),
+                (position, limit) -> repository.findByType(type, position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findByItemAndType(CategoryItem item, CategoryType type, int page) {
-        logger.debug("Buscando produtos por item {} e tipo {} na página {}", item, type, page);
-        return repository.findByItemAndType(item, type, PageRequest.of(page, 5)).map(this::toResponseDto);
+    public DataProductsPage findByItemAndType(CategoryItem item, CategoryType type, DataPageRequest request) {
+        logger.debug("Buscando produtos por item {} e tipo {}, requisição {}", item, type, request);
+        return cachedPage("item-tipo:" + item + ":" + type, DataProductsFilter.byItemAndType(item, type), request, SORT_ID, BY_ID,
+                pageable -> repository.findByItemAndType(item, type, pageable),
+                (position, limit) -> repository.findByItemAndType(item, type, position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findByNameContaining(String name, int page) {
-        logger.debug("Buscando produtos com nome contendo: '{}', página {}", name, page);
+    public DataProductsPage findByNameContaining(String name, boolean fuzzy, DataPageRequest request) {
+        logger.debug("Buscando produtos com nome contendo: '{}', aproximada: {}, requisição {}", name, fuzzy, request);
 
         if (name == null || name.isBlank()) {
             logger.warn("Termo de busca vazio");
             throw new BusinessRuleException("Termo de busca não pode ser vazio.");
         }
 
-        Pageable pageable = PageRequest.of(page, 5);
-        return repository.findByNameContainingIgnoreCase(name.trim(), pageable).map(this::toResponseDto);
+        String term = name.trim();
+        if (search.isReady()) {
+            return rankedPage(term, fuzzy, request);
+        }
+
+        return cachedPage("nome:" + term.toUpperCase(), DataProductsFilter.byName(term), request, SORT_ID, BY_ID,
+                pageable -> repository.findByNameContainingIgnoreCase(term, pageable),
+                (position, limit) -> repository.findByNameContainingIgnoreCase(term, position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findBySize(String size, int page) {
+    public DataProductsPage findBySize(String size, DataPageRequest request) {
         String normalizedSize = normalize(size);
-        logger.debug("Buscando produtos por tamanho: '{}', página {}", normalizedSize, page);
+        logger.debug("Buscando produtos por tamanho: '{}', requisição {}", normalizedSize, request);
 
-        Pageable pageable = PageRequest.of(page, 5);
-        return repository.findBySizesContainingIgnoreCase(normalizedSize, pageable).map(this::toResponseDto);
+        return cachedPage("tamanho:" + normalizedSize, DataProductsFilter.bySize(normalizedSize), request, SORT_ID, BY_ID,
+                pageable -> repository.findBySizesContainingIgnoreCase(normalizedSize, pageable),
+                (position, limit) -> repository.findBySizesContainingIgnoreCase(normalizedSize, position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findByColor(String color, int page) {
+    public DataProductsPage findByColor(String color, DataPageRequest request) {
         String normalizedColor = normalize(color);
-        logger.debug("Buscando produtos por cor: '{}', página {}", normalizedColor, page);
+        logger.debug("Buscando produtos por cor: '{}', requisição {}", normalizedColor, request);
 
-        Pageable pageable = PageRequest.of(page, 5);
-        return repository.findByColorsContainingIgnoreCase(normalizedColor, pageable).map(this::toResponseDto);
+        return cachedPage("cor:" + normalizedColor, DataProductsFilter.byColor(normalizedColor), request, SORT_ID, BY_ID,
+                pageable -> repository.findByColorsContainingIgnoreCase(normalizedColor, pageable),
+                (position, limit) -> repository.findByColorsContainingIgnoreCase(normalizedColor, position, limit, BY_ID));
     }
 
-    public Page<DataProductsResponse> findAllOrderByPrice(String priceSort, int page) {
-        logger.debug("Buscando produtos ordenados por preço '{}', página {}", priceSort, page);
+    public DataProductsPage findAllOrderByPrice(String priceSort, DataPageRequest request) {
+        logger.debug("Buscando produtos ordenados por preço '{}', requisição {}", priceSort, request);
+
+        boolean descending = "desc".equalsIgnoreCase(priceSort);
+        String sortTag = descending ? SORT_PRICE_DESC : SORT_PRICE_ASC;
+        if (filter.isReady()) {
+            return filter.search(new DataProductsQuery(null, null, null, null, null, null, sortTag), request);
+        }
 
-        Sort sort = "desc".equalsIgnoreCase(priceSort)
-                ? Sort.by("price").descending()
-                : Sort.by("price").ascending();
+        Sort sort = descending
+                ? Sort.by("price").descending().and(Sort.by("id").descending())
+                : Sort.by("price").ascending().and(Sort.by("id").ascending());
 
-        Pageable pageable = PageRequest.of(page, 5, sort);
-        return repository.findAll(pageable).map(this::toResponseDto);
+        return cachedPage("preco:" + sortTag, DataProductsFilter.all(), request, sortTag, sort,
+                repository::findBy,
+                (position, limit) -> repository.findBy(position, limit, sort));
     }
 
     public boolean existsByNameAndColorAndSize(String name, String color, String size) {
@@ -131,11 +319,12 @@ public class ServiceProductRead {
             throw new BusinessRuleException("Tamanho é obrigatório.");
         }
 
-        return repository.existsByNameAndColorAndSize(
-                name.trim(),
-                color.trim().toUpperCase(),
-                size.trim().toUpperCase()
-        );
+        String trimmedName = name.trim();
+        String normalizedColor = color.trim().toUpperCase();
+        String normalizedSize = size.trim().toUpperCase();
+
+        return variants.exists(trimmedName, normalizedColor, normalizedSize, () ->
+                repository.existsByNameAndColorAndSize(trimmedName, normalizedColor, normalizedSize));
     }
 
     private String normalize(String value) {
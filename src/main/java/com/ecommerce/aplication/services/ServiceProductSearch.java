@@ -0,0 +1,47 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.search.InvertedIndex;
+import com.ecommerce.aplication.search.SearchHit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class ServiceProductSearch implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductSearch.class);
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<SearchHit> search(String term, boolean fuzzy) {
+        return index.search(term, fuzzy);
+    }
+
+    @Override
+    public void rebuild(List<DataProductsResponse> products) {
+        InvertedIndex fresh = new InvertedIndex();
+        products.forEach(product -> fresh.upsert(product.id(), product.name()));
+
+        index = fresh;
+        ready = true;
+        logger.info("Índice de busca reconstruído com {} produtos", fresh.size());
+    }
+
+    @Override
+    public void upsert(DataProductsResponse product) {
+        index.upsert(product.id(), product.name());
+    }
+
+    @Override
+    public void remove(Long productId) {
+        index.remove(productId);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.BloomFilter;
+import com.ecommerce.aplication.index.BloomFilterMetrics;
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.CacheRecords.DataBloomFilterStats;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+@Service
+public class ServiceProductVariants implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProductVariants.class);
+
+    static final double FALSE_POSITIVE_RATE = 0.01;
+    static final int MIN_CAPACITY = 50_000;
+    private static final char SEPARATOR = '\u001f';
+
+    private final BloomFilterMetrics metrics = new BloomFilterMetrics("variantes");
+
+    private volatile BloomFilter filter = newFilter(0);
+    private volatile boolean ready;
+
+    // Chaves com os mesmos valores que a consulta compara: nome, cor e tamanho exatamente como gravados.
+    public boolean exists(String name, String color, String size, BooleanSupplier database) {
+        if (!ready) {
+            return database.getAsBoolean();
+        }
+
+        if (!filter.mightContain(key(name, color, size))) {
+            metrics.negative();
+            return false;
+        }
+
+        boolean exists = database.getAsBoolean();
+        metrics.positive(exists);
+        return exists;
+    }
+
+    public DataBloomFilterStats stats() {
+        return metrics.stats(ready, filter);
+    }
+
+    @Override
+    public void rebuild(List<DataProductsResponse> products) {
+        long variants = products.stream().mapToLong(product -> (long) product.sizes().size() * product.colors().size()).sum();
+        BloomFilter fresh = newFilter(variants);
+        products.forEach(product -> add(fresh, product));
+
+        filter = fresh;
+        ready = true;
+        logger.info("Filtro de variantes reconstruído com {} combinações de {} produtos", variants, products.size());
+    }
+
+    @Override
+    public void upsert(DataProductsResponse product) {
+        add(filter, product);
+    }
+
+    // O filtro não remove: variantes antigas viram falsos positivos, descartados pela consulta.
+    @Override
+    public void remove(Long productId) {
+    }
+
+    private static void add(BloomFilter target, DataProductsResponse product) {
+        for (String color : product.colors()) {
+            for (String size : product.sizes()) {
+                target.put(key(product.name(), color, size));
+            }
+        }
+    }
+
+    private static String key(String name, String color, String size) {
+        return name + SEPARATOR + color + SEPARATOR + size;
+    }
+
+    private static BloomFilter newFilter(long variants) {
+        return new BloomFilter(Math.max(MIN_CAPACITY, 2 * variants), FALSE_POSITIVE_RATE);
+    }
+}
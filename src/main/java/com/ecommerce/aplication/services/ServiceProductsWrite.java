@@ -1,29 +1,54 @@
 package com.ecommerce.aplication.services;
 
+import com.ecommerce.aplication.records.ProductsRecords.DataProductStock;
 import com.ecommerce.aplication.records.ProductsRecords.DataProducts;
 import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
 import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.infra.exceptions.ConcurrentUpdateException;
 import com.ecommerce.infra.exceptions.ResourceNotFoundException;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductFingerprint;
 import com.ecommerce.model.product.ProductModel;
 import com.ecommerce.model.repositorys.ProductRepository;
 import jakarta.transaction.Transactional;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 
 @Service
 public class ServiceProductsWrite {
     private static final Logger logger = LoggerFactory.getLogger(ServiceProductsWrite.class);
+    static final String DUPLICATE_MESSAGE = "Produto já cadastrado com estas especificações.";
+    static final String STOCK_IN_UPDATE_MESSAGE = "O estoque não muda pela edição do produto. Use PATCH /api/products/{id}/estoque.";
+    static final String SHARDED_STOCK_MESSAGE = "Produto com estoque fracionado: ajuste o estoque pela variação (delta).";
 
     public final ProductRepository repository;
     private final ServiceAsync serviceAsync;
-
-    public ServiceProductsWrite(ProductRepository repository, ServiceAsync serviceAsync) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final ServiceProductFingerprints fingerprints;
+    private final ServiceOptimisticRetry retry;
+    private final ServiceStockShards shards;
+
+    public ServiceProductsWrite(ProductRepository repository,
+                                ServiceAsync serviceAsync,
+                                ApplicationEventPublisher eventPublisher,
+                                ServiceProductFingerprints fingerprints,
+                                ServiceOptimisticRetry retry,
+                                ServiceStockShards shards) {
         this.repository = repository;
         this.serviceAsync = serviceAsync;
+        this.eventPublisher = eventPublisher;
+        this.fingerprints = fingerprints;
+        this.retry = retry;
+        this.shards = shards;
     }
 
     private DataProductsResponse toResponseDto(ProductModel product) {
@@ -44,69 +69,109 @@ public class ServiceProductsWrite {
     public DataProductsResponse create(DataProducts data) {
         logger.info("Criando novo produto: {}", data.name());
 
-        List<String> normalizedColors = normalizeList(data.colors());
-        List<String> normalizedSizes = normalizeList(data.sizes());
-
-        validateProductData(data.name(), data.price(), normalizedColors, normalizedSizes, data.quant());
+        ProductModel product = prepare(data);
 
-        boolean exists = repository.findAll().stream().anyMatch(existing ->
-                existing.getName().equalsIgnoreCase(data.name()) &&
-                        existing.getType().equals(data.type()) &&
-                        existing.getItem().equals(data.item()) &&
-                        normalizeList(existing.getSizes()).equals(normalizedSizes) &&
-                        normalizeList(existing.getColors()).equals(normalizedColors)
-        );
-
-        if (exists) {
+        if (fingerprints.isDuplicate(product.getFingerprint(), null)) {
             logger.warn("Produto duplicado detectado: {}", data.name());
-            throw new BusinessRuleException("Produto já cadastrado com estas especificações.");
+            throw new BusinessRuleException(DUPLICATE_MESSAGE);
         }
 
-        ProductModel product = new ProductModel(data);
-        product.setColors(normalizedColors);
-        product.setSizes(normalizedSizes);
-        product.setQuant(data.quant());
-        product.setImageUrl(data.imageUrl());
-
-        ProductModel saved = repository.save(product);
+        ProductModel saved = saveUnique(product);
 
         logger.info("Produto criado com sucesso, ID: {}", saved.getId());
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId()));
 
         serviceAsync.updateRecommendations(saved);
         return toResponseDto(saved);
     }
 
-    @Transactional
+    // O estoque fica fora da edição e muda só pelo PATCH de estoque e pelo checkout. A quantidade do corpo pode
+    // vir igual à atual (o formulário devolve o que leu); diferente, a edição é recusada em vez de descartá-la.
+    // Sem transação externa: uma baixa concorrente muda a versão e a tentativa seguinte relê o produto.
     public DataProductsResponse update(Long id, DataProducts data) {
         logger.info("Atualizando produto ID: {}", id);
 
         List<String> normalizedColors = normalizeList(data.colors());
         List<String> normalizedSizes = normalizeList(data.sizes());
 
-        validateProductData(data.name(), data.price(), normalizedColors, normalizedSizes, data.quant());
-
-        ProductModel existing = repository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("Produto ID {} não encontrado para atualização", id);
-                    return new ResourceNotFoundException("Produto com ID " + id + " não encontrado.");
-                });
-
-        existing.setName(data.name());
-        existing.setPrice(data.price());
-        existing.setColors(normalizedColors);
-        existing.setSizes(normalizedSizes);
-        existing.setItem(data.item());
-        existing.setType(data.type());
-        existing.setQuant(data.quant());
-        existing.setImageUrl(data.imageUrl());
-
-        ProductModel saved = repository.save(existing);
+        validateProductData(data.name(), data.price(), normalizedColors, normalizedSizes);
+
+        ProductModel saved = retry.execute(id, () -> {
+            ProductModel existing = findForUpdate(id);
+
+            if (data.quant() != null && data.quant() != currentQuant(existing)) {
+                logger.warn("Edição do produto ID {} tentou mudar o estoque para {}", id, data.quant());
+                throw new BusinessRuleException(STOCK_IN_UPDATE_MESSAGE);
+            }
+
+            existing.setName(data.name());
+            existing.setPrice(data.price());
+            // Listas mutáveis: o merge do JPA substitui os elementos da coleção gerenciada no lugar.
+            existing.setColors(new ArrayList<>(normalizedColors));
+            existing.setSizes(new ArrayList<>(normalizedSizes));
+            existing.setItem(data.item());
+            existing.setType(data.type());
+            existing.setImageUrl(data.imageUrl());
+            existing.setFingerprint(ProductFingerprint.of(existing));
+
+            if (fingerprints.isDuplicate(existing.getFingerprint(), id)) {
+                logger.warn("Atualização do produto ID {} duplicaria outro produto", id);
+                throw new BusinessRuleException(DUPLICATE_MESSAGE);
+            }
+
+            ProductModel updated = saveUnique(existing);
+            eventPublisher.publishEvent(new ProductChangedEvent(id));
+            return updated;
+        });
         logger.info("Produto ID {} atualizado com sucesso", id);
         serviceAsync.updateRecommendations(saved);
 
         return toResponseDto(saved);
     }
 
+    // Entrada ou retirada relativa num único UPDATE: baixas de checkout feitas entre a leitura do admin e o
+    // ajuste continuam valendo. Produto fracionado recebe ou perde as unidades numa das frações.
+    @Transactional
+    public void adjustQuant(Long id, int delta) {
+        logger.info("Ajustando estoque do produto ID {} em {}", id, delta);
+
+        if (repository.adjustQuant(id, delta) == 0 && !adjustShards(id, delta)) {
+            findForUpdate(id);
+            logger.warn("Ajuste de {} deixaria negativo o estoque do produto ID {}", delta, id);
+            throw new BusinessRuleException("O estoque não pode ficar negativo.");
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
+        logger.info("Estoque do produto ID {} ajustado em {}", id, delta);
+    }
+
+    // Troca pela quantidade absoluta, como o PATCH fazia antes do delta: só vale se ninguém mexeu no produto
+    // desde a leitura da versão; senão o cliente relê o estoque e decide de novo.
+    @Transactional
+    public DataProductStock setQuant(Long id, int quant, Long version) {
+        logger.info("Definindo estoque do produto ID {} em {} na versão {}", id, quant, version);
+
+        if (quant < 0) {
+            throw new BusinessRuleException("O estoque não pode ficar negativo.");
+        }
+        if (repository.setQuant(id, quant, version) == 0) {
+            ProductModel existing = findForUpdate(id);
+            if (existing.getStockShards() > 0) {
+                throw new BusinessRuleException(SHARDED_STOCK_MESSAGE);
+            }
+            logger.warn("Versão {} do produto ID {} desatualizada, atual {}", version, id, existing.getVersion());
+            throw new ConcurrentUpdateException(id);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
+        logger.info("Estoque do produto ID {} definido em {}", id, quant);
+        return new DataProductStock(id, quant, version + 1);
+    }
+
+    public DataProductStock stock(Long id) {
+        ProductModel product = repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Produto com ID " + id + " não encontrado."));
+        return new DataProductStock(id, currentQuant(product), product.getVersion());
+    }
+
     @Transactional
     public void delete(Long id) {
         logger.info("Deletando produto ID: {}", id);
@@ -119,10 +184,77 @@ public class ServiceProductsWrite {
 
         repository.delete(existing);
         logger.info("Produto ID {} deletado com sucesso", id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
     }
 
     public void save(ProductModel product) {
         repository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
+    }
+
+    private boolean adjustShards(Long id, int delta) {
+        if (!shards.refresh(id)) {
+            return false;
+        }
+        return delta > 0 ? shards.give(id, delta) : shards.take(id, -delta);
+    }
+
+    // Produto fracionado guarda o saldo nas frações, não na coluna da tabela de produtos.
+    private int currentQuant(ProductModel product) {
+        return product.getStockShards() > 0 ? shards.available(product.getId()) : product.getQuant();
+    }
+
+    private ProductModel findForUpdate(Long id) {
+        return repository.findById(id)
+                .orElseThrow(() -> {
+                    logger.warn("Produto ID {} não encontrado para atualização", id);
+                    return new ResourceNotFoundException("Produto com ID " + id + " não encontrado.");
+                });
+    }
+
+    // Mesmas regras do cadastro unitário; a importação em lote valida cada linha por aqui.
+    ProductModel prepare(DataProducts data) {
+        List<String> normalizedColors = normalizeList(data.colors());
+        List<String> normalizedSizes = normalizeList(data.sizes());
+
+        validateProductData(data.name(), data.price(), normalizedColors, normalizedSizes);
+
+        if (data.quant() == null || data.quant() < 1) {
+            logger.warn("Quantidade inválida informada: {}", data.quant());
+            throw new BusinessRuleException("A quantidade deve ser maior ou igual a 1.");
+        }
+
+        ProductModel product = new ProductModel(data);
+        product.setColors(normalizedColors);
+        product.setSizes(normalizedSizes);
+        product.setFingerprint(ProductFingerprint.of(product));
+        return product;
+    }
+
+    // A restrição única cobre a corrida entre duas gravações que passaram pela checagem ao mesmo tempo.
+    private ProductModel saveUnique(ProductModel product) {
+        try {
+            return repository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            if (violates(e, ProductModel.FINGERPRINT_CONSTRAINT)) {
+                logger.warn("Produto duplicado detectado pela restrição única: {}", product.getName());
+                throw new BusinessRuleException(DUPLICATE_MESSAGE);
+            }
+            throw e;
+        }
+    }
+
+    // O nome vem da ConstraintViolationException do Hibernate na cadeia de causas. O PostgreSQL informa a
+    // restrição como declarada; o H2 informa o índice que a sustenta, com o schema e o sufixo _INDEX_.
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String name = violation.getConstraintName().split(" ", 2)[0];
+                name = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+                return name.equals(constraint) || name.startsWith(constraint + "_index_");
+            }
+        }
+        return false;
     }
 
     private List<String> normalizeList(List<String> input) {
@@ -138,7 +270,7 @@ public class ServiceProductsWrite {
                 .toList();
     }
 
-    private void validateProductData(String name, Number price, List<String> colors, List<String> sizes, Integer quant) {
+    private void validateProductData(String name, Number price, List<String> colors, List<String> sizes) {
         if (name == null || name.trim().isEmpty()) {
             logger.warn("Nome obrigatório não informado");
             throw new BusinessRuleException("O nome é obrigatório.");
@@ -158,10 +290,5 @@ public class ServiceProductsWrite {
             logger.warn("Lista de tamanhos vazia");
             throw new BusinessRuleException("O produto precisa ter ao menos um tamanho.");
         }
-
-        if (quant == null || quant < 1) {
-            logger.warn("Quantidade inválida informada: {}", quant);
-            throw new BusinessRuleException("A quantidade deve ser maior ou igual a 1.");
-        }
     }
 }
@@ -0,0 +1,167 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.infra.exceptions.IndexNotReadyException;
+import com.ecommerce.infra.exceptions.ResourceNotFoundException;
+import com.ecommerce.model.product.CategoryItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class ServiceRelatedProducts implements CatalogIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceRelatedProducts.class);
+
+    public static final int RELATED_LIMIT = 6;
+
+    // Produtos de um CategoryItem num array denso; a posição de cada ID permite remover trocando com o último.
+    private static final class Pool {
+        private DataProductsResponse[] products = new DataProductsResponse[16];
+        private final Map<Long, Integer> positions = new HashMap<>();
+        private int size;
+
+        private void put(DataProductsResponse product) {
+            Integer position = positions.get(product.id());
+            if (position != null) {
+                products[position] = product;
+                return;
+            }
+            if (size == products.length) {
+                products = Arrays.copyOf(products, size * 2);
+            }
+            products[size] = product;
+            positions.put(product.id(), size);
+            size++;
+        }
+
+        private void remove(Long productId) {
+            Integer position = positions.remove(productId);
+            if (position == null) {
+                return;
+            }
+            size--;
+            if (position != size) {
+                products[position] = products[size];
+                positions.put(products[position].id(), position);
+            }
+            products[size] = null;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<CategoryItem, Pool> pools = new EnumMap<>(CategoryItem.class);
+    private final Map<Long, CategoryItem> items = new HashMap<>();
+    private volatile boolean ready;
+
+    // Sorteia até RELATED_LIMIT posições distintas do mesmo item: custo constante, independente do tamanho da categoria.
+    public List<DataProductsResponse> related(Long productId) {
+        if (!ready) {
+            throw new IndexNotReadyException("Índice do catálogo ainda está sendo carregado. Tente novamente em instantes.");
+        }
+
+        lock.readLock().lock();
+        try {
+            CategoryItem item = items.get(productId);
+            if (item == null) {
+                throw new ResourceNotFoundException("Produto com ID " + productId + " não encontrado.");
+            }
+
+            Pool pool = pools.get(item);
+            int wanted = Math.min(RELATED_LIMIT, pool.size - 1);
+            if (wanted <= 0) {
+                return List.of();
+            }
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int[] picked = new int[wanted];
+            int count = 0;
+            while (count < wanted) {
+                int position = random.nextInt(pool.size);
+                if (pool.products[position].id().equals(productId) || contains(picked, count, position)) {
+                    continue;
+                }
+                picked[count++] = position;
+            }
+
+            List<DataProductsResponse> related = new ArrayList<>(wanted);
+            for (int position : picked) {
+                related.add(pool.products[position]);
+            }
+            return related;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(List<DataProductsResponse> products) {
+        int categories;
+        lock.writeLock().lock();
+        try {
+            pools.clear();
+            items.clear();
+            products.forEach(this::put);
+            categories = pools.size();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Produtos relacionados reconstruídos com {} produtos em {} categorias", products.size(), categories);
+    }
+
+    @Override
+    public void upsert(DataProductsResponse product) {
+        lock.writeLock().lock();
+        try {
+            CategoryItem previous = items.get(product.id());
+            if (previous != null && previous != product.item()) {
+                pools.get(previous).remove(product.id());
+            }
+            put(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            CategoryItem item = items.remove(productId);
+            if (item != null) {
+                pools.get(item).remove(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(DataProductsResponse product) {
+        if (product.item() == null) {
+            items.remove(product.id());
+            return;
+        }
+        items.put(product.id(), product.item());
+        pools.computeIfAbsent(product.item(), item -> new Pool()).put(product);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
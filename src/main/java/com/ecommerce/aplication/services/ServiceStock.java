@@ -0,0 +1,128 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
+import com.ecommerce.infra.exceptions.StockUnavailableException;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@Service
+public class ServiceStock {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceStock.class);
+
+    // A condição no WHERE faz do UPDATE a própria verificação: duas baixas concorrentes não passam ambas.
+    // Produtos fracionados ficam de fora: a quantidade deles é só a soma exibida das frações.
+    static final String DECREMENT = "UPDATE produtos SET quantidade = quantidade - ?, versao = versao + 1 "
+            + "WHERE id = ? AND quantidade >= ? AND fracoes_estoque = 0";
+    static final String SOLD_OUT = "SELECT id FROM produtos WHERE quantidade = 0 AND id IN (%s)";
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ServiceInventoryLedger ledger;
+    private final ServiceStockShards shards;
+
+    public ServiceStock(JdbcTemplate jdbc,
+                        ApplicationEventPublisher eventPublisher,
+                        ServiceInventoryLedger ledger,
+                        ServiceStockShards shards) {
+        this.jdbc = jdbc;
+        this.eventPublisher = eventPublisher;
+        this.ledger = ledger;
+        this.shards = shards;
+    }
+
+    // Todas as linhas vão num único lote JDBC, somadas por produto e em ordem de ID: as linhas de
+    // produtos são travadas sempre na mesma ordem e dois checkouts não entram em deadlock.
+    // Qualquer falta desfaz o lote inteiro junto com a transação de quem chamou.
+    // Produtos acompanhados pelo ledger em memória são reservados lá, sem passar pelo banco; produtos
+    // fracionados baixam de uma das frações, e um produto fracionado por outra instância é descoberto na falha.
+    @Transactional
+    public void decrement(List<DataStockLine> lines) {
+        Map<Long, DataStockLine> byProduct = new TreeMap<>();
+        for (DataStockLine line : lines) {
+            byProduct.merge(line.productId(), line, DataStockLine::plus);
+        }
+
+        List<DataStockLine> ordered = new ArrayList<>(byProduct.size());
+        List<ServiceInventoryLedger.Reservation> reserved = new ArrayList<>();
+        List<String> unavailable = new ArrayList<>();
+        for (DataStockLine line : byProduct.values()) {
+            if (shards.handles(line.productId())) {
+                if (shards.take(line.productId(), line.quantity())) {
+                    continue;
+                }
+                if (shards.refresh(line.productId())) {
+                    unavailable.add(line.productName());
+                    continue;
+                }
+            }
+            if (!ledger.handles(line.productId())) {
+                ordered.add(line);
+                continue;
+            }
+            ledger.reserve(line.productId(), line.quantity())
+                    .ifPresentOrElse(reserved::add, () -> unavailable.add(line.productName()));
+        }
+
+        int[] updated = ordered.isEmpty() ? new int[0] : jdbc.batchUpdate(DECREMENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                DataStockLine line = ordered.get(i);
+                statement.setInt(1, line.quantity());
+                statement.setLong(2, line.productId());
+                statement.setInt(3, line.quantity());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ordered.size();
+            }
+        });
+
+        for (int i = 0; i < ordered.size(); i++) {
+            DataStockLine line = ordered.get(i);
+            if (updated[i] == 0 && !(shards.refresh(line.productId()) && shards.take(line.productId(), line.quantity()))) {
+                unavailable.add(line.productName());
+            }
+        }
+        if (!unavailable.isEmpty()) {
+            reserved.forEach(ServiceInventoryLedger.Reservation::cancel);
+            logger.warn("Estoque insuficiente para {} de {} produtos: {}", unavailable.size(), byProduct.size(), unavailable);
+            throw new StockUnavailableException(unavailable);
+        }
+
+        ledger.settleWithTransaction(reserved);
+        Set<Long> soldOut = soldOut(ordered);
+        ordered.forEach(line -> eventPublisher.publishEvent(soldOut.contains(line.productId())
+                ? new ProductChangedEvent(line.productId())
+                : new ProductStockChangedEvent(line.productId())));
+        logger.debug("Baixa de estoque aplicada a {} produtos, {} pelo ledger", byProduct.size(), reserved.size());
+    }
+
+    // Como em ServiceStockShards.sync, só o produto que esgotou muda listagens e índices; os demais renovam
+    // apenas a própria entrada. A consulta roda na transação da baixa e enxerga as linhas já travadas.
+    private Set<Long> soldOut(List<DataStockLine> ordered) {
+        if (ordered.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ordered.size(), "?"));
+        return new HashSet<>(jdbc.queryForList(SOLD_OUT.formatted(placeholders), Long.class,
+                ordered.stream().map(DataStockLine::productId).toArray()));
+    }
+}
@@ -0,0 +1,241 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.StockRecords.DataReservationDeadline;
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
+import com.ecommerce.aplication.scheduling.HierarchicalTimingWheel;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.orders.OrderModel;
+import com.ecommerce.model.orders.OrderStatus;
+import com.ecommerce.model.orders.reservations.ReservationStatus;
+import com.ecommerce.model.orders.reservations.StockReservation;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.repositorys.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// O estoque sai do produto no checkout e fica preso à reserva do pedido: o pagamento aprovado confirma,
+// o recusado ou o prazo vencido devolvem. Os prazos ficam numa roda de tempo em memória; uma varredura espaçada
+// da tabela, feita por todas as instâncias, libera as reservas que ficaram na roda de uma instância que caiu.
+@Service
+public class ServiceStockReservations {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceStockReservations.class);
+
+    static final String RELEASE = "UPDATE reservas_estoque SET status = 'LIBERADA' WHERE pedido_id = ? AND status = 'ATIVA'";
+    static final String RESERVED_ITEMS = "SELECT produto_id, SUM(quantidade) AS quantidade FROM itens_pedido "
+            + "WHERE pedido_id IN (%s) GROUP BY produto_id ORDER BY produto_id";
+    static final String RETURN_STOCK = "UPDATE produtos SET quantidade = quantidade + ?, versao = versao + 1 "
+            + "WHERE id = ? AND fracoes_estoque = 0";
+    static final String CANCEL_ORDER = "UPDATE pedido SET status = 'CANCELADO' WHERE id = ? AND status = 'PENDENTE'";
+    static final String LOCK_ORDER = "SELECT status FROM pedido WHERE id = ? FOR UPDATE";
+    static final String OVERDUE = "SELECT pedido_id FROM reservas_estoque WHERE status = 'ATIVA' AND expira_em <= ? "
+            + "ORDER BY pedido_id LIMIT ?";
+    static final int RELEASE_BATCH = 500;
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final StockReservationRepository repository;
+    private final ServiceStock stock;
+    private final ServiceStockShards shards;
+    private final ServiceInventoryLedger ledger;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate releaseTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final Clock clock;
+    private final HierarchicalTimingWheel<Long> wheel;
+
+    @Autowired
+    public ServiceStockReservations(StockReservationRepository repository,
+                                    ServiceStock stock,
+                                    ServiceStockShards shards,
+                                    ServiceInventoryLedger ledger,
+                                    JdbcTemplate jdbc,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${stock.reservations.ttl:15m}") Duration ttl,
+                                    @Value("${stock.reservations.tick-ms:1000}") long tickMillis) {
+        this(repository, stock, shards, ledger, jdbc, transactionManager, eventPublisher, ttl, tickMillis, Clock.systemDefaultZone());
+    }
+
+    ServiceStockReservations(StockReservationRepository repository,
+                             ServiceStock stock,
+                             ServiceStockShards shards,
+                             ServiceInventoryLedger ledger,
+                             JdbcTemplate jdbc,
+                             PlatformTransactionManager transactionManager,
+                             ApplicationEventPublisher eventPublisher,
+                             Duration ttl,
+                             long tickMillis,
+                             Clock clock) {
+        this.repository = repository;
+        this.stock = stock;
+        this.shards = shards;
+        this.ledger = ledger;
+        this.jdbc = jdbc;
+        this.releaseTransaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.millis());
+    }
+
+    // Chamado na mesma transação do checkout, depois da baixa: o prazo só entra na roda se o pedido for gravado.
+    @Transactional
+    public void hold(OrderModel order) {
+        LocalDateTime expiresAt = LocalDateTime.now(clock).plus(ttl);
+        repository.save(new StockReservation(null, order, ReservationStatus.ATIVA, expiresAt));
+        afterCommit(() -> wheel.schedule(order.getId(), toMillis(expiresAt)));
+    }
+
+    // Reserva já liberada por pagamento recusado precisa tomar o estoque de novo; se não houver mais,
+    // a StockUnavailableException desfaz o pagamento inteiro. Se o prazo venceu, o pedido já foi cancelado
+    // na mesma transação que liberou a reserva: a trava no pedido espera essa transação e o pagamento é recusado.
+    // Pedidos anteriores às reservas não têm linha e já tiveram o estoque baixado no checkout.
+    @Transactional
+    public void commit(OrderModel order) {
+        if (repository.transition(order.getId(), ReservationStatus.ATIVA, ReservationStatus.CONFIRMADA) == 0) {
+            String status = jdbc.queryForObject(LOCK_ORDER, String.class, order.getId());
+            if (OrderStatus.CANCELADO.name().equals(status)) {
+                throw new BusinessRuleException("Pedido " + order.getId() + " cancelado por prazo de reserva vencido; pagamento recusado.");
+            }
+            if (repository.transition(order.getId(), ReservationStatus.LIBERADA, ReservationStatus.CONFIRMADA) == 1) {
+                logger.info("Reserva do pedido {} já liberada; baixando o estoque novamente", order.getId());
+                stock.decrement(order.getItems().stream()
+                        .map(item -> new DataStockLine(item.getProduct().getId(), item.getProduct().getName(), item.getQuantity()))
+                        .toList());
+            }
+        }
+        afterCommit(() -> wheel.cancel(order.getId()));
+    }
+
+    // Pagamento recusado devolve o estoque, mas o pedido continua PENDENTE para uma nova tentativa.
+    @Transactional
+    public void release(Long orderId) {
+        if (release(List.of(orderId), false) > 0) {
+            afterCommit(() -> wheel.cancel(orderId));
+        }
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservations.tick-ms:1000}")
+    public void expire() {
+        List<Long> expired = wheel.advance(clock.millis());
+        expired.sort(null);
+        int released = 0;
+        for (int from = 0; from < expired.size(); from += RELEASE_BATCH) {
+            List<Long> chunk = expired.subList(from, Math.min(from + RELEASE_BATCH, expired.size()));
+            released += releaseTransaction.execute(status -> release(chunk, true));
+        }
+        if (!expired.isEmpty()) {
+            logger.info("{} reservas de estoque vencidas; {} liberadas", expired.size(), released);
+        }
+    }
+
+    // Reservas vencidas que nenhuma roda liberou, em lotes e em ordem de ID como na roda. Todas as instâncias
+    // varrem; a troca de status garante que cada reserva seja devolvida uma vez só.
+    @Scheduled(fixedDelayString = "${stock.reservations.sweep-interval-ms:60000}")
+    public void sweep() {
+        int released = 0;
+        while (true) {
+            List<Long> overdue = jdbc.queryForList(OVERDUE, Long.class, LocalDateTime.now(clock), RELEASE_BATCH);
+            if (overdue.isEmpty()) {
+                break;
+            }
+            int chunk = releaseTransaction.execute(status -> release(overdue, true));
+            overdue.forEach(wheel::cancel);
+            released += chunk;
+            if (chunk == 0 || overdue.size() < RELEASE_BATCH) {
+                break;
+            }
+        }
+        if (released > 0) {
+            logger.info("Varredura liberou {} reservas de estoque vencidas", released);
+        }
+    }
+
+    // Reservas ATIVA gravadas antes desta execução voltam para a roda; as já vencidas saem no primeiro tick.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<DataReservationDeadline> deadlines = repository.findDeadlinesByStatus(ReservationStatus.ATIVA);
+        deadlines.forEach(deadline -> wheel.schedule(deadline.orderId(), toMillis(deadline.expiresAt())));
+        logger.info("{} reservas de estoque ativas carregadas", deadlines.size());
+    }
+
+    // Um lote por chamada: a troca de status decide quais reservas ainda estavam ativas, e só os itens
+    // delas voltam ao estoque, somados por produto e em ordem de ID como na baixa do checkout.
+    // Produtos do ledger voltam ao bloco desta instância; produtos fracionados recusam o UPDATE em produtos
+    // e recebem a devolução numa das frações.
+    private int release(List<Long> orderIds, boolean cancelOrders) {
+        int[] updated = jdbc.batchUpdate(RELEASE, orderIds.stream().map(id -> new Object[]{id}).toList());
+        List<Long> released = new ArrayList<>(orderIds.size());
+        for (int i = 0; i < orderIds.size(); i++) {
+            if (updated[i] > 0) {
+                released.add(orderIds.get(i));
+            }
+        }
+        if (released.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(released.size(), "?"));
+        List<Object[]> returns = jdbc.query(RESERVED_ITEMS.formatted(placeholders),
+                (rs, row) -> new Object[]{rs.getInt("quantidade"), rs.getLong("produto_id")}, released.toArray());
+        List<Object[]> toProducts = returns.stream()
+                .filter(line -> !ledger.give((Long) line[1], (Integer) line[0]))
+                .toList();
+        int[] returned = jdbc.batchUpdate(RETURN_STOCK, toProducts);
+        for (int i = 0; i < toProducts.size(); i++) {
+            if (returned[i] == 0) {
+                shards.give((Long) toProducts.get(i)[1], (Integer) toProducts.get(i)[0]);
+            }
+        }
+        if (cancelOrders) {
+            jdbc.batchUpdate(CANCEL_ORDER, released.stream().map(id -> new Object[]{id}).toList());
+        }
+
+        returns.forEach(line -> eventPublisher.publishEvent(new ProductChangedEvent((Long) line[1])));
+        logger.debug("Estoque de {} reservas devolvido a {} produtos", released.size(), returns.size());
+        return released.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,288 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.StockRecords.DataStockShardStats;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.infra.exceptions.ResourceNotFoundException;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Estoque de produtos muito disputados dividido em N linhas de estoque_fracoes: cada checkout trava só a fração
+// que sorteou, então até N baixas do mesmo produto andam em paralelo. A coluna fracoes_estoque do produto impede
+// que uma instância que ainda não sabe do fracionamento baixe produtos.quantidade, que vira só a soma exibida.
+@Service
+public class ServiceStockShards {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceStockShards.class);
+
+    static final int MAX_SHARDS = 64;
+
+    static final String LOCK_PRODUCT = "SELECT quantidade, fracoes_estoque FROM produtos WHERE id = ? FOR UPDATE";
+    static final String SELECT_SHARD_COUNT = "SELECT fracoes_estoque FROM produtos WHERE id = ?";
+    static final String SELECT_SHARDED = "SELECT id, fracoes_estoque FROM produtos WHERE fracoes_estoque > 0";
+    static final String MARK_PRODUCT = "UPDATE produtos SET fracoes_estoque = ?, versao = versao + 1 WHERE id = ?";
+    static final String UNMARK_PRODUCT = "UPDATE produtos SET quantidade = ?, fracoes_estoque = 0, versao = versao + 1 WHERE id = ?";
+    static final String SELECT_SNAPSHOT = "SELECT quantidade FROM produtos WHERE id = ?";
+    // Sem versao: a soma das frações é só exibição e não deve derrubar a edição otimista de um admin.
+    static final String UPDATE_SNAPSHOT = "UPDATE produtos SET quantidade = ? WHERE id = ? AND fracoes_estoque > 0 AND quantidade <> ?";
+    static final String INSERT_SHARD = "INSERT INTO estoque_fracoes (produto_id, fracao, quantidade) VALUES (?, ?, ?)";
+    static final String TAKE_FROM_SHARD = "UPDATE estoque_fracoes SET quantidade = quantidade - ? WHERE produto_id = ? AND fracao = ? AND quantidade >= ?";
+    static final String GIVE_TO_SHARD = "UPDATE estoque_fracoes SET quantidade = quantidade + ? WHERE produto_id = ? AND fracao = ?";
+    static final String SET_SHARD = "UPDATE estoque_fracoes SET quantidade = ? WHERE produto_id = ? AND fracao = ?";
+    static final String LOCK_SHARDS = "SELECT fracao, quantidade FROM estoque_fracoes WHERE produto_id = ? ORDER BY fracao FOR UPDATE";
+    static final String SELECT_SHARDS = "SELECT produto_id, fracao, quantidade FROM estoque_fracoes ORDER BY produto_id, fracao";
+    static final String SUM_SHARDS = "SELECT COALESCE(SUM(quantidade), 0) FROM estoque_fracoes WHERE produto_id = ?";
+    static final String DELETE_SHARDS = "DELETE FROM estoque_fracoes WHERE produto_id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate rebalanceTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ServiceInventoryLedger ledger;
+    private final Map<Long, Integer> sharded = new ConcurrentHashMap<>();
+    private final Cache<Long, Integer> totals;
+
+    public ServiceStockShards(JdbcTemplate jdbc,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              ServiceInventoryLedger ledger,
+                              @Value("${stock.shards.cache-ttl:1s}") Duration cacheTtl) {
+        this.jdbc = jdbc;
+        this.eventPublisher = eventPublisher;
+        this.ledger = ledger;
+        this.rebalanceTransaction = new TransactionTemplate(transactionManager);
+        this.rebalanceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.totals = Caffeine.newBuilder().expireAfterWrite(cacheTtl).build();
+    }
+
+    public boolean handles(Long productId) {
+        return sharded.containsKey(productId);
+    }
+
+    // Consulta o banco quando o mapa em memória pode estar atrasado em relação a outra instância.
+    public boolean refresh(Long productId) {
+        List<Integer> counts = jdbc.queryForList(SELECT_SHARD_COUNT, Integer.class, productId);
+        int shards = counts.isEmpty() ? 0 : counts.get(0);
+        if (shards > 0) {
+            sharded.put(productId, shards);
+        } else {
+            sharded.remove(productId);
+        }
+        return shards > 0;
+    }
+
+    // Soma das frações, em cache por pouco tempo: serve leitura, não decide baixa.
+    public int available(Long productId) {
+        return totals.get(productId, id -> jdbc.queryForObject(SUM_SHARDS, Integer.class, id));
+    }
+
+    // Roda na transação de quem baixa. Começa numa fração sorteada e tenta as seguintes; se nenhuma cobre
+    // a quantidade sozinha, trava todas em ordem e tira de várias.
+    public boolean take(Long productId, int quantity) {
+        int shards = sharded.getOrDefault(productId, 0);
+        int start = shards == 0 ? 0 : ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (jdbc.update(TAKE_FROM_SHARD, quantity, productId, (start + i) % shards, quantity) == 1) {
+                return true;
+            }
+        }
+
+        List<int[]> rows = lockShards(productId);
+        int total = rows.stream().mapToInt(row -> row[1]).sum();
+        if (rows.isEmpty() || total < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        List<Object[]> updates = new ArrayList<>();
+        for (int[] row : rows) {
+            int taken = Math.min(row[1], remaining);
+            if (taken > 0) {
+                updates.add(new Object[]{row[1] - taken, productId, row[0]});
+                remaining -= taken;
+            }
+        }
+        jdbc.batchUpdate(SET_SHARD, updates);
+        return true;
+    }
+
+    // Devolução de estoque a um produto fracionado; false se o produto não tem mais frações.
+    public boolean give(Long productId, int quantity) {
+        int shards = sharded.getOrDefault(productId, 0);
+        if (shards == 0 && !refresh(productId)) {
+            return false;
+        }
+        shards = sharded.getOrDefault(productId, 1);
+        return jdbc.update(GIVE_TO_SHARD, quantity, productId, ThreadLocalRandom.current().nextInt(shards)) == 1;
+    }
+
+    @Transactional
+    public DataStockShardStats enable(Long productId, int shards) {
+        if (shards < 2 || shards > MAX_SHARDS) {
+            throw new BusinessRuleException("O número de frações deve estar entre 2 e " + MAX_SHARDS + ".");
+        }
+        if (ledger.handles(productId)) {
+            throw new BusinessRuleException("Produto acompanhado pelo ledger de promoções não pode ser fracionado.");
+        }
+        Map<String, Object> product = lockProduct(productId);
+        if (((Number) product.get("fracoes_estoque")).intValue() > 0) {
+            throw new BusinessRuleException("Produto com ID " + productId + " já está fracionado.");
+        }
+
+        int total = ((Number) product.get("quantidade")).intValue();
+        List<Integer> indexes = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            indexes.add(shard);
+        }
+        List<Object[]> rows = split(productId, indexes, total);
+        jdbc.batchUpdate(INSERT_SHARD, rows.stream().map(row -> new Object[]{productId, row[2], row[0]}).toList());
+        jdbc.update(MARK_PRODUCT, shards, productId);
+
+        afterCommit(() -> sharded.put(productId, shards));
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        logger.info("Estoque do produto {} dividido em {} frações ({} unidades)", productId, shards, total);
+        return new DataStockShardStats(productId, total, rows.stream().map(row -> (Integer) row[0]).toList());
+    }
+
+    @Transactional
+    public void disable(Long productId) {
+        Map<String, Object> product = lockProduct(productId);
+        if (((Number) product.get("fracoes_estoque")).intValue() == 0) {
+            throw new BusinessRuleException("Produto com ID " + productId + " não está fracionado.");
+        }
+
+        int total = lockShards(productId).stream().mapToInt(row -> row[1]).sum();
+        jdbc.update(DELETE_SHARDS, productId);
+        jdbc.update(UNMARK_PRODUCT, total, productId);
+
+        afterCommit(() -> {
+            sharded.remove(productId);
+            totals.invalidate(productId);
+        });
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        logger.info("Frações do produto {} reunidas em produtos.quantidade ({} unidades)", productId, total);
+    }
+
+    public List<DataStockShardStats> stats() {
+        Map<Long, List<Integer>> byProduct = new HashMap<>();
+        jdbc.query(SELECT_SHARDS, rs -> {
+            byProduct.computeIfAbsent(rs.getLong("produto_id"), id -> new ArrayList<>()).add(rs.getInt("quantidade"));
+        });
+        return byProduct.entrySet().stream()
+                .map(entry -> new DataStockShardStats(entry.getKey(),
+                        entry.getValue().stream().mapToInt(Integer::intValue).sum(), List.copyOf(entry.getValue())))
+                .sorted(Comparator.comparing(DataStockShardStats::productId))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reloadSharded();
+        logger.info("{} produtos com estoque fracionado", sharded.size());
+    }
+
+    // Atualiza a lista de produtos fracionados vinda de outras instâncias, grava a soma das frações em
+    // produtos.quantidade para o catálogo e redistribui frações esvaziadas pelos sorteios.
+    // Só a passagem por zero (esgotado ou de volta ao estoque) publica a mudança para caches e índices;
+    // a contagem exibida no meio do caminho se atualiza com a expiração dos caches.
+    @Scheduled(fixedDelayString = "${stock.shards.sync-interval-ms:2000}")
+    public void sync() {
+        reloadSharded();
+        for (DataStockShardStats stats : stats()) {
+            totals.put(stats.productId(), stats.total());
+            List<Integer> shown = jdbc.queryForList(SELECT_SNAPSHOT, Integer.class, stats.productId());
+            if (!shown.isEmpty() && jdbc.update(UPDATE_SNAPSHOT, stats.total(), stats.productId(), stats.total()) > 0
+                    && (shown.get(0) == 0) != (stats.total() == 0)) {
+                eventPublisher.publishEvent(new ProductChangedEvent(stats.productId()));
+            }
+            if (skewed(stats)) {
+                rebalance(stats.productId());
+            }
+        }
+    }
+
+    void rebalance(Long productId) {
+        rebalanceTransaction.executeWithoutResult(status -> {
+            List<int[]> rows = lockShards(productId);
+            int total = rows.stream().mapToInt(row -> row[1]).sum();
+            jdbc.batchUpdate(SET_SHARD, split(productId, rows.stream().map(row -> row[0]).toList(), total));
+        });
+        logger.debug("Frações do produto {} redistribuídas", productId);
+    }
+
+    // Alguma fração abaixo da metade da parte igual: os sorteios que caem nela vão ter que procurar outra.
+    private boolean skewed(DataStockShardStats stats) {
+        int shards = stats.shards().size();
+        if (stats.total() < shards) {
+            return false;
+        }
+        int smallest = stats.shards().stream().mapToInt(Integer::intValue).min().orElse(0);
+        return smallest * 2 < stats.total() / shards;
+    }
+
+    // Linhas {quantidade, produto, fração}; as primeiras frações ficam com o resto da divisão.
+    private List<Object[]> split(Long productId, List<Integer> shards, int total) {
+        List<Object[]> rows = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            int share = total / shards.size() + (i < total % shards.size() ? 1 : 0);
+            rows.add(new Object[]{share, productId, shards.get(i)});
+        }
+        return rows;
+    }
+
+    private Map<String, Object> lockProduct(Long productId) {
+        List<Map<String, Object>> rows = jdbc.queryForList(LOCK_PRODUCT, productId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Produto com ID " + productId + " não encontrado.");
+        }
+        return rows.get(0);
+    }
+
+    // Sempre em ordem de fração, como as linhas de produtos na baixa: travas tomadas na mesma ordem não se cruzam.
+    private List<int[]> lockShards(Long productId) {
+        return jdbc.query(LOCK_SHARDS, (rs, row) -> new int[]{rs.getInt("fracao"), rs.getInt("quantidade")}, productId);
+    }
+
+    private void reloadSharded() {
+        Map<Long, Integer> current = new HashMap<>();
+        jdbc.query(SELECT_SHARDED, rs -> {
+            current.put(rs.getLong("id"), rs.getInt("fracoes_estoque"));
+        });
+        sharded.keySet().retainAll(current.keySet());
+        sharded.putAll(current);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.ecommerce.infra.controllers;
+
+import com.ecommerce.aplication.records.CacheRecords.DataBloomFilterStats;
+import com.ecommerce.aplication.records.CacheRecords.DataCacheTierStats;
+import com.ecommerce.aplication.records.ImportRecords.DataImportReport;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductConflictStats;
+import com.ecommerce.aplication.records.StockRecords.DataStockLeaseStats;
+import com.ecommerce.aplication.records.StockRecords.DataStockShardStats;
+import com.ecommerce.aplication.services.ServiceCatalogExport;
+import com.ecommerce.aplication.services.ServiceCatalogExport.Format;
+import com.ecommerce.aplication.services.ServiceCatalogIndexer;
+import com.ecommerce.aplication.services.ServiceInventoryLedger;
+import com.ecommerce.aplication.services.ServiceOptimisticRetry;
+import com.ecommerce.aplication.services.ServiceProductCache;
+import com.ecommerce.aplication.services.ServiceProductFingerprints;
+import com.ecommerce.aplication.services.ServiceProductImport;
+import com.ecommerce.aplication.services.ServiceProductVariants;
+import com.ecommerce.aplication.services.ServiceStockShards;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    private final ServiceProductCache productCache;
+    private final ServiceCatalogIndexer catalogIndexer;
+    private final ServiceCatalogExport catalogExport;
+    private final ServiceProductImport productImport;
+    private final ServiceProductFingerprints fingerprints;
+    private final ServiceProductVariants variants;
+    private final ServiceInventoryLedger ledger;
+    private final ServiceOptimisticRetry optimisticRetry;
+    private final ServiceStockShards stockShards;
+
+    public AdminController(ServiceProductCache productCache,
+                           ServiceCatalogIndexer catalogIndexer,
+                           ServiceCatalogExport catalogExport,
+                           ServiceProductImport productImport,
+                           ServiceProductFingerprints fingerprints,
+                           ServiceProductVariants variants,
+                           ServiceInventoryLedger ledger,
+                           ServiceOptimisticRetry optimisticRetry,
+                           ServiceStockShards stockShards) {
+        this.productCache = productCache;
+        this.catalogIndexer = catalogIndexer;
+        this.catalogExport = catalogExport;
+        this.productImport = productImport;
+        this.fingerprints = fingerprints;
+        this.variants = variants;
+        this.ledger = ledger;
+        this.optimisticRetry = optimisticRetry;
+        this.stockShards = stockShards;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<List<DataCacheTierStats>> cacheStats() {
+        logger.info("Consultando estatísticas do cache de produtos");
+        return ResponseEntity.ok(productCache.stats());
+    }
+
+    @GetMapping("/filtros")
+    public ResponseEntity<List<DataBloomFilterStats>> bloomFilterStats() {
+        logger.info("Consultando estatísticas dos filtros de Bloom");
+        return ResponseEntity.ok(List.of(fingerprints.stats(), variants.stats()));
+    }
+
+    @GetMapping("/estoque/concessoes")
+    public ResponseEntity<List<DataStockLeaseStats>> stockLeases() {
+        logger.info("Consultando concessões de estoque desta instância");
+        return ResponseEntity.ok(ledger.stats());
+    }
+
+    @GetMapping("/estoque/fracoes")
+    public ResponseEntity<List<DataStockShardStats>> stockShards() {
+        logger.info("Consultando produtos com estoque fracionado");
+        return ResponseEntity.ok(stockShards.stats());
+    }
+
+    @PostMapping("/estoque/fracoes/{productId}")
+    public ResponseEntity<DataStockShardStats> enableStockShards(@PathVariable Long productId,
+                                                                 @RequestParam(defaultValue = "8") int fracoes) {
+        logger.info("Fracionando estoque do produto {} em {} frações", productId, fracoes);
+        return ResponseEntity.ok(stockShards.enable(productId, fracoes));
+    }
+
+    @DeleteMapping("/estoque/fracoes/{productId}")
+    public ResponseEntity<Void> disableStockShards(@PathVariable Long productId) {
+        logger.info("Reunindo frações de estoque do produto {}", productId);
+        stockShards.disable(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/produtos/conflitos")
+    public ResponseEntity<List<DataProductConflictStats>> productConflicts(@RequestParam(defaultValue = "20") int limit) {
+        logger.info("Consultando produtos com mais conflitos de atualização");
+        return ResponseEntity.ok(optimisticRetry.stats(Math.max(1, Math.min(limit, 100))));
+    }
+
+    @PostMapping("/indices/rebuild")
+    public ResponseEntity<Void> rebuildIndexes() {
+        logger.info("Solicitada reconstrução dos índices do catálogo");
+        catalogIndexer.rebuildAll();
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/export")
+    public void exportCatalog(@RequestParam(defaultValue = "ndjson") String format,
+                              HttpServletResponse response) throws IOException {
+        Format exportFormat = Format.of(format);
+        logger.info("Exportando catálogo em {}", exportFormat);
+
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName() + "\"");
+        catalogExport.export(exportFormat, response.getOutputStream());
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<DataImportReport> importCatalog(@RequestParam(defaultValue = "ndjson") String format,
+                                                          HttpServletRequest request) throws IOException {
+        Format importFormat = Format.of(format);
+        logger.info("Importando produtos em {}", importFormat);
+        return ResponseEntity.ok(productImport.importProducts(importFormat, request.getInputStream()));
+    }
+}
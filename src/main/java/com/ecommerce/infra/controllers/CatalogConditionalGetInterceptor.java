@@ -0,0 +1,79 @@
+package com.ecommerce.infra.controllers;
+
+import com.ecommerce.aplication.services.ServiceCatalogVersion;
+import com.ecommerce.aplication.services.ServiceCatalogVersion.Stamp;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+import java.util.Map;
+
+// Responde 304 antes do controller: nem banco, nem cache, nem serialização quando a versão não mudou.
+@Component
+public class CatalogConditionalGetInterceptor implements HandlerInterceptor {
+    static final String PRODUCT_PATTERN = "/api/products/{id}";
+    static final String CACHE_CONTROL = "private, no-cache";
+    static final String GZIP = "gzip";
+
+    private final ServiceCatalogVersion versions;
+
+    public CatalogConditionalGetInterceptor(ServiceCatalogVersion versions) {
+        this.versions = versions;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+
+        Stamp stamp = stampOf(request);
+        if (stamp == null) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        String etag = etagOf(stamp, request);
+        String gzipEtag = withSuffix(etag, GZIP);
+        if (ResponseFormat.acceptsGzip(request) && Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH)).stream()
+                .anyMatch(header -> header.contains(gzipEtag))) {
+            etag = gzipEtag;
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(etag, stamp.lastModified());
+    }
+
+    // Cada formato é uma representação diferente do mesmo recurso, então precisa de um ETag próprio.
+    private static String etagOf(Stamp stamp, HttpServletRequest request) {
+        ResponseFormat format = ResponseFormat.negotiate(request);
+        if (!format.isBinary()) {
+            return stamp.etag();
+        }
+        return withSuffix(stamp.etag(), format.name().toLowerCase());
+    }
+
+    // O corpo comprimido também é outra representação: o controller troca o ETag pela forma -gzip ao comprimir,
+    // e o If-None-Match com essa forma só vale para quem ainda aceita gzip.
+    static String withSuffix(String etag, String suffix) {
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    private Stamp stampOf(HttpServletRequest request) {
+        if (!PRODUCT_PATTERN.equals(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))) {
+            return versions.catalog();
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables == null ? null : variables.get("id");
+        try {
+            return id == null ? null : versions.product(Long.valueOf(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -91,6 +91,18 @@ public class HandleController {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
     }
 
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<DataErroResponse> handleConcurrentUpdate(ConcurrentUpdateException ex, HttpServletRequest request) {
+        logger.warn("Conflito de atualização: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(IndexNotReadyException.class)
+    public ResponseEntity<DataErroResponse> handleIndexNotReady(IndexNotReadyException ex, HttpServletRequest request) {
+        logger.warn("Índice indisponível: {}", ex.getMessage());
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request.getRequestURI());
+    }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<DataErroResponse> handleUserNotFound(UserNotFoundException ex, HttpServletRequest request) {
         logger.warn("Usuário não encontrado: {}", ex.getMessage());
@@ -1,5 +1,6 @@
 package com.ecommerce.infra.controllers;
 
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
 import com.ecommerce.aplication.records.OrderRecords.DataOrderResponse;
 import com.ecommerce.aplication.services.ServiceOrders;
 import com.ecommerce.model.users.Users;
@@ -8,10 +9,10 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/pedido")
@@ -25,14 +26,18 @@ public class OrderController {
 
 
     @PostMapping("/checkout")
-    public ResponseEntity<DataOrderResponse> checkout(@AuthenticationPrincipal Users user) {
+    public ResponseEntity<?> checkout(@AuthenticationPrincipal Users user,
+                                      @RequestParam(required = false) String fields) {
+        DataFields selected = DataFields.parse(fields, DataOrderResponse.class);
         var response = serviceOrder.checkout(user.getId());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(selected.isAll() ? response : selected.select(response));
     }
 
     @GetMapping("/usuario")
-    public ResponseEntity<List<DataOrderResponse>> listUserOrders(@AuthenticationPrincipal Users user) {
-        var list = serviceOrder.listOrdersByUser(user.getId());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<?> listUserOrders(@AuthenticationPrincipal Users user,
+                                            @RequestParam(required = false) String fields) {
+        DataFields selected = DataFields.parse(fields, DataOrderResponse.class);
+        var list = serviceOrder.listOrdersByUser(user.getId(), selected);
+        return ResponseEntity.ok(selected.isAll() ? list : selected.select(list));
     }
 }
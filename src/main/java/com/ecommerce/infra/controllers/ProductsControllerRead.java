@@ -1,104 +1,245 @@
 package com.ecommerce.infra.controllers;
 
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
+import com.ecommerce.aplication.records.ProductsRecords.DataAutocompleteSuggestion;
+import com.ecommerce.aplication.records.ProductsRecords.DataFacetCounts;
+import com.ecommerce.aplication.records.ProductsRecords.DataPageRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatch;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatchRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsQuery;
 import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.services.ServiceProductAutocomplete;
+import com.ecommerce.aplication.services.ServiceProductFilter;
+import com.ecommerce.aplication.services.ServiceProductJson;
+import com.ecommerce.aplication.services.ServiceProductJson.Serialized;
 import com.ecommerce.aplication.services.ServiceProductRead;
+import com.ecommerce.aplication.services.ServiceRelatedProducts;
 import com.ecommerce.model.product.CategoryItem;
 import com.ecommerce.model.product.CategoryType;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductsControllerRead {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductsControllerRead.class);
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
     private final ServiceProductRead service;
+    private final ServiceProductAutocomplete autocomplete;
+    private final ServiceProductFilter filter;
+    private final ServiceProductJson json;
+    private final ServiceRelatedProducts related;
 
-    public ProductsControllerRead(ServiceProductRead service) {
+    public ProductsControllerRead(ServiceProductRead service,
+                                  ServiceProductAutocomplete autocomplete,
+                                  ServiceProductFilter filter,
+                                  ServiceProductJson json,
+                                  ServiceRelatedProducts related) {
         this.service = service;
+        this.autocomplete = autocomplete;
+        this.filter = filter;
+        this.json = json;
+        this.related = related;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DataProductsResponse> findById(@PathVariable Long id) {
+    public ResponseEntity<?> findById(@PathVariable Long id, @RequestParam(required = false) String fields) {
         logger.info("Buscando Produto com o ID: {}", id);
-        DataProductsResponse product = service.findById(id);
-        return ResponseEntity.ok(product);
+        DataFields selected = DataFields.parse(fields, DataProductsResponse.class);
+        DataProductsResponse product = service.findById(id, selected);
+        if (!selected.isAll()) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(selected.select(product));
+        }
+        return toBody(ResponseEntity.ok(), product, () -> json.product(product));
+    }
+
+    @GetMapping("/{id}/relacionados")
+    public ResponseEntity<List<DataProductsResponse>> findRelated(@PathVariable Long id) {
+        logger.debug("Buscando Produtos relacionados ao ID: {}", id);
+        return ResponseEntity.ok(related.related(id));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<DataProductsBatch> findBatch(@RequestParam List<Long> ids) {
+        logger.info("Buscando {} Produtos em lote", ids.size());
+        return ResponseEntity.ok(service.findAllByIds(ids));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<DataProductsBatch> findBatch(@RequestBody DataProductsBatchRequest request) {
+        logger.info("Buscando Produtos em lote via POST");
+        return ResponseEntity.ok(service.findAllByIds(request.ids()));
     }
 
     @GetMapping
-    public ResponseEntity<List<DataProductsResponse>> findAll(@RequestParam(defaultValue = "0") int page) {
+    public ResponseEntity<?> findAll(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando todos os Produtos, página: {}", page);
-        List<DataProductsResponse> products = service.findAll(page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findAll(request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/buscarItem")
-    public ResponseEntity<List<DataProductsResponse>> findByItem(
+    public ResponseEntity<?> findByItem(
             @RequestParam CategoryItem item,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos por Item: {}, página: {}", item, page);
-        List<DataProductsResponse> products = service.findByItem(item, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findByItem(item, request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/buscarTipo")
-    public ResponseEntity<List<DataProductsResponse>> findByType(
+    public ResponseEntity<?> findByType(
             @RequestParam CategoryType type,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos por Tipo: {}, página: {}", type, page);
-        List<DataProductsResponse> products = service.findByType(type, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findByType(type, request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/buscarItemTipo")
-    public ResponseEntity<List<DataProductsResponse>> findByItemAndType(
+    public ResponseEntity<?> findByItemAndType(
             @RequestParam CategoryItem item,
             @RequestParam CategoryType type,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos por Item: {} e Tipo: {}, página: {}", item, type, page);
-        List<DataProductsResponse> products = service.findByItemAndType(item, type, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findByItemAndType(item, type, request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/buscarTamanho")
-    public ResponseEntity<List<DataProductsResponse>> getBySize(
+    public ResponseEntity<?> getBySize(
             @RequestParam String tamanho,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos por Tamanho: {}, página: {}", tamanho, page);
-        List<DataProductsResponse> products = service.findBySize(tamanho, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findBySize(tamanho, request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/buscarCor")
-    public ResponseEntity<List<DataProductsResponse>> getByColor(
+    public ResponseEntity<?> getByColor(
             @RequestParam String cor,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos por Cor: {}, página: {}", cor, page);
-        List<DataProductsResponse> products = service.findByColor(cor, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findByColor(cor, request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/buscarNome")
-    public ResponseEntity<List<DataProductsResponse>> getByName(
+    public ResponseEntity<?> getByName(
             @RequestParam String name,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos com Nome: {}, página: {}", name, page);
-        List<DataProductsResponse> products = service.findByNameContaining(name, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findByNameContaining(name, fuzzy, request);
+        return toResponse(products, request.fields());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) List<CategoryItem> item,
+            @RequestParam(required = false) List<CategoryType> type,
+            @RequestParam(required = false) List<String> tamanho,
+            @RequestParam(required = false) List<String> cor,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
+        logger.info("Filtrando Produtos - Item: {}, Tipo: {}, Tamanho: {}, Cor: {}, página: {}", item, type, tamanho, cor, page);
+        DataProductsQuery query = new DataProductsQuery(item, type, tamanho, cor, minPrice, maxPrice, sort);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = filter.search(query, request);
+        return toResponse(products, request.fields());
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<DataFacetCounts> facets(
+            @RequestParam(required = false) List<CategoryItem> item,
+            @RequestParam(required = false) List<CategoryType> type,
+            @RequestParam(required = false) List<String> tamanho,
+            @RequestParam(required = false) List<String> cor,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+        logger.debug("Calculando facetas - Item: {}, Tipo: {}, Tamanho: {}, Cor: {}", item, type, tamanho, cor);
+        DataProductsQuery query = new DataProductsQuery(item, type, tamanho, cor, minPrice, maxPrice, null);
+        return ResponseEntity.ok(filter.facets(query));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<DataAutocompleteSuggestion>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        logger.debug("Autocompletando prefixo: {}", prefix);
+        return ResponseEntity.ok(autocomplete.suggest(prefix, limit));
     }
 
     @GetMapping("/ordenar")
-    public ResponseEntity<List<DataProductsResponse>> getAllOrderByPrice(
+    public ResponseEntity<?> getAllOrderByPrice(
             @RequestParam(defaultValue = "asc") String priceSort,
-            @RequestParam(defaultValue = "0") int page) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean total,
+            @RequestParam(required = false) String fields) {
         logger.info("Buscando Produtos ordenados por Preço: {}, página: {}", priceSort, page);
-        List<DataProductsResponse> products = service.findAllOrderByPrice(priceSort, page).getContent();
-        return ResponseEntity.ok(products);
+        DataPageRequest request = DataPageRequest.of(page, size, cursor, total, DataFields.parse(fields, DataProductsResponse.class));
+        DataProductsPage products = service.findAllOrderByPrice(priceSort, request);
+        return toResponse(products, request.fields());
     }
 
     @GetMapping("/existe")
@@ -110,4 +251,58 @@ public class ProductsControllerRead {
         boolean exists = service.existsByNameAndColorAndSize(name, color, size);
         return ResponseEntity.ok(exists);
     }
+
+    private ResponseEntity<?> toResponse(DataProductsPage page, DataFields fields) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (page.total() != null) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(page.total()));
+        }
+        if (!fields.isAll()) {
+            // Representação parcial não passa pelo cache de bytes; os conversores do Jackson escrevem no formato negociado.
+            return response.varyBy(HttpHeaders.ACCEPT).body(fields.select(page.content()));
+        }
+        return toBody(response, page.content(), () -> json.page(page.content()));
+    }
+
+    // Em JSON, bytes já serializados (e, se o cliente aceitar, já comprimidos) vão direto para a resposta;
+    // CBOR e Smile são pedidos pelo Accept e escritos pelos conversores do Jackson.
+    private ResponseEntity<?> toBody(ResponseEntity.BodyBuilder response, Object value, Supplier<Serialized> serialized) {
+        ResponseFormat format = requestAttributes()
+                .map(attributes -> ResponseFormat.negotiate(attributes.getRequest()))
+                .orElse(ResponseFormat.JSON);
+        if (format.isBinary()) {
+            return response.varyBy(HttpHeaders.ACCEPT).contentType(format.mediaType()).body(value);
+        }
+
+        Serialized body = serialized.get();
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (!body.compressible()) {
+            return response.varyBy(HttpHeaders.ACCEPT).body(body.json());
+        }
+
+        response.varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        Optional<ServletRequestAttributes> attributes = requestAttributes();
+        if (attributes.isPresent() && ResponseFormat.acceptsGzip(attributes.get().getRequest())) {
+            gzipEtag(attributes.get().getResponse());
+            return response.header(HttpHeaders.CONTENT_ENCODING, CatalogConditionalGetInterceptor.GZIP).body(body.gzip());
+        }
+        return response.body(body.json());
+    }
+
+    // O interceptor já gravou o ETag do JSON na resposta; o corpo comprimido leva a forma -gzip no lugar dele.
+    private static void gzipEtag(HttpServletResponse response) {
+        String etag = response == null ? null : response.getHeader(HttpHeaders.ETAG);
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, CatalogConditionalGetInterceptor.withSuffix(etag, CatalogConditionalGetInterceptor.GZIP));
+        }
+    }
+
+    private static Optional<ServletRequestAttributes> requestAttributes() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? Optional.of(attributes)
+                : Optional.empty();
+    }
 }
@@ -1,13 +1,14 @@
 package com.ecommerce.infra.controllers;
 
+import com.ecommerce.aplication.records.ProductsRecords.DataProductStock;
 import com.ecommerce.aplication.records.ProductsRecords.DataProducts;
 import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
 import com.ecommerce.aplication.records.ProductsRecords.DataUpdateQuantRequest;
 import com.ecommerce.aplication.services.ServiceProductsWrite;
-import com.ecommerce.model.product.ProductModel;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -39,25 +40,53 @@ public class ProductsControllerWrite {
         return ResponseEntity.ok(updated);
     }
 
+    // O ETag é a versão do produto: é o que o PATCH com a quantidade absoluta espera no If-Match.
+    @GetMapping("/{id}/estoque")
+    public ResponseEntity<DataProductStock> stock(@PathVariable Long id) {
+        DataProductStock stock = service.stock(id);
+        return ResponseEntity.ok().eTag(String.valueOf(stock.version())).body(stock);
+    }
+
     @PatchMapping("/{id}/estoque")
-    public ResponseEntity<?> updateQuant(@PathVariable Long id,@Valid @RequestBody DataUpdateQuantRequest request) {
-        logger.info("Atualizando estoque do produto ID: {}", id);
-        ProductModel product = service.repository.findById(id).orElse(null);
+    public ResponseEntity<?> updateQuant(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @Valid @RequestBody DataUpdateQuantRequest request) {
+        if (request.quant() != null) {
+            if (request.delta() != null) {
+                return ResponseEntity.badRequest().body("Informe a variação (delta) ou a quantidade (quant), não as duas.");
+            }
+            Long version = request.version() != null ? request.version() : versionOf(ifMatch);
+            if (version == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                        .body("Informe a versão lida em GET /api/products/" + id + "/estoque, no campo version ou no If-Match.");
+            }
 
-        if (product == null) {
-            logger.warn("Produto ID {} não encontrado para atualização de estoque", id);
-            return ResponseEntity.notFound().build();
+            DataProductStock stock = service.setQuant(id, request.quant(), version);
+            return ResponseEntity.ok().eTag(String.valueOf(stock.version())).body("Estoque definido com sucesso.");
         }
 
-        if (request.quant() < 0) {
-            return ResponseEntity.badRequest().body("Quantidade de estoque não pode ser negativa.");
+        if (request.delta() == null || request.delta() == 0) {
+            return ResponseEntity.badRequest().body("Informe a variação de estoque, diferente de zero.");
         }
 
-        product.setQuant(request.quant());
-        service.save(product);
+        service.adjustQuant(id, request.delta());
+        return ResponseEntity.ok("Estoque ajustado com sucesso.");
+    }
 
-        logger.info("Estoque atualizado para produto ID: {}, novo estoque: {}", id, request.quant());
-        return ResponseEntity.ok("Estoque atualizado com sucesso.");
+    // Aceita a versão com ou sem aspas e na forma fraca; qualquer outra coisa conta como ausente.
+    private static Long versionOf(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.valueOf(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     @DeleteMapping("/{id}")
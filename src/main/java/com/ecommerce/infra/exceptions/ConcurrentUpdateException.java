@@ -0,0 +1,7 @@
+package com.ecommerce.infra.exceptions;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(Long productId) {
+        super("Produto com ID " + productId + " foi alterado por outra operação. Tente novamente.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.infra.exceptions;
+
+public class IndexNotReadyException extends RuntimeException {
+    public IndexNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,23 @@
 package com.ecommerce.infra.exceptions;
 
+import java.util.List;
+
 public class StockUnavailableException extends RuntimeException {
+    private final List<String> products;
+
     public StockUnavailableException(String productName) {
         super("Estoque insuficiente para o produto: " + productName);
+        this.products = List.of(productName);
+    }
+
+    public StockUnavailableException(List<String> productNames) {
+        super(productNames.size() == 1
+                ? "Estoque insuficiente para o produto: " + productNames.get(0)
+                : "Estoque insuficiente para os produtos: " + String.join(", ", productNames));
+        this.products = List.copyOf(productNames);
+    }
+
+    public List<String> getProducts() {
+        return products;
     }
 }
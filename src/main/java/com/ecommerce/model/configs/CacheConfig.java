@@ -0,0 +1,28 @@
+package com.ecommerce.model.configs;
+
+import com.ecommerce.aplication.services.ServiceProductCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class CacheConfig {
+    @Bean
+    public RedisMessageListenerContainer productInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                     ServiceProductCache productCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+        container.setConnectionFactory(connectionFactory);
+
+        container.addMessageListener(
+                (message, pattern) -> productCache.onRemoteInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(ServiceProductCache.INVALIDATION_CHANNEL)
+        );
+
+        return container;
+    }
+}
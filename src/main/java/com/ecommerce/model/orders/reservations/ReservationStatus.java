@@ -0,0 +1,8 @@
+package com.ecommerce.model.orders.reservations;
+
+public enum ReservationStatus {
+
+    ATIVA,
+    CONFIRMADA,
+    LIBERADA
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.model.orders.reservations;
+
+import com.ecommerce.model.orders.OrderModel;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Estoque dos itens de um pedido separado no checkout até o pagamento; as quantidades vêm dos itens do pedido.
+@Entity
+@Table(name = "reservas_estoque", indexes = @Index(name = "idx_reservas_estoque_status", columnList = "status"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(optional = false)
+    @JoinColumn(name = "pedido_id", referencedColumnName = "id", unique = true)
+    private OrderModel order;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ReservationStatus status;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiresAt;
+}
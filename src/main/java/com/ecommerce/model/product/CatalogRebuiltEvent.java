@@ -0,0 +1,4 @@
+package com.ecommerce.model.product;
+
+public record CatalogRebuiltEvent(int products) {
+}
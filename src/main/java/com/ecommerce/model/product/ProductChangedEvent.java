@@ -0,0 +1,7 @@
+package com.ecommerce.model.product;
+
+public record ProductChangedEvent(Long productId, boolean remote) {
+    public ProductChangedEvent(Long productId) {
+        this(productId, false);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.model.product;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+public final class ProductFingerprint {
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final String VALUE_SEPARATOR = "\u001e";
+
+    private ProductFingerprint() {
+    }
+
+    public static String of(ProductModel product) {
+        return of(product.getName(), product.getType(), product.getItem(), product.getSizes(), product.getColors());
+    }
+
+    // SHA-256 da forma canônica: nome sem caixa, tipo, item e tamanhos/cores normalizados e ordenados.
+    public static String of(String name, CategoryType type, CategoryItem item, List<String> sizes, List<String> colors) {
+        String canonical = (name == null ? "" : name.trim().toLowerCase(Locale.ROOT)) + FIELD_SEPARATOR
+                + type + FIELD_SEPARATOR
+                + item + FIELD_SEPARATOR
+                + canonical(sizes) + FIELD_SEPARATOR
+                + canonical(colors);
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static String canonical(List<String> values) {
+        if (values == null) {
+            return "";
+        }
+        return String.join(VALUE_SEPARATOR, values.stream()
+                .filter(v -> v != null && !v.trim().isEmpty())
+                .map(v -> v.trim().toUpperCase(Locale.ROOT))
+                .distinct()
+                .sorted()
+                .toList());
+    }
+}
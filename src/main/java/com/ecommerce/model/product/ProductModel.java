@@ -1,5 +1,6 @@
 package com.ecommerce.model.product;
 
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatchRequest;
 import com.ecommerce.aplication.records.ProductsRecords.DataProducts;
 import com.ecommerce.model.favorite.FavoriteProducts;
 import jakarta.persistence.*;
@@ -10,6 +11,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -19,8 +21,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
-@Table(name = "produtos")
+@Table(name = "produtos", uniqueConstraints =
+        @UniqueConstraint(name = ProductModel.FINGERPRINT_CONSTRAINT, columnNames = "assinatura"))
 public class ProductModel {
+    public static final String FINGERPRINT_CONSTRAINT = "uk_produtos_assinatura";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -51,11 +55,13 @@ public class ProductModel {
     private CategoryType type;
 
     @ElementCollection
+    @BatchSize(size = DataProductsBatchRequest.MAX_IDS)
     @CollectionTable(name = "produto_tamanhos", joinColumns = @JoinColumn(name = "produto_id"))
     @Column(name = "tamanho")
     private List<String> sizes;
 
     @ElementCollection
+    @BatchSize(size = DataProductsBatchRequest.MAX_IDS)
     @CollectionTable(name = "produto_cores", joinColumns = @JoinColumn(name = "produto_id"))
     @Column(name = "cor")
     private List<String> colors;
@@ -63,6 +69,20 @@ public class ProductModel {
     @Column(name = "imagem_url")
     private String imageUrl;
 
+    // ProductFingerprint da forma normalizada; nula apenas em produtos antigos ainda não preenchidos.
+    @Column(name = "assinatura", length = 64)
+    private String fingerprint;
+
+    // Gravações pelo JPA conferem a versão lida; as baixas de estoque por JDBC também a incrementam.
+    // O default cobre linhas anteriores à coluna e os INSERTs em lote da importação.
+    @Version
+    @Column(name = "versao", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Maior que zero quando o estoque está dividido em estoque_fracoes; quantidade passa a ser só a soma mais recente.
+    @Column(name = "fracoes_estoque", nullable = false, columnDefinition = "integer default 0")
+    private int stockShards;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FavoriteProducts> favoritedByUsers = new ArrayList<>();
 
@@ -0,0 +1,8 @@
+package com.ecommerce.model.product;
+
+// Só o saldo de estoque mudou, sem passar por zero: basta renovar a entrada do produto, não as listagens.
+public record ProductStockChangedEvent(Long productId, boolean remote) {
+    public ProductStockChangedEvent(Long productId) {
+        this(productId, false);
+    }
+}
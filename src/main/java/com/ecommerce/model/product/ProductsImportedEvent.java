@@ -0,0 +1,10 @@
+package com.ecommerce.model.product;
+
+import java.util.List;
+
+// Produtos novos gravados num mesmo bloco da importação: um evento por bloco em vez de um por produto.
+public record ProductsImportedEvent(List<Long> productIds, boolean remote) {
+    public ProductsImportedEvent(List<Long> productIds) {
+        this(productIds, false);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.model.product;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Bloco de estoque retirado de produtos.quantidade por uma instância da aplicação; lido e gravado via JDBC pelo ledger.
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Table(name = "estoque_concessoes", uniqueConstraints =
+        @UniqueConstraint(name = "uk_estoque_concessoes_produto_instancia", columnNames = {"produto_id", "instancia"}))
+public class StockLeaseModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "instancia", nullable = false, length = 64)
+    private String instance;
+
+    // Unidades ainda não vendidas, na última gravação da instância.
+    @Column(name = "quantidade", nullable = false)
+    private Integer quant;
+}
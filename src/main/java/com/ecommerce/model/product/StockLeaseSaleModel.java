@@ -0,0 +1,30 @@
+package com.ecommerce.model.product;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Venda confirmada a partir de uma concessão e ainda não descontada dela; gravada na transação do pedido
+// e apagada quando o ledger desconta o lote de estoque_concessoes.
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Table(name = "estoque_concessoes_vendas", indexes =
+        @Index(name = "idx_estoque_concessoes_vendas_instancia", columnList = "instancia"))
+public class StockLeaseSaleModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "instancia", nullable = false, length = 64)
+    private String instance;
+
+    // Negativa quando a reserva do pedido é liberada e as unidades voltam para a concessão.
+    @Column(name = "quantidade", nullable = false)
+    private Integer quant;
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.model.product;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Uma das frações do estoque de um produto fracionado; lida e gravada via JDBC por ServiceStockShards.
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Table(name = "estoque_fracoes", uniqueConstraints =
+        @UniqueConstraint(name = "uk_estoque_fracoes_produto_fracao", columnNames = {"produto_id", "fracao"}))
+public class StockShardModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "produto_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "fracao", nullable = false)
+    private Integer shard;
+
+    @Column(name = "quantidade", nullable = false)
+    private Integer quant;
+}
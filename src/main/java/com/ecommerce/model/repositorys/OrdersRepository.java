@@ -1,12 +1,21 @@
 package com.ecommerce.model.repositorys;
 
 import com.ecommerce.model.orders.OrderModel;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface OrdersRepository extends JpaRepository<OrderModel,Long> {
+    // Itens e produtos no mesmo SELECT: sem uma consulta por pedido e outra por produto.
+    @EntityGraph(attributePaths = {"items", "items.product"})
     List<OrderModel> findByUsersId(Long userId);
+
+    // Só as colunas do pedido, para respostas com ?fields= sem items.
+    @Query("SELECT o FROM OrderModel o WHERE o.users.id = :userId")
+    List<OrderModel> findSummariesByUsersId(@Param("userId") Long userId);
 }
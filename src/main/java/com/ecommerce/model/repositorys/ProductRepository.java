@@ -1,16 +1,28 @@
 package com.ecommerce.model.repositorys;
 
+import com.ecommerce.aplication.records.ProductsRecords.DataProductSales;
 import com.ecommerce.model.product.CategoryItem;
 import com.ecommerce.model.product.CategoryType;
 import com.ecommerce.model.product.ProductModel;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<ProductModel,Long> {
@@ -30,29 +42,85 @@ public interface ProductRepository extends JpaRepository<ProductModel,Long> {
     );
 
 
+    // Ajuste relativo de estoque; produto fracionado ou saldo que ficaria negativo não atualizam a linha.
+    @Modifying(flushAutomatically = true)
     @Query("""
-            SELECT p from ProductModel p 
-            Where p.item =: categoryItem
-            AND p.id <>: productId
-            ORDER BY function('RAND')
-            
-            """)
+        UPDATE ProductModel p SET p.quant = p.quant + :delta, p.version = p.version + 1
+        WHERE p.id = :id AND p.stockShards = 0 AND p.quant + :delta >= 0
+    """)
+    int adjustQuant(@Param("id") Long id, @Param("delta") int delta);
 
-List<ProductModel>findTop6ByItemAndNotIdRandomOrder(
-        @Param("categoryItem")CategoryItem categoryItem,
-        @Param("productId") Long productId);
+    // Troca absoluta condicionada à versão lida pelo cliente; versão diferente ou produto fracionado não atualizam a linha.
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE ProductModel p SET p.quant = :quant, p.version = p.version + 1
+        WHERE p.id = :id AND p.version = :version AND p.stockShards = 0
+    """)
+    int setQuant(@Param("id") Long id, @Param("quant") int quant, @Param("version") Long version);
 
-    Page<ProductModel> findBySizesContainingIgnoreCase(String sizes, Pageable pageable);
-    Page<ProductModel> findByColorsContainingIgnoreCase(String colors, Pageable pageable);
+    @Query("SELECT p.id FROM ProductModel p WHERE p.fingerprint = :fingerprint")
+    Optional<Long> findIdByFingerprint(@Param("fingerprint") String fingerprint);
 
-    Page<ProductModel> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    @Query("SELECT p.fingerprint FROM ProductModel p WHERE p.fingerprint IN :fingerprints")
+    List<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
 
-    Page<ProductModel> findByItem(CategoryItem item, Pageable pageable);
+    List<ProductModel> findByFingerprintIsNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("""
+            SELECT new com.ecommerce.aplication.records.ProductsRecords.DataProductSales(i.product.id, SUM(i.quantity))
+            FROM OrderItem i
+            GROUP BY i.product.id
+            """)
+    List<DataProductSales> sumSoldQuantityByProduct();
 
-    Page<ProductModel> findByType(CategoryType type, Pageable pageable);
+    Slice<ProductModel> findBySizesContainingIgnoreCase(String sizes, Pageable pageable);
+    Slice<ProductModel> findByColorsContainingIgnoreCase(String colors, Pageable pageable);
+
+    Slice<ProductModel> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    Slice<ProductModel> findByItem(CategoryItem item, Pageable pageable);
+
+    Slice<ProductModel> findByType(CategoryType type, Pageable pageable);
 
     List<ProductModel> findByItemInAndTypeInAndIdNotIn(List<CategoryItem> items, List<CategoryType> types, List<Long> excludedIds);
 
 
-    Page<ProductModel> findByItemAndType(CategoryItem item, CategoryType type, Pageable pageable);
+    Slice<ProductModel> findByItemAndType(CategoryItem item, CategoryType type, Pageable pageable);
+
+    Slice<ProductModel> findBy(Pageable pageable);
+
+    long countByItem(CategoryItem item);
+
+    long countByType(CategoryType type);
+
+    long countByItemAndType(CategoryItem item, CategoryType type);
+
+    long countByNameContainingIgnoreCase(String name);
+
+    long countBySizesContainingIgnoreCase(String sizes);
+
+    long countByColorsContainingIgnoreCase(String colors);
+
+    Window<ProductModel> findBy(ScrollPosition position, Limit limit, Sort sort);
+
+    int STREAM_FETCH_SIZE = 500;
+
+    // Cursor no servidor: o driver busca STREAM_FETCH_SIZE linhas por vez em vez de materializar o resultado inteiro.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProductModel> streamAllByOrderByIdAsc();
+
+    Window<ProductModel> findByItem(CategoryItem item, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<ProductModel> findByType(CategoryType type, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<ProductModel> findByItemAndType(CategoryItem item, CategoryType type, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<ProductModel> findByNameContainingIgnoreCase(String name, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<ProductModel> findBySizesContainingIgnoreCase(String sizes, ScrollPosition position, Limit limit, Sort sort);
+
+    Window<ProductModel> findByColorsContainingIgnoreCase(String colors, ScrollPosition position, Limit limit, Sort sort);
 }
@@ -0,0 +1,31 @@
+package com.ecommerce.model.repositorys;
+
+import com.ecommerce.aplication.records.StockRecords.DataReservationDeadline;
+import com.ecommerce.model.orders.reservations.ReservationStatus;
+import com.ecommerce.model.orders.reservations.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    Optional<StockReservation> findByOrderId(Long orderId);
+
+    @Query("""
+            SELECT new com.ecommerce.aplication.records.StockRecords.DataReservationDeadline(r.order.id, r.expiresAt)
+            FROM StockReservation r
+            WHERE r.status = :status
+            """)
+    List<DataReservationDeadline> findDeadlinesByStatus(@Param("status") ReservationStatus status);
+
+    // A troca de status é a trava: só quem encontra a reserva ATIVA confirma ou libera o estoque.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.order.id = :orderId AND r.status = :from")
+    int transition(@Param("orderId") Long orderId, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+}
@@ -2,6 +2,7 @@ package com.ecommerce.aplication.services;
 
 import com.ecommerce.aplication.records.CartRecords.DataCartItemRequest;
 import com.ecommerce.aplication.records.CartRecords.DataCartItemResponse;
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
 import com.ecommerce.infra.exceptions.*;
 import com.ecommerce.model.cart.CartModel;
 import com.ecommerce.model.cart.cartItem.CartItem;
@@ -27,6 +28,7 @@ class ServiceCartTest {
     private CartRepository cartRepository;
     private ProductRepository productRepository;
     private UsersRepositroy usersRepositroy;
+    private ServiceStock stock;
     private ServiceCart serviceCart;
 
     @BeforeEach
@@ -35,7 +37,8 @@ class ServiceCartTest {
         cartRepository = mock(CartRepository.class);
         productRepository = mock(ProductRepository.class);
         usersRepositroy = mock(UsersRepositroy.class);
-        serviceCart = new ServiceCart(cartItemRepository, cartRepository, productRepository, usersRepositroy);
+        stock = mock(ServiceStock.class);
+        serviceCart = new ServiceCart(cartItemRepository, cartRepository, productRepository, usersRepositroy, stock);
     }
 
     private Users createUser(Long id) {
@@ -141,15 +144,14 @@ class ServiceCartTest {
         cart.getItems().add(item);
 
         when(cartRepository.findByUsersId(userId)).thenReturn(Optional.of(cart));
-        when(productRepository.save(any(ProductModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(cartRepository.save(any(CartModel.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         serviceCart.finalizeCart(userId);
 
-        assertEquals(2, product.getQuant());
         assertTrue(cart.getItems().isEmpty());
 
-        verify(productRepository, times(1)).save(product);
+        verify(stock).decrement(List.of(new DataStockLine(10L, "Prod X", 3)));
+        verify(productRepository, never()).save(any());
         verify(cartRepository, times(1)).save(cart);
     }
 
@@ -164,12 +166,15 @@ class ServiceCartTest {
         cart.getItems().add(item);
 
         when(cartRepository.findByUsersId(userId)).thenReturn(Optional.of(cart));
+        doThrow(new StockUnavailableException(List.of("Prod X"))).when(stock).decrement(any());
 
         StockUnavailableException ex = assertThrows(StockUnavailableException.class, () -> {
             serviceCart.finalizeCart(userId);
         });
 
         assertTrue(ex.getMessage().contains("Estoque insuficiente"));
+        assertEquals(1, cart.getItems().size());
+        verify(cartRepository, never()).save(any());
     }
 
     @Test
@@ -0,0 +1,122 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.services.ServiceCatalogExport.Format;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class ServiceCatalogExportTest {
+    private static final int PRODUCTS = 1_200;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ServiceCatalogExport service;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceCatalogExport(repository, entityManager, mapper);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductModel p = new ProductModel();
+            p.setName(i == 0 ? "Camiseta \"Listrada\", azul" : "Produto " + i);
+            p.setPrice(BigDecimal.valueOf(10 + i));
+            p.setQuant(5);
+            p.setItem(CategoryItem.CAMISETA);
+            p.setType(CategoryType.UNISSEX);
+            p.setSizes(new ArrayList<>(List.of("P", "M")));
+            p.setColors(new ArrayList<>(List.of("AZUL")));
+            repository.save(p);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void export_NdjsonStreamsEveryProductInChunks() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long exported = service.export(Format.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(PRODUCTS, exported);
+        assertEquals(PRODUCTS, lines.length);
+        JsonNode first = mapper.readTree(lines[0]);
+        assertEquals("Camiseta \"Listrada\", azul", first.get("name").asText());
+        assertEquals(2, first.get("sizes").size());
+        // 1 consulta com cursor + tamanhos e cores em lote para cada um dos 3 blocos.
+        assertEquals(7, statistics.getPrepareStatementCount());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void export_CsvQuotesFieldsAndFlushesPerChunk() throws IOException {
+        List<Integer> flushes = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int b) {
+                buffer.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                buffer.write(b, off, len);
+            }
+
+            @Override
+            public void flush() {
+                flushes.add(buffer.size());
+            }
+        };
+
+        service.export(Format.CSV, output);
+
+        String[] lines = buffer.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(PRODUCTS + 1, lines.length);
+        assertEquals("id,nome,preco,quantidade,categoria_item,categoria_tipo,tamanhos,cores,imagem_url", lines[0]);
+        assertTrue(lines[1].endsWith(",\"Camiseta \"\"Listrada\"\", azul\",10.00,5,CAMISETA,UNISSEX,P|M,AZUL,"));
+        assertTrue(flushes.size() >= 3);
+    }
+
+    @Test
+    void format_RejectsUnknownValues() {
+        assertEquals(Format.CSV, Format.of(" csv "));
+        assertThrows(BusinessRuleException.class, () -> Format.of("xml"));
+        assertThrows(BusinessRuleException.class, () -> Format.of(null));
+    }
+}
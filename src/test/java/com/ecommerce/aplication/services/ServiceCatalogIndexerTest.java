@@ -0,0 +1,134 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.index.CatalogIndex;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CatalogRebuiltEvent;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ServiceCatalogIndexerTest {
+    private ProductRepository repository;
+    private CatalogIndex index;
+    private ApplicationEventPublisher eventPublisher;
+    private ServiceCatalogIndexer indexer;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(ProductRepository.class);
+        index = mock(CatalogIndex.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        indexer = new ServiceCatalogIndexer(repository, List.of(index), mock(PlatformTransactionManager.class), eventPublisher);
+    }
+
+    private ProductModel product(Long id) {
+        ProductModel p = new ProductModel();
+        p.setId(id);
+        p.setName("Produto " + id);
+        p.setPrice(BigDecimal.TEN);
+        p.setQuant(1);
+        p.setSizes(List.of("M"));
+        p.setColors(List.of("AZUL"));
+        return p;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildAll_LoadsSnapshotInChunks() {
+        Window<ProductModel> first = Window.from(List.of(product(1L), product(2L)), i -> ScrollPosition.offset(i), true);
+        Window<ProductModel> last = Window.from(List.of(product(3L)), i -> ScrollPosition.offset(i), false);
+        when(repository.findBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class))).thenReturn(first, last);
+
+        indexer.rebuildAll();
+
+        ArgumentCaptor<List<DataProductsResponse>> snapshot = ArgumentCaptor.forClass(List.class);
+        verify(index).rebuild(snapshot.capture());
+        assertEquals(List.of(1L, 2L, 3L), snapshot.getValue().stream().map(DataProductsResponse::id).toList());
+        verify(repository, times(2)).findBy(any(ScrollPosition.class), eq(Limit.of(ServiceCatalogIndexer.CHUNK_SIZE)), any(Sort.class));
+        verify(eventPublisher).publishEvent(new CatalogRebuiltEvent(3));
+    }
+
+    @Test
+    void onProductChanged_UpsertsExistingProduct() {
+        when(repository.findById(5L)).thenReturn(Optional.of(product(5L)));
+
+        indexer.onProductChanged(new ProductChangedEvent(5L));
+
+        verify(index).upsert(argThat(dto -> dto.id().equals(5L)));
+        verify(index, never()).remove(any());
+    }
+
+    @Test
+    void onProductChanged_RemovesDeletedProduct() {
+        when(repository.findById(5L)).thenReturn(Optional.empty());
+
+        indexer.onProductChanged(new ProductChangedEvent(5L, true));
+
+        verify(index).remove(5L);
+    }
+
+    @Test
+    void onProductChanged_SkipsIndexesWhenNothingIndexedChanged() {
+        ProductModel first = product(5L);
+        first.setVersion(1L);
+        ProductModel same = product(5L);
+        same.setVersion(2L);
+        ProductModel restocked = product(5L);
+        restocked.setVersion(3L);
+        restocked.setQuant(7);
+        when(repository.findById(5L)).thenReturn(Optional.of(first), Optional.of(same), Optional.of(restocked));
+
+        indexer.onProductChanged(new ProductChangedEvent(5L));
+        indexer.onProductChanged(new ProductChangedEvent(5L));
+        indexer.onProductChanged(new ProductChangedEvent(5L));
+
+        verify(index, times(2)).upsert(any());
+        verify(index).upsert(argThat(dto -> dto.quant() == 7));
+    }
+
+    @Test
+    void onProductChanged_IgnoresAReadOlderThanTheAppliedVersion() {
+        ProductModel newer = product(5L);
+        newer.setVersion(4L);
+        newer.setName("Novo nome");
+        ProductModel older = product(5L);
+        older.setVersion(3L);
+        when(repository.findById(5L)).thenReturn(Optional.of(newer), Optional.of(older));
+
+        indexer.onProductChanged(new ProductChangedEvent(5L));
+        indexer.onProductChanged(new ProductChangedEvent(5L));
+
+        verify(index).upsert(argThat(dto -> dto.name().equals("Novo nome")));
+        verify(index, times(1)).upsert(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onProductsImported_LoadsTheBlockOnceAndUpsertsItTogether() {
+        when(repository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(product(1L), product(2L)));
+
+        indexer.onProductsImported(new ProductsImportedEvent(List.of(1L, 2L, 3L)));
+
+        ArgumentCaptor<List<DataProductsResponse>> upserted = ArgumentCaptor.forClass(List.class);
+        verify(index).upsertAll(upserted.capture());
+        assertEquals(List.of(1L, 2L), upserted.getValue().stream().map(DataProductsResponse::id).toList());
+        verify(index).remove(3L);
+        verify(index, never()).upsert(any());
+        verify(repository, never()).findById(any());
+    }
+}
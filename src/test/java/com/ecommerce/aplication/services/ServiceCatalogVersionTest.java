@@ -0,0 +1,101 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.services.ServiceCatalogVersion.Stamp;
+import com.ecommerce.model.product.CatalogRebuiltEvent;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceCatalogVersionTest {
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private ServiceCatalogVersion versions;
+
+    @BeforeEach
+    void setup() {
+        versions = new ServiceCatalogVersion(Clock.fixed(START, ZoneOffset.UTC));
+    }
+
+    @Test
+    void product_StableUntilProductChanges() {
+        Stamp before = versions.product(1L);
+
+        assertEquals(before, versions.product(1L));
+        assertTrue(before.etag().startsWith("\"p1-"));
+        assertTrue(before.etag().endsWith("\""));
+        assertEquals(START.toEpochMilli(), before.lastModified());
+
+        versions.onProductChanged(new ProductChangedEvent(1L));
+
+        assertNotEquals(before.etag(), versions.product(1L).etag());
+    }
+
+    @Test
+    void onProductChanged_KeepsOtherProductsAndBumpsCatalog() {
+        Stamp other = versions.product(2L);
+        Stamp catalog = versions.catalog();
+
+        versions.onProductChanged(new ProductChangedEvent(1L, true));
+
+        assertEquals(other, versions.product(2L));
+        assertNotEquals(catalog.etag(), versions.catalog().etag());
+    }
+
+    @Test
+    void onProductsImported_BumpsTheCatalogOnceForTheWholeBlock() {
+        Stamp other = versions.product(3L);
+
+        versions.onProductsImported(new ProductsImportedEvent(List.of(1L, 2L)));
+
+        assertTrue(versions.catalog().etag().endsWith("-1\""));
+        assertTrue(versions.product(1L).etag().endsWith("-1\""));
+        assertTrue(versions.product(2L).etag().endsWith("-1\""));
+        assertEquals(other, versions.product(3L));
+    }
+
+    @Test
+    void onProductStockChanged_BumpsOnlyTheProduct() {
+        Stamp product = versions.product(1L);
+        Stamp other = versions.product(2L);
+        Stamp catalog = versions.catalog();
+
+        versions.onProductStockChanged(new ProductStockChangedEvent(1L));
+        Stamp stock = versions.product(1L);
+
+        assertNotEquals(product.etag(), stock.etag());
+        assertEquals(catalog, versions.catalog());
+        assertEquals(other, versions.product(2L));
+
+        // A próxima versão do catálogo não pode repetir o número que o produto acabou de receber.
+        versions.onProductChanged(new ProductChangedEvent(1L));
+        assertNotEquals(stock.etag(), versions.product(1L).etag());
+    }
+
+    @Test
+    void onCatalogRebuilt_BumpsOnlyCatalog() {
+        Stamp product = versions.product(1L);
+        Stamp catalog = versions.catalog();
+
+        versions.onCatalogRebuilt(new CatalogRebuiltEvent(10));
+
+        assertEquals(product, versions.product(1L));
+        assertNotEquals(catalog.etag(), versions.catalog().etag());
+    }
+
+    @Test
+    void etags_DifferBetweenNodes() {
+        ServiceCatalogVersion otherNode = new ServiceCatalogVersion(Clock.fixed(START, ZoneOffset.UTC));
+
+        assertNotEquals(versions.catalog().etag(), otherNode.catalog().etag());
+        assertNotEquals(versions.product(1L).etag(), otherNode.product(1L).etag());
+    }
+}
@@ -0,0 +1,241 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.records.StockRecords.DataStockLeaseStats;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// Concessões usam transações próprias, então os dados do teste precisam estar confirmados.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ServiceInventoryLedgerTest {
+    private static final int BLOCK = 10;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbc;
+    private ServiceInventoryLedger ledger;
+
+    @BeforeEach
+    void setup() {
+        jdbc = new JdbcTemplate(dataSource);
+        ledger = ledger("no-a");
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbc.update("DELETE FROM estoque_concessoes_vendas");
+        jdbc.update("DELETE FROM estoque_concessoes");
+        repository.deleteAll();
+    }
+
+    private ServiceInventoryLedger ledger(String instance) {
+        return new ServiceInventoryLedger(jdbc, transactionManager, Runnable::run, mock(ApplicationEventPublisher.class),
+                true, BLOCK, instance);
+    }
+
+    private ProductModel save(int quant, CategoryType type) {
+        ProductModel product = new ProductModel();
+        product.setName("Tênis " + quant);
+        product.setPrice(BigDecimal.TEN);
+        product.setQuant(quant);
+        product.setItem(CategoryItem.TÊNIS);
+        product.setType(type);
+        product.setSizes(new ArrayList<>(List.of("40")));
+        product.setColors(new ArrayList<>(List.of("PRETO")));
+        return repository.save(product);
+    }
+
+    private DataProductsResponse dto(ProductModel product) {
+        return new DataProductsResponse(product.getId(), product.getName(), product.getPrice(), product.getQuant(),
+                product.getItem(), product.getType(), List.of("40"), List.of("PRETO"), null);
+    }
+
+    private Long promoted(ServiceInventoryLedger target, int quant) {
+        ProductModel product = save(quant, CategoryType.PROMOÇÕES);
+        target.rebuild(List.of(dto(product)));
+        target.reconcile();
+        return product.getId();
+    }
+
+    private int quant(Long productId) {
+        return jdbc.queryForObject("SELECT quantidade FROM produtos WHERE id = ?", Integer.class, productId);
+    }
+
+    private Integer leased(Long productId, String instance) {
+        List<Integer> rows = jdbc.queryForList("SELECT quantidade FROM estoque_concessoes WHERE produto_id = ? AND instancia = ?",
+                Integer.class, productId, instance);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private DataStockLeaseStats stats(ServiceInventoryLedger target, Long productId) {
+        return target.stats().stream().filter(stats -> stats.productId().equals(productId)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void reserve_SellsFromALeasedBlockAndFlushesInOneUpdate() {
+        Long productId = promoted(ledger, 100);
+        assertTrue(ledger.handles(productId));
+
+        ledger.settleWithTransaction(List.of(ledger.reserve(productId, 2).orElseThrow(), ledger.reserve(productId, 2).orElseThrow()));
+
+        assertEquals(90, quant(productId));
+        assertEquals(10, leased(productId, "no-a"));
+        assertEquals(4, stats(ledger, productId).unflushed());
+
+        ledger.flush();
+
+        assertEquals(6, leased(productId, "no-a"));
+        DataStockLeaseStats stats = stats(ledger, productId);
+        assertEquals(6, stats.available());
+        assertEquals(0, stats.unflushed());
+        assertEquals(6, stats.leased());
+    }
+
+    @Test
+    void reserve_RejectsWhenNeitherTheBlockNorTheProductCanCoverIt() {
+        Long productId = promoted(ledger, 5);
+
+        assertTrue(ledger.reserve(productId, 6).isEmpty());
+        assertEquals(5, quant(productId));
+
+        assertTrue(ledger.reserve(productId, 5).isPresent());
+        assertEquals(0, quant(productId));
+        assertTrue(ledger.reserve(productId, 1).isEmpty());
+    }
+
+    @Test
+    void cancel_ReturnsUnitsToTheBlock() {
+        Long productId = promoted(ledger, 100);
+
+        ledger.reserve(productId, 4).orElseThrow().cancel();
+
+        assertEquals(BLOCK, stats(ledger, productId).available());
+        assertEquals(0, stats(ledger, productId).pending());
+    }
+
+    @Test
+    void reconcile_ReturnsLeasesLeftByAPreviousRun() {
+        ProductModel product = save(20, CategoryType.PROMOÇÕES);
+        jdbc.update("INSERT INTO estoque_concessoes (produto_id, instancia, quantidade) VALUES (?, ?, ?)", product.getId(), "no-a", 7);
+        jdbc.update("INSERT INTO estoque_concessoes (produto_id, instancia, quantidade) VALUES (?, ?, ?)", product.getId(), "no-b", 3);
+
+        ledger.reconcile();
+
+        assertEquals(27, quant(product.getId()));
+        assertNull(leased(product.getId(), "no-a"));
+        assertEquals(3, leased(product.getId(), "no-b"));
+    }
+
+    @Test
+    void reconcile_KeepsSalesConfirmedButNotYetFlushed() {
+        Long productId = promoted(ledger, 100);
+        ledger.settleWithTransaction(List.of(ledger.reserve(productId, 3).orElseThrow()));
+        assertEquals(10, leased(productId, "no-a"));
+
+        ServiceInventoryLedger restarted = ledger("no-a");
+        restarted.reconcile();
+
+        assertEquals(97, quant(productId));
+        assertNull(leased(productId, "no-a"));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM estoque_concessoes_vendas", Integer.class));
+    }
+
+    @Test
+    void give_ReturnsReleasedUnitsToTheBlock() {
+        Long productId = promoted(ledger, 100);
+        ledger.settleWithTransaction(List.of(ledger.reserve(productId, 3).orElseThrow()));
+        ledger.flush();
+
+        assertTrue(ledger.give(productId, 3));
+        assertEquals(BLOCK, stats(ledger, productId).available());
+        ledger.flush();
+
+        assertEquals(BLOCK, leased(productId, "no-a"));
+        assertEquals(90, quant(productId));
+        assertFalse(ledger.give(save(10, CategoryType.UNISSEX).getId(), 1));
+    }
+
+    @Test
+    void reserve_RefusesALeaseThatIsBeingReturned() {
+        Long productId = promoted(ledger, 100);
+        ledger.settleWithTransaction(List.of(ledger.reserve(productId, 2).orElseThrow()));
+
+        ledger.remove(productId);
+        assertTrue(ledger.reserve(productId, 1).isEmpty());
+        ledger.flush();
+
+        assertEquals(98, quant(productId));
+        assertTrue(ledger.stats().isEmpty());
+    }
+
+    @Test
+    void instances_LeaseIndependentBlocksOfTheSameProduct() {
+        Long productId = promoted(ledger, 15);
+        ServiceInventoryLedger other = ledger("no-b");
+        other.rebuild(List.of(dto(repository.findById(productId).orElseThrow())));
+        other.reconcile();
+
+        assertTrue(ledger.reserve(productId, 1).isPresent());
+        assertTrue(other.reserve(productId, 1).isPresent());
+
+        assertEquals(0, quant(productId));
+        assertEquals(10, leased(productId, "no-a"));
+        assertEquals(5, leased(productId, "no-b"));
+    }
+
+    @Test
+    void checkDrift_AdjustsTheBlockToTheLeaseRow() {
+        Long productId = promoted(ledger, 100);
+        ledger.settleWithTransaction(List.of(ledger.reserve(productId, 1).orElseThrow()));
+        ledger.flush();
+
+        jdbc.update("UPDATE estoque_concessoes SET quantidade = 4 WHERE produto_id = ?", productId);
+        ledger.checkDrift();
+
+        DataStockLeaseStats stats = stats(ledger, productId);
+        assertEquals(4, stats.leased());
+        assertEquals(4, stats.available());
+    }
+
+    @Test
+    void remove_ReturnsTheUnsoldBlockOnTheNextFlush() {
+        Long productId = promoted(ledger, 100);
+        ledger.settleWithTransaction(List.of(ledger.reserve(productId, 3).orElseThrow()));
+
+        ledger.remove(productId);
+        assertFalse(ledger.handles(productId));
+        ledger.flush();
+
+        assertEquals(97, quant(productId));
+        assertNull(leased(productId, "no-a"));
+        assertTrue(ledger.stats().isEmpty());
+    }
+}
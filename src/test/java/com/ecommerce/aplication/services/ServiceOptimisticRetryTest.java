@@ -0,0 +1,165 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductConflictStats;
+import com.ecommerce.aplication.records.ProductsRecords.DataProducts;
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// Edições, ajustes de estoque e baixas de checkout reais disputando o mesmo produto; cada tentativa de edição
+// abre a própria transação, então os escritores concorrentes precisam de dados confirmados.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ServiceOptimisticRetryTest {
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 25;
+    private static final int START = 1000;
+
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transaction;
+    private ServiceOptimisticRetry retry;
+    private ServiceStock stock;
+    private ServiceProductsWrite products;
+    private Long productId;
+
+    @BeforeEach
+    void setup() {
+        jdbc = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(transactionManager);
+        retry = new ServiceOptimisticRetry(transactionManager, 1000, 1);
+        stock = new ServiceStock(jdbc, mock(ApplicationEventPublisher.class), mock(ServiceInventoryLedger.class),
+                mock(ServiceStockShards.class));
+        products = new ServiceProductsWrite(repository, mock(ServiceAsync.class), mock(ApplicationEventPublisher.class),
+                mock(ServiceProductFingerprints.class), retry, mock(ServiceStockShards.class));
+
+        ProductModel product = new ProductModel();
+        product.setName("Tênis");
+        product.setPrice(BigDecimal.TEN);
+        product.setQuant(START);
+        product.setItem(CategoryItem.TÊNIS);
+        product.setType(CategoryType.UNISSEX);
+        product.setSizes(new ArrayList<>(List.of("40")));
+        product.setColors(new ArrayList<>(List.of("PRETO")));
+        productId = repository.save(product).getId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        repository.deleteAll();
+    }
+
+    private int quant() {
+        return jdbc.queryForObject("SELECT quantidade FROM produtos WHERE id = ?", Integer.class, productId);
+    }
+
+    // Edição completa pelo admin, sem a quantidade: o estoque só muda pelo PATCH de estoque.
+    private void edit(int writer) {
+        products.update(productId, new DataProducts("Tênis " + writer, BigDecimal.valueOf(100 + writer), "Descrição",
+                CategoryItem.TÊNIS, CategoryType.UNISSEX, null, List.of("40"), List.of("PRETO"), null));
+    }
+
+    // Fora do proxy do Spring a transação do ajuste é aberta aqui, como faria o controller.
+    private void restock() {
+        transaction.executeWithoutResult(status -> products.adjustQuant(productId, 1));
+    }
+
+    private void checkout() {
+        stock.decrement(List.of(new DataStockLine(productId, "Tênis", 2)));
+    }
+
+    private void runConcurrently(List<Runnable> writers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Runnable writer : writers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        writer.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void update_EditsRetryAgainstCheckoutsWithoutRestoringTheirStock() throws Exception {
+        List<Runnable> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS / 2; i++) {
+            int writer = i;
+            writers.add(() -> edit(writer));
+            writers.add(this::checkout);
+        }
+
+        runConcurrently(writers);
+
+        int decrements = WRITERS / 2 * WRITES_PER_WRITER * 2;
+        assertEquals(START - decrements, quant());
+        ProductModel product = repository.findById(productId).orElseThrow();
+        assertEquals("Tênis " + product.getPrice().subtract(BigDecimal.valueOf(100)).intValue(), product.getName());
+        for (DataProductConflictStats stats : retry.stats(10)) {
+            assertEquals(productId, stats.productId());
+            assertEquals(0, stats.exhausted());
+        }
+    }
+
+    @Test
+    void adjustQuant_RestocksAndEditsDoNotOverwriteConcurrentCheckoutDecrements() throws Exception {
+        List<Runnable> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS / 4; i++) {
+            int writer = i;
+            writers.add(() -> edit(writer));
+            writers.add(this::restock);
+            writers.add(this::checkout);
+            writers.add(this::checkout);
+        }
+
+        runConcurrently(writers);
+
+        int restocks = WRITERS / 4 * WRITES_PER_WRITER;
+        int decrements = WRITERS / 4 * 2 * WRITES_PER_WRITER * 2;
+        assertEquals(START + restocks - decrements, quant());
+    }
+}
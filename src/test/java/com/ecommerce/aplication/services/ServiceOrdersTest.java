@@ -1,7 +1,9 @@
 package com.ecommerce.aplication.services;
 
 import static org.junit.jupiter.api.Assertions.*;
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
 import com.ecommerce.aplication.records.OrderRecords.DataOrderResponse;
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
 import com.ecommerce.infra.exceptions.*;
 import com.ecommerce.model.cart.CartModel;
 import com.ecommerce.model.cart.cartItem.CartItem;
@@ -33,7 +35,10 @@ class ServiceOrdersTest {
     private CartItemRepository cartItemRepository;
 
     @Mock
-    private ProductRepository productRepository;
+    private ServiceStock stock;
+
+    @Mock
+    private ServiceStockReservations reservations;
 
     @Mock
     private ServiceAsync serviceAsync;
@@ -105,7 +110,6 @@ class ServiceOrdersTest {
         when(usersRepositroy.findById(userId)).thenReturn(Optional.of(user));
         when(cartRepository.findByUsersId(userId)).thenReturn(Optional.of(cart));
         when(cartItemRepository.findAllByCartId(cart.getId())).thenReturn(List.of(cartItem));
-        when(productRepository.save(any())).thenAnswer(i -> i.getArgument(0));
         when(ordersRepository.save(any(OrderModel.class))).thenAnswer(i -> {
             OrderModel o = i.getArgument(0);
             o.setId(100L);
@@ -123,6 +127,8 @@ class ServiceOrdersTest {
         verify(cartItemRepository).deleteAll(any());
         verify(serviceAsync).sendConfirmationEmail(any());
         verify(serviceAsync).updateRecommendationsForOrder(any());
+        verify(stock).decrement(List.of(new DataStockLine(1L, "Produto", 2)));
+        verify(reservations).hold(argThat(order -> order.getId().equals(100L)));
     }
 
 
@@ -150,6 +156,7 @@ class ServiceOrdersTest {
         when(usersRepositroy.findById(userId)).thenReturn(Optional.of(user));
         when(cartRepository.findByUsersId(userId)).thenReturn(Optional.of(cart));
         when(cartItemRepository.findAllByCartId(cart.getId())).thenReturn(List.of(cartItem));
+        doThrow(new StockUnavailableException(List.of("Produto"))).when(stock).decrement(any());
 
         StockUnavailableException ex = assertThrows(StockUnavailableException.class, () -> serviceOrders.checkout(userId));
         assertTrue(ex.getMessage().contains(product.getName()));
@@ -175,6 +182,7 @@ class ServiceOrdersTest {
         BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> serviceOrders.checkout(userId));
         assertTrue(ex.getMessage().contains("duplicados"));
 
+        verify(stock, never()).decrement(any());
         verify(ordersRepository, never()).save(any());
     }
 
@@ -219,6 +227,28 @@ class ServiceOrdersTest {
         assertEquals("Produto", responses.get(0).items().get(0).productName());
     }
 
+    @Test
+    void listOrdersByUser_withoutItemsFieldSkipsItemsQuery() {
+        Long userId = 1L;
+        OrderModel order = createOrder(100L, createUser(userId), List.of());
+        when(ordersRepository.findSummariesByUsersId(userId)).thenReturn(List.of(order));
+
+        DataFields fields = DataFields.parse("orderId, status", DataOrderResponse.class);
+        var responses = serviceOrders.listOrdersByUser(userId, fields);
+
+        assertEquals(1, responses.size());
+        assertNull(responses.get(0).items());
+        assertEquals(List.of("orderId", "status"), List.copyOf(fields.select(responses.get(0)).keySet()));
+        verify(ordersRepository, never()).findByUsersId(any());
+    }
+
+    @Test
+    void fields_rejectsUnknownField() {
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class,
+                () -> DataFields.parse("orderId,total", DataOrderResponse.class));
+        assertEquals("Campo inválido: total. Use: orderId, status, createdAt, items.", ex.getMessage());
+    }
+
 
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.ecommerce.aplication.services;
 
 import static org.junit.jupiter.api.Assertions.*;
 import com.ecommerce.aplication.records.PaymentRecords.DataPaymentsResponse;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
 import com.ecommerce.infra.exceptions.OrderNotFoundException;
 import com.ecommerce.infra.exceptions.PaymentNotFoundException;
 import com.ecommerce.model.orders.OrderModel;
@@ -36,6 +37,9 @@ class ServicePaymentTest {
     @Mock
     private ServiceCart serviceCart;
 
+    @Mock
+    private ServiceStockReservations reservations;
+
     @InjectMocks
     private ServicePayment servicePayment;
 
@@ -80,6 +84,8 @@ class ServicePaymentTest {
         verify(ordersRepository).save(order);
         verify(serviceCart).finalizeCart(order.getUsers().getId());
         verify(serviceAsync).sendConfirmationEmail(order);
+        verify(reservations).commit(order);
+        verify(reservations, never()).release(any());
     }
 
     @Test
@@ -99,6 +105,8 @@ class ServicePaymentTest {
         verify(ordersRepository, never()).save(any());
         verify(serviceCart, never()).finalizeCart(any());
         verify(serviceAsync, never()).sendConfirmationEmail(any());
+        verify(reservations).release(orderId);
+        verify(reservations, never()).commit(any());
     }
 
     @Test
@@ -113,6 +121,22 @@ class ServicePaymentTest {
         assertTrue(ex.getMessage().contains(orderId.toString()));
     }
 
+    @Test
+    void simulatePayment_OrderCancelledIsRejected() {
+        Long orderId = 1L;
+        OrderModel order = createOrder(orderId);
+        order.setStatus(OrderStatus.CANCELADO);
+
+        when(ordersRepository.findById(orderId)).thenReturn(Optional.of(order));
+
+        assertThrows(BusinessRuleException.class, () -> servicePayment.simulatePayment(orderId, false));
+
+        assertEquals(OrderStatus.CANCELADO, order.getStatus());
+        verify(ordersRepository, never()).save(any());
+        verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(reservations, serviceCart, serviceAsync);
+    }
+
     @Test
     void getPaymentStatus_Success() {
         Long orderId = 1L;
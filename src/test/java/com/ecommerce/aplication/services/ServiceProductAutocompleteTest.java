@@ -0,0 +1,130 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataAutocompleteSuggestion;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductSales;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class ServiceProductAutocompleteTest {
+    @Mock
+    private ProductRepository repository;
+
+    @InjectMocks
+    private ServiceProductAutocomplete service;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(repository.sumSoldQuantityByProduct()).thenReturn(List.of(
+                new DataProductSales(2L, 50L),
+                new DataProductSales(3L, 10L)));
+
+        service.rebuild(List.of(
+                product(1L, "Camiseta Básica"),
+                product(2L, "Camisa Social"),
+                product(3L, "Calça Jeans"),
+                product(4L, "Boné de Camurça")));
+    }
+
+    private DataProductsResponse product(Long id, String name) {
+        return new DataProductsResponse(id, name, BigDecimal.TEN, 1, CategoryItem.CAMISETA, CategoryType.UNISSEX,
+                List.of("M"), List.of("AZUL"), null);
+    }
+
+    private List<Long> ids(String prefix) {
+        return service.suggest(prefix, null).stream().map(DataAutocompleteSuggestion::id).toList();
+    }
+
+    @Test
+    void suggest_OrdersByPopularityThenId() {
+        assertEquals(List.of(2L, 3L, 1L, 4L), ids("ca"));
+        assertEquals(List.of(2L, 1L), ids("CAMIS"));
+    }
+
+    @Test
+    void suggest_MatchesWordsInsideNameIgnoringAccents() {
+        assertEquals(List.of(3L), ids("jean"));
+        assertEquals(List.of(4L), ids("camurca"));
+        assertEquals(List.of(1L), ids("camiseta basi"));
+        assertEquals(List.of(), ids("de camurca"));
+    }
+
+    @Test
+    void suggest_ReturnsEmptyForUnknownOrBlankPrefix() {
+        assertEquals(List.of(), ids("xyz"));
+        assertEquals(List.of(), ids("  "));
+    }
+
+    @Test
+    void suggest_RespectsLimit() {
+        assertEquals(2, service.suggest("ca", 2).size());
+        assertThrows(BusinessRuleException.class, () -> service.suggest("ca", 0));
+    }
+
+    @Test
+    void upsertAndRemove_UpdateSuggestions() {
+        service.upsert(product(3L, "Bermuda Jeans"));
+        service.remove(1L);
+
+        assertEquals(List.of(2L, 4L), ids("ca"));
+        assertEquals(List.of(3L), ids("berm"));
+    }
+
+    @Test
+    void suggest_CapsAtMaxSuggestions() {
+        List<DataProductsResponse> many = new ArrayList<>();
+        for (long i = 1; i <= 30; i++) {
+            many.add(product(i, "Meia " + i));
+        }
+        service.rebuild(many);
+
+        assertEquals(10, service.suggest("meia", 50).size());
+        assertEquals(List.of(3L, 30L), ids("meia 3"));
+    }
+
+    @Test
+    void upsert_ShowsNewRenamedAndRemovedNamesBeforeCompaction() {
+        service.upsert(product(5L, "Camisa Polo"));
+        service.upsert(product(2L, "Regata Dry"));
+        service.remove(4L);
+
+        assertEquals(List.of(3L, 1L, 5L), ids("ca"));
+        assertEquals(List.of(2L), ids("reg"));
+        assertEquals(List.of(), ids("camurca"));
+
+        service.compact();
+
+        assertEquals(List.of(3L, 1L, 5L), ids("ca"));
+        assertEquals(List.of(2L), ids("reg"));
+        assertEquals(List.of(), ids("camurca"));
+    }
+
+    @Test
+    void remove_HiddenEntriesDoNotShortenTheResult() {
+        List<DataProductsResponse> many = new ArrayList<>();
+        for (long i = 1; i <= 30; i++) {
+            many.add(product(i, "Meia " + i));
+        }
+        service.rebuild(many);
+        for (long i = 1; i <= 10; i++) {
+            service.remove(i);
+        }
+
+        assertEquals(List.of(11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L), ids("meia"));
+    }
+}
@@ -0,0 +1,270 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.CacheRecords.DataCacheTierStats;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ServiceProductCacheTest {
+    @Mock
+    private StringRedisTemplate redis;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ServiceProductCache cache;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(redis.opsForValue()).thenReturn(valueOperations);
+        when(redis.opsForHash()).thenReturn(hashOperations);
+        cache = new ServiceProductCache(redis, mapper, eventPublisher, 100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    private DataProductsResponse createResponse(Long id) {
+        return new DataProductsResponse(id, "Tênis", BigDecimal.valueOf(100.0), 10,
+                CategoryItem.TÊNIS, CategoryType.CALÇADOS, List.of("M"), List.of("AZUL"), "http://img.com/produto.jpg");
+    }
+
+    private DataCacheTierStats tier(String name) {
+        return cache.stats().stream().filter(s -> s.tier().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void getById_LoadsOnceThenServesFromLocalTier() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return createResponse(1L);
+        });
+        DataProductsResponse second = cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return createResponse(1L);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, second.id());
+        verify(valueOperations).set(eq("produtos:id:1"), anyString(), eq(Duration.ofMinutes(10)));
+        assertEquals(1, tier("local").hits());
+        assertEquals(1, tier("redis").misses());
+    }
+
+    @Test
+    void getById_ServedFromRedisWithoutLoader() throws Exception {
+        when(valueOperations.get("produtos:id:1")).thenReturn(mapper.writeValueAsString(createResponse(1L)));
+
+        DataProductsResponse response = cache.getById(1L, () -> fail("não deveria consultar o banco"));
+
+        assertEquals(createResponse(1L), response);
+        assertEquals(1, tier("redis").hits());
+    }
+
+    @Test
+    void getAllById_CombinesLocalRedisAndLoader() throws Exception {
+        cache.getById(1L, () -> createResponse(1L));
+        when(valueOperations.multiGet(List.of("produtos:id:2", "produtos:id:3")))
+                .thenReturn(Arrays.asList(mapper.writeValueAsString(createResponse(2L)), null));
+        List<List<Long>> loaded = new ArrayList<>();
+
+        Map<Long, DataProductsResponse> found = cache.getAllById(List.of(1L, 2L, 3L), ids -> {
+            loaded.add(ids);
+            return List.of(createResponse(3L));
+        });
+
+        assertEquals(Set.of(1L, 2L, 3L), found.keySet());
+        assertEquals(List.of(List.of(3L)), loaded);
+        verify(redis).executePipelined(any(SessionCallback.class));
+
+        Map<Long, DataProductsResponse> again = cache.getAllById(List.of(1L, 2L, 3L), ids -> fail("não deveria consultar o banco"));
+        assertEquals(found, again);
+    }
+
+    @Test
+    void getAllById_FallsBackToLoaderWhenRedisFails() {
+        when(valueOperations.multiGet(any())).thenThrow(new RedisConnectionFailureException("down"));
+
+        Map<Long, DataProductsResponse> found = cache.getAllById(List.of(4L), ids -> List.of(createResponse(4L)));
+
+        assertEquals(Set.of(4L), found.keySet());
+        assertEquals(1, tier("redis").errors());
+    }
+
+    @Test
+    void getPage_ServedFromRedisHash() throws Exception {
+        DataProductsPage page = new DataProductsPage(List.of(createResponse(1L)), "cursor");
+        when(hashOperations.get("produtos:paginas", "todos:0")).thenReturn(mapper.writeValueAsString(page));
+
+        DataProductsPage response = cache.getPage("todos:0", () -> fail("não deveria consultar o banco"));
+
+        assertEquals(page, response);
+    }
+
+    @Test
+    void onProductChanged_EvictsBothTiersAndBroadcasts() {
+        cache.getById(1L, () -> createResponse(1L));
+        cache.getPage("todos:0", () -> new DataProductsPage(List.of(createResponse(1L)), null));
+
+        cache.onProductChanged(new ProductChangedEvent(1L));
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return createResponse(1L);
+        });
+        cache.getPage("todos:0", () -> {
+            loads.incrementAndGet();
+            return new DataProductsPage(List.of(), null);
+        });
+
+        assertEquals(2, loads.get());
+        verify(redis).delete(List.of("produtos:id:1", "produtos:paginas"));
+        verify(redis).convertAndSend(eq(ServiceProductCache.INVALIDATION_CHANNEL), endsWith(":1"));
+    }
+
+    @Test
+    void onRemoteInvalidation_IgnoresOwnMessages() {
+        cache.getById(1L, () -> createResponse(1L));
+        cache.onProductChanged(new ProductChangedEvent(2L));
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redis).convertAndSend(eq(ServiceProductCache.INVALIDATION_CHANNEL), message.capture());
+
+        cache.onRemoteInvalidation(message.getValue().replace(":2", ":1"));
+
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void onRemoteInvalidation_RepublishesAsRemoteEvent() {
+        cache.onRemoteInvalidation("outro-no:1");
+
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, true));
+    }
+
+    @Test
+    void onProductsImported_DropsPagesAndBroadcastsTheBlockOnce() {
+        cache.getById(1L, () -> createResponse(1L));
+        cache.getPage("todos:0", () -> new DataProductsPage(List.of(createResponse(1L)), null));
+
+        cache.onProductsImported(new ProductsImportedEvent(List.of(7L, 8L, 9L)));
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return createResponse(1L);
+        });
+        cache.getPage("todos:0", () -> {
+            loads.incrementAndGet();
+            return new DataProductsPage(List.of(), null);
+        });
+
+        assertEquals(1, loads.get());
+        verify(redis).delete(List.of("produtos:paginas"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redis).convertAndSend(eq(ServiceProductCache.INVALIDATION_CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith(":importados:7,8,9"));
+    }
+
+    @Test
+    void onProductStockChanged_EvictsOnlyTheProductEntry() {
+        cache.getById(1L, () -> createResponse(1L));
+        cache.getPage("todos:0", () -> new DataProductsPage(List.of(createResponse(1L)), null));
+
+        cache.onProductStockChanged(new ProductStockChangedEvent(1L));
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return createResponse(1L);
+        });
+        cache.getPage("todos:0", () -> {
+            loads.incrementAndGet();
+            return new DataProductsPage(List.of(), null);
+        });
+
+        assertEquals(1, loads.get());
+        verify(redis).delete(List.of("produtos:id:1"));
+        verify(redis).convertAndSend(eq(ServiceProductCache.INVALIDATION_CHANNEL), endsWith(":estoque:1"));
+    }
+
+    @Test
+    void onRemoteInvalidation_RepublishesAStockChangeAsRemoteEvent() {
+        cache.onRemoteInvalidation("outro-no:estoque:1");
+
+        verify(eventPublisher).publishEvent(new ProductStockChangedEvent(1L, true));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void onRemoteInvalidation_RepublishesAnImportedBlockAsOneEvent() {
+        cache.onRemoteInvalidation("outro-no:importados:7,8,9");
+
+        verify(eventPublisher).publishEvent(new ProductsImportedEvent(List.of(7L, 8L, 9L), true));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void onProductChanged_RemoteEventOnlyEvictsLocalTier() {
+        cache.getById(1L, () -> createResponse(1L));
+
+        cache.onProductChanged(new ProductChangedEvent(1L, true));
+
+        verify(redis, never()).delete(anyCollection());
+        verify(redis, never()).convertAndSend(anyString(), anyString());
+        AtomicInteger loads = new AtomicInteger();
+        cache.getById(1L, () -> {
+            loads.incrementAndGet();
+            return createResponse(1L);
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getById_RedisFailureFallsBackToLoader() {
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("offline"));
+
+        DataProductsResponse response = cache.getById(1L, () -> createResponse(1L));
+
+        assertEquals(1L, response.id());
+        assertTrue(tier("redis").errors() >= 1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsFilter;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class ServiceProductCountsTest {
+    @Mock
+    private ProductRepository repository;
+
+    private ServiceProductCounts counts;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        counts = new ServiceProductCounts(repository, Runnable::run, 100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void count_CachesPerFilter() {
+        when(repository.countByItem(CategoryItem.CAMISA)).thenReturn(7L);
+
+        assertEquals(7L, counts.count(DataProductsFilter.byItem(CategoryItem.CAMISA)));
+        assertEquals(7L, counts.count(DataProductsFilter.byItem(CategoryItem.CAMISA)));
+
+        verify(repository, times(1)).countByItem(CategoryItem.CAMISA);
+    }
+
+    @Test
+    void count_DispatchesToMatchingQuery() {
+        when(repository.count()).thenReturn(100L);
+        when(repository.countByItemAndType(CategoryItem.TÊNIS, CategoryType.CALÇADOS)).thenReturn(3L);
+        when(repository.countByType(CategoryType.FEMININO)).thenReturn(4L);
+        when(repository.countByNameContainingIgnoreCase("tênis")).thenReturn(5L);
+        when(repository.countBySizesContainingIgnoreCase("M")).thenReturn(6L);
+        when(repository.countByColorsContainingIgnoreCase("AZUL")).thenReturn(8L);
+
+        assertEquals(100L, counts.count(DataProductsFilter.all()));
+        assertEquals(3L, counts.count(DataProductsFilter.byItemAndType(CategoryItem.TÊNIS, CategoryType.CALÇADOS)));
+        assertEquals(4L, counts.count(DataProductsFilter.byType(CategoryType.FEMININO)));
+        assertEquals(5L, counts.count(DataProductsFilter.byName("tênis")));
+        assertEquals(6L, counts.count(DataProductsFilter.bySize("M")));
+        assertEquals(8L, counts.count(DataProductsFilter.byColor("AZUL")));
+    }
+}
@@ -0,0 +1,191 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataFacetCounts;
+import com.ecommerce.aplication.records.ProductsRecords.DataPageRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsQuery;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.infra.exceptions.IndexNotReadyException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceProductFilterTest {
+    private ServiceProductFilter service;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceProductFilter(100);
+        service.rebuild(List.of(
+                product(1L, 50, CategoryItem.CAMISETA, CategoryType.MASCULINO, List.of("P", "M"), List.of("AZUL")),
+                product(2L, 80, CategoryItem.CAMISETA, CategoryType.FEMININO, List.of("M"), List.of("PRETO")),
+                product(3L, 120, CategoryItem.CALÇA, CategoryType.MASCULINO, List.of("G"), List.of("AZUL", "PRETO")),
+                product(4L, 30, CategoryItem.TÊNIS, CategoryType.UNISSEX, List.of("40"), List.of("BRANCO")),
+                product(5L, 80, CategoryItem.CALÇA, CategoryType.FEMININO, List.of("m"), List.of(" azul "))
+        ));
+    }
+
+    private DataProductsResponse product(Long id, int price, CategoryItem item, CategoryType type, List<String> sizes, List<String> colors) {
+        return new DataProductsResponse(id, "Produto " + id, BigDecimal.valueOf(price), 1, item, type, sizes, colors, null);
+    }
+
+    private List<Long> ids(DataProductsQuery query) {
+        return service.search(query, DataPageRequest.of(0, 100, null)).content().stream().map(DataProductsResponse::id).toList();
+    }
+
+    private DataProductsQuery query(List<CategoryItem> items, List<CategoryType> types, List<String> sizes, List<String> colors) {
+        return new DataProductsQuery(items, types, sizes, colors, null, null, null);
+    }
+
+    @Test
+    void search_CombinesFacetsWithAndAcrossAndOrWithin() {
+        assertEquals(List.of(1L, 2L, 3L, 5L), ids(query(List.of(CategoryItem.CAMISETA, CategoryItem.CALÇA), null, null, null)));
+        assertEquals(List.of(1L, 3L, 5L), ids(query(null, null, null, List.of("azul"))));
+        assertEquals(List.of(3L, 5L), ids(query(List.of(CategoryItem.CALÇA), null, null, List.of("AZUL"))));
+        assertEquals(List.of(1L, 2L, 5L), ids(query(null, null, List.of("M", "P"), null)));
+        assertEquals(List.of(5L), ids(query(List.of(CategoryItem.CALÇA), List.of(CategoryType.FEMININO), List.of("M"), List.of("AZUL"))));
+        assertEquals(List.of(), ids(query(null, null, List.of("XG"), null)));
+    }
+
+    @Test
+    void search_FiltersByPriceRangeAndSorts() {
+        DataProductsQuery query = new DataProductsQuery(null, null, null, null, BigDecimal.valueOf(50), BigDecimal.valueOf(100), "preco-desc");
+
+        assertEquals(List.of(5L, 2L, 1L), ids(query));
+        assertEquals(List.of(4L, 1L, 2L, 5L, 3L), ids(new DataProductsQuery(null, null, null, null, null, null, "preco-asc")));
+    }
+
+    @Test
+    void search_PagesWithCursorAndTotal() {
+        DataProductsQuery query = new DataProductsQuery(null, null, null, null, null, null, "preco-asc");
+
+        DataProductsPage first = service.search(query, DataPageRequest.of(0, 2, null, true));
+        DataProductsPage second = service.search(query, DataPageRequest.of(0, 2, first.nextCursor()));
+        DataProductsPage third = service.search(query, DataPageRequest.of(0, 2, second.nextCursor()));
+
+        assertEquals(5L, first.total());
+        assertEquals(List.of(4L, 1L), first.content().stream().map(DataProductsResponse::id).toList());
+        assertEquals(List.of(2L, 5L), second.content().stream().map(DataProductsResponse::id).toList());
+        assertEquals(List.of(3L), third.content().stream().map(DataProductsResponse::id).toList());
+        assertNull(third.nextCursor());
+    }
+
+    @Test
+    void search_PriceRangeWithCategoryFilterAndDescendingCursor() {
+        DataProductsQuery query = new DataProductsQuery(List.of(CategoryItem.CAMISETA, CategoryItem.CALÇA), null, null, null,
+                BigDecimal.valueOf(50), BigDecimal.valueOf(120), "preco-desc");
+
+        DataProductsPage first = service.search(query, DataPageRequest.of(0, 2, null, true));
+        DataProductsPage second = service.search(query, DataPageRequest.of(0, 2, first.nextCursor()));
+        DataProductsPage offset = service.search(query, DataPageRequest.of(1, 2, null));
+
+        assertEquals(4L, first.total());
+        assertEquals(List.of(3L, 5L), first.content().stream().map(DataProductsResponse::id).toList());
+        assertEquals(List.of(2L, 1L), second.content().stream().map(DataProductsResponse::id).toList());
+        assertEquals(second.content(), offset.content());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void search_PriceIndexFollowsPriceChanges() {
+        service.upsert(product(4L, 500, CategoryItem.TÊNIS, CategoryType.UNISSEX, List.of("40"), List.of("BRANCO")));
+        DataProductsQuery cheap = new DataProductsQuery(null, null, null, null, null, BigDecimal.valueOf(50), "preco-asc");
+
+        assertEquals(List.of(1L), ids(cheap));
+        assertEquals(List.of(4L, 3L, 5L, 2L, 1L), ids(new DataProductsQuery(null, null, null, null, null, null, "preco-desc")));
+    }
+
+    @Test
+    void search_RejectsInvalidQueries() {
+        assertThrows(BusinessRuleException.class, () -> new DataProductsQuery(null, null, null, null, BigDecimal.TEN, BigDecimal.ONE, null));
+        assertThrows(BusinessRuleException.class, () -> new DataProductsQuery(null, null, null, null, null, null, "nome"));
+
+        DataProductsPage page = service.search(DataProductsQuery.all(), DataPageRequest.of(0, 2, null));
+        DataProductsQuery byPrice = new DataProductsQuery(null, null, null, null, null, null, "preco-asc");
+        assertThrows(BusinessRuleException.class, () -> service.search(byPrice, DataPageRequest.of(0, 2, page.nextCursor())));
+    }
+
+    @Test
+    void search_ThrowsUntilIndexIsReady() {
+        assertThrows(IndexNotReadyException.class, () -> new ServiceProductFilter(100).search(DataProductsQuery.all(), DataPageRequest.ofPage(0)));
+    }
+
+    @Test
+    void upsertAndRemove_MoveProductBetweenBitmaps() {
+        service.upsert(product(1L, 50, CategoryItem.CALÇA, CategoryType.MASCULINO, List.of("G"), List.of("VERDE")));
+        service.remove(3L);
+
+        assertEquals(List.of(1L, 5L), ids(query(List.of(CategoryItem.CALÇA), null, null, null)));
+        assertEquals(List.of(5L), ids(query(null, null, null, List.of("AZUL"))));
+        assertEquals(List.of(1L), ids(query(null, null, null, List.of("VERDE"))));
+    }
+
+    @Test
+    void search_LargeCatalogSpansArrayAndBitmapContainers() {
+        List<DataProductsResponse> catalog = new ArrayList<>();
+        for (long id = 1; id <= 150_000; id++) {
+            CategoryItem item = id % 2 == 0 ? CategoryItem.CAMISETA : CategoryItem.CALÇA;
+            List<String> sizes = id % 3 == 0 ? List.of("P") : List.of("G");
+            List<String> colors = id % 1000 == 0 ? List.of("ROSA") : List.of("PRETO");
+            catalog.add(product(id, (int) (id % 500), item, CategoryType.UNISSEX, sizes, colors));
+        }
+        service.rebuild(catalog);
+
+        assertEquals(25_000L, total(query(List.of(CategoryItem.CAMISETA), null, List.of("P"), null)));
+        assertEquals(150L, total(query(null, null, null, List.of("ROSA"))));
+        assertEquals(0L, total(query(List.of(CategoryItem.CALÇA), null, null, List.of("ROSA"))));
+        assertEquals(150_000L, total(query(null, null, List.of("P", "G"), null)));
+
+        for (long id = 6; id <= 150_000; id += 6) {
+            service.remove(id);
+        }
+        assertEquals(0L, total(query(List.of(CategoryItem.CAMISETA), null, List.of("P"), null)));
+        assertEquals(50_000L, total(query(List.of(CategoryItem.CAMISETA), null, null, null)));
+        assertEquals(125_000L, total(DataProductsQuery.all()));
+    }
+
+    @Test
+    void facets_CountEveryFacetIgnoringItsOwnSelection() {
+        DataFacetCounts counts = service.facets(query(List.of(CategoryItem.CALÇA), null, null, List.of("AZUL")));
+
+        assertEquals(2, counts.total());
+        assertEquals(Map.of(CategoryItem.CAMISETA, 1, CategoryItem.CALÇA, 2), counts.items());
+        assertEquals(Map.of(CategoryType.MASCULINO, 1, CategoryType.FEMININO, 1), counts.types());
+        assertEquals(Map.of("G", 1, "M", 1), counts.sizes());
+        assertEquals(List.of("AZUL", "PRETO"), List.copyOf(counts.colors().keySet()));
+        assertEquals(2, counts.colors().get("AZUL"));
+    }
+
+    @Test
+    void facets_ApplyPriceRangeToAllCounts() {
+        DataFacetCounts counts = service.facets(new DataProductsQuery(null, null, null, null, BigDecimal.valueOf(60), null, null));
+
+        assertEquals(3, counts.total());
+        assertEquals(Map.of(CategoryItem.CAMISETA, 1, CategoryItem.CALÇA, 2), counts.items());
+        assertFalse(counts.colors().containsKey("BRANCO"));
+    }
+
+    @Test
+    void facets_RecomputedAfterUpdate() {
+        DataProductsQuery query = DataProductsQuery.all();
+        assertEquals(1, service.facets(query).items().get(CategoryItem.TÊNIS));
+
+        service.upsert(product(6L, 200, CategoryItem.TÊNIS, CategoryType.UNISSEX, List.of("41"), List.of("BRANCO")));
+
+        assertEquals(2, service.facets(query).items().get(CategoryItem.TÊNIS));
+        assertEquals(6, service.facets(query).total());
+    }
+
+    private long total(DataProductsQuery query) {
+        return service.search(query, DataPageRequest.of(0, 1, null, true)).total();
+    }
+}
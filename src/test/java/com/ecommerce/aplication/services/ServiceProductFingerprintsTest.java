@@ -0,0 +1,99 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductFingerprint;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ServiceProductFingerprintsTest {
+    private ProductRepository repository;
+    private ServiceProductFingerprints service;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(ProductRepository.class);
+        service = new ServiceProductFingerprints(repository, mock(PlatformTransactionManager.class));
+    }
+
+    private DataProductsResponse product(Long id, String name, List<String> sizes, List<String> colors) {
+        return new DataProductsResponse(id, name, BigDecimal.TEN, 1, CategoryItem.CAMISETA, CategoryType.UNISSEX, sizes, colors, null);
+    }
+
+    private String fingerprint(String name, List<String> sizes, List<String> colors) {
+        return ProductFingerprint.of(name, CategoryType.UNISSEX, CategoryItem.CAMISETA, sizes, colors);
+    }
+
+    @Test
+    void fingerprint_IgnoresCaseSpacingAndOrder() {
+        assertEquals(fingerprint("Camiseta Básica", List.of("P", "M"), List.of("AZUL", "PRETO")),
+                fingerprint(" camiseta básica ", List.of("m", "p", "M"), List.of(" preto", "azul")));
+        assertNotEquals(fingerprint("Camiseta Básica", List.of("P"), List.of("AZUL")),
+                fingerprint("Camiseta Básica", List.of("G"), List.of("AZUL")));
+    }
+
+    @Test
+    void isDuplicate_BeforeRebuildAlwaysAsksTheDatabase() {
+        when(repository.findIdByFingerprint(anyString())).thenReturn(Optional.empty());
+
+        assertFalse(service.isDuplicate(fingerprint("Nova", List.of("P"), List.of("AZUL")), null));
+        verify(repository).findIdByFingerprint(anyString());
+    }
+
+    @Test
+    void isDuplicate_FilterNegativeSkipsTheDatabase() {
+        service.rebuild(List.of(product(1L, "Camiseta", List.of("P"), List.of("AZUL"))));
+
+        assertFalse(service.isDuplicate(fingerprint("Outra", List.of("P"), List.of("AZUL")), null));
+        verify(repository, never()).findIdByFingerprint(anyString());
+    }
+
+    @Test
+    void isDuplicate_PositiveIsConfirmedAndIgnoresTheProductItself() {
+        service.rebuild(List.of(product(1L, "Camiseta", List.of("P"), List.of("AZUL"))));
+        String existing = fingerprint("Camiseta", List.of("P"), List.of("AZUL"));
+        when(repository.findIdByFingerprint(existing)).thenReturn(Optional.of(1L));
+
+        assertTrue(service.isDuplicate(existing, null));
+        assertTrue(service.isDuplicate(existing, 2L));
+        assertFalse(service.isDuplicate(existing, 1L));
+    }
+
+    @Test
+    void upsert_AddsNewProductsToTheFilter() {
+        service.rebuild(List.of());
+        service.upsert(product(3L, "Boné", List.of("U"), List.of("VERDE")));
+        String added = fingerprint("Boné", List.of("U"), List.of("VERDE"));
+        when(repository.findIdByFingerprint(added)).thenReturn(Optional.of(3L));
+
+        assertTrue(service.isDuplicate(added, null));
+    }
+
+    @Test
+    void existing_QueriesOnlyFilterCandidates() {
+        service.rebuild(List.of(product(1L, "Camiseta", List.of("P"), List.of("AZUL"))));
+        String known = fingerprint("Camiseta", List.of("P"), List.of("AZUL"));
+        String unknown = fingerprint("Nova", List.of("P"), List.of("AZUL"));
+        when(repository.findExistingFingerprints(List.of(known))).thenReturn(List.of(known));
+
+        assertEquals(Set.of(known), service.existing(List.of(known, unknown)));
+        assertEquals(Set.of(), service.existing(List.of(unknown)));
+        verify(repository).findExistingFingerprints(any());
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ImportRecords.DataImportError;
+import com.ecommerce.aplication.records.ImportRecords.DataImportReport;
+import com.ecommerce.aplication.services.ServiceCatalogExport.Format;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductFingerprint;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.product.ProductsImportedEvent;
+import com.ecommerce.model.repositorys.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ServiceProductImportTest {
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ServiceProductImport service;
+
+    @BeforeEach
+    void setup() {
+        ServiceProductFingerprints fingerprints = new ServiceProductFingerprints(repository, transactionManager);
+        ServiceProductsWrite productsWrite = new ServiceProductsWrite(repository, mock(ServiceAsync.class), eventPublisher, fingerprints,
+                new ServiceOptimisticRetry(transactionManager, 5, 0), mock(ServiceStockShards.class));
+        service = new ServiceProductImport(fingerprints, productsWrite, new JdbcTemplate(dataSource),
+                transactionManager, eventPublisher, new ObjectMapper());
+
+        ProductModel existing = new ProductModel();
+        existing.setName("Bota Couro");
+        existing.setPrice(BigDecimal.valueOf(300));
+        existing.setQuant(2);
+        existing.setItem(CategoryItem.BOTA);
+        existing.setType(CategoryType.CALÇADOS);
+        existing.setSizes(new ArrayList<>(List.of("40", "39")));
+        existing.setColors(new ArrayList<>(List.of("PRETO")));
+        existing.setFingerprint(ProductFingerprint.of(existing));
+        repository.save(existing);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private ProductModel findByName(String name) {
+        return repository.findAll().stream().filter(p -> p.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importNdjson_InsertsInChunksWithSizesAndColors() throws IOException {
+        int rows = ServiceProductImport.CHUNK_SIZE + 20;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            content.append("{\"name\":\"Camiseta ").append(i)
+                    .append("\",\"price\":49.90,\"quant\":3,\"item\":\"CAMISETA\",\"type\":\"UNISSEX\"")
+                    .append(",\"sizes\":[\" p \",\"M\",\"m\"],\"colors\":[\"azul\"],\"imageUrl\":\"https://cdn/c.jpg\"}\n");
+        }
+
+        DataImportReport report = service.importProducts(Format.NDJSON, stream(content.toString()));
+        entityManager.clear();
+
+        assertEquals(rows, report.rows());
+        assertEquals(rows, report.imported());
+        assertEquals(0, report.failed());
+        assertTrue(report.errors().isEmpty());
+        assertEquals(rows + 1, repository.count());
+
+        ProductModel imported = findByName("Camiseta 7");
+        assertEquals(List.of("P", "M"), imported.getSizes());
+        assertEquals(List.of("AZUL"), imported.getColors());
+        assertEquals(0, new BigDecimal("49.90").compareTo(imported.getPrice()));
+        assertEquals(ProductFingerprint.of(imported), imported.getFingerprint());
+        ArgumentCaptor<ProductsImportedEvent> events = ArgumentCaptor.forClass(ProductsImportedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(ServiceProductImport.CHUNK_SIZE, 20), events.getAllValues().stream().map(e -> e.productIds().size()).toList());
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void importNdjson_ReportsDuplicatesAndInvalidRows() throws IOException {
+        String content = """
+                {"name":"Tênis Run","price":199.90,"quant":5,"item":"TÊNIS","type":"CALÇADOS","sizes":["42"],"colors":["BRANCO"]}
+                {"name":"tênis run ","price":189.90,"quant":1,"item":"TÊNIS","type":"CALÇADOS","sizes":["42"],"colors":["branco"]}
+                {"name":"BOTA COURO","price":310,"quant":4,"item":"BOTA","type":"CALÇADOS","sizes":["39","40"],"colors":["PRETO"]}
+                {"name":"Sem preço","quant":1,"item":"BONÉ","type":"UNISSEX","sizes":["U"],"colors":["VERDE"]}
+
+                {"name":"Quebrado",
+                {"name":"Sem categoria","price":10,"quant":1,"sizes":["U"],"colors":["VERDE"]}
+                """;
+
+        DataImportReport report = service.importProducts(Format.NDJSON, stream(content));
+
+        assertEquals(6, report.rows());
+        assertEquals(1, report.imported());
+        assertEquals(2, report.duplicates());
+        assertEquals(3, report.failed());
+        Map<Long, String> errors = report.errors().stream()
+                .collect(Collectors.toMap(DataImportError::row, DataImportError::message));
+        assertEquals(Set.of(2L, 3L, 4L, 6L, 7L), errors.keySet());
+        assertEquals("Produto já cadastrado com estas especificações.", errors.get(2L));
+        assertEquals("Produto já cadastrado com estas especificações.", errors.get(3L));
+        assertEquals("O preço deve ser maior que zero.", errors.get(4L));
+        assertTrue(errors.get(6L).startsWith("JSON inválido"));
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void importCsv_ReadsExportedLayout() throws IOException {
+        String content = """
+                id,nome,preco,quantidade,categoria_item,categoria_tipo,tamanhos,cores,imagem_url
+                1,"Camisa ""Social"", slim",129.90,4,CAMISA,MASCULINO,P|M|G,BRANCO|AZUL,
+                2,Chapéu,59.90,2,CHAPÉU,UNISSEX,U,PALHA,https://cdn/chapeu.jpg
+                3,Saia,abc,2,SAIA,FEMININO,P,ROSA,
+                4,Relógio,99.90,1,RELOGIO,UNISSEX,U,PRATA,
+                """;
+
+        DataImportReport report = service.importProducts(Format.CSV, stream(content));
+        entityManager.clear();
+
+        assertEquals(4, report.rows());
+        assertEquals(2, report.imported());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(4L, 5L), report.errors().stream().map(DataImportError::row).toList());
+
+        ProductModel camisa = findByName("Camisa \"Social\", slim");
+        assertEquals(List.of("P", "M", "G"), camisa.getSizes());
+        assertNull(camisa.getImageUrl());
+    }
+
+    @Test
+    void importCsv_RejectsHeaderWithoutRequiredColumns() {
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class,
+                () -> service.importProducts(Format.CSV, stream("nome,preco\nCamisa,10\n")));
+        assertTrue(ex.getMessage().contains("quantidade"));
+    }
+
+    @Test
+    void readCsvRecord_HandlesQuotedNewlinesAndCrlf() throws IOException {
+        StringReader reader = new StringReader("a,\"b\r\nc\",\"\"\"d\"\"\"\r\ne,f");
+
+        assertEquals(List.of("a", "b\r\nc", "\"d\""), ServiceProductImport.readCsvRecord(reader));
+        assertEquals(List.of("e", "f"), ServiceProductImport.readCsvRecord(reader));
+        assertNull(ServiceProductImport.readCsvRecord(reader));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn -B test -Pbenchmark
+@Tag("benchmark")
+class ServiceProductJsonBenchmarkTest {
+    private static final int PAGES = 200;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 20_000;
+    private static final int REQUESTS = 100_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void pageSerialization() throws Exception {
+        List<List<DataProductsResponse>> pages = pages();
+        ServiceProductJson cache = new ServiceProductJson(mapper, 100_000);
+
+        Result jackson = run("jackson", pages, content -> {
+            try {
+                return mapper.writeValueAsBytes(content);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Result cached = run("bytes em cache", pages, content -> cache.page(content).json());
+
+        assertTrue(cached.requestsPerSecond() > jackson.requestsPerSecond());
+        assertTrue(cached.bytesPerRequest() < jackson.bytesPerRequest());
+    }
+
+    @Test
+    void binaryFormats() {
+        List<List<DataProductsResponse>> pages = pages();
+
+        int json = payload("json", mapper, pages);
+        int cbor = payload("cbor", new ObjectMapper(new CBORFactory()), pages);
+        int smile = payload("smile", new ObjectMapper(new SmileFactory()), pages);
+
+        assertTrue(cbor < json);
+        assertTrue(smile < json);
+    }
+
+    private int payload(String label, ObjectMapper formatMapper, List<List<DataProductsResponse>> pages) {
+        Function<List<DataProductsResponse>, byte[]> serializer = content -> {
+            try {
+                return formatMapper.writeValueAsBytes(content);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        int bytes = serializer.apply(pages.get(0)).length;
+        System.out.printf("%s | %,d bytes por página%n", label, bytes);
+        run(label, pages, serializer);
+        return bytes;
+    }
+
+    private static List<List<DataProductsResponse>> pages() {
+        List<List<DataProductsResponse>> pages = new ArrayList<>(PAGES);
+        for (int page = 0; page < PAGES; page++) {
+            List<DataProductsResponse> content = new ArrayList<>(PAGE_SIZE);
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                long id = (long) page * PAGE_SIZE + i + 1;
+                content.add(new DataProductsResponse(id, "Camiseta Estampada " + id, BigDecimal.valueOf(id % 500 + 19.9),
+                        (int) (id % 40), CategoryItem.CAMISETA, CategoryType.UNISSEX, List.of("P", "M", "G"),
+                        List.of("AZUL", "PRETO"), "https://cdn.exemplo.com/produtos/" + id + ".jpg"));
+            }
+            pages.add(content);
+        }
+        return pages;
+    }
+
+    private record Result(double requestsPerSecond, double bytesPerRequest) {
+    }
+
+    private Result run(String label, List<List<DataProductsResponse>> pages, Function<List<DataProductsResponse>, byte[]> serializer) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += serializer.apply(pages.get(i % PAGES)).length;
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            sink += serializer.apply(pages.get(i % PAGES)).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Result result = new Result(REQUESTS / (elapsed / 1e9), (double) allocated / REQUESTS);
+        System.out.printf("%s | páginas de %d produtos | %,.0f req/s | %,.0f bytes alocados/req | checksum %d%n",
+                label, PAGE_SIZE, result.requestsPerSecond(), result.bytesPerRequest(), sink);
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.services.ServiceProductJson.Serialized;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceProductJsonTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ServiceProductJson service;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceProductJson(mapper, 100);
+    }
+
+    private DataProductsResponse product(Long id, String name) {
+        return new DataProductsResponse(id, name, BigDecimal.valueOf(99.9), 3, CategoryItem.CAMISETA,
+                CategoryType.MASCULINO, List.of("P", "M"), List.of("AZUL"), null);
+    }
+
+    @Test
+    void product_MatchesJacksonAndIsReused() throws Exception {
+        DataProductsResponse product = product(1L, "Camiseta Básica");
+
+        Serialized first = service.product(product);
+
+        assertArrayEquals(mapper.writeValueAsBytes(product), first.json());
+        assertSame(first, service.product(product));
+        assertSame(first, service.product(product(1L, "Camiseta Básica")));
+    }
+
+    @Test
+    void product_ReserializesWhenContentChanges() throws Exception {
+        service.product(product(1L, "Camiseta Básica"));
+        DataProductsResponse renamed = product(1L, "Camiseta Nova");
+
+        assertArrayEquals(mapper.writeValueAsBytes(renamed), service.product(renamed).json());
+    }
+
+    @Test
+    void onProductChanged_DropsCachedBytes() {
+        DataProductsResponse product = product(1L, "Camiseta Básica");
+        Serialized first = service.product(product);
+
+        service.onProductChanged(new ProductChangedEvent(1L));
+
+        assertNotSame(first, service.product(product));
+    }
+
+    @Test
+    void page_ConcatenatesProductBytes() throws Exception {
+        List<DataProductsResponse> content = List.of(product(1L, "A"), product(2L, "B"), product(3L, "C"));
+
+        Serialized page = service.page(content);
+
+        assertArrayEquals(mapper.writeValueAsBytes(content), page.json());
+        assertSame(page, service.page(content));
+        assertArrayEquals("[]".getBytes(), service.page(List.of()).json());
+    }
+
+    @Test
+    void gzip_RoundTripsAndIsComputedOnce() throws IOException {
+        List<DataProductsResponse> content = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            content.add(product(id, "Produto " + id));
+        }
+        Serialized page = service.page(content);
+
+        assertTrue(page.compressible());
+        byte[] gzip = page.gzip();
+        assertSame(gzip, page.gzip());
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(page.json(), input.readAllBytes());
+        }
+        assertFalse(service.product(product(1L, "A")).compressible());
+    }
+}
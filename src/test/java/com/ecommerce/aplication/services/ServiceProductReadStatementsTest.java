@@ -0,0 +1,143 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
+import com.ecommerce.aplication.records.ProductsRecords.DataPageRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatch;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class ServiceProductReadStatementsTest {
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ServiceProductRead service;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        ServiceProductCache cache = mock(ServiceProductCache.class);
+        when(cache.getPage(anyString(), any())).thenAnswer(inv -> inv.<Supplier<DataProductsPage>>getArgument(1).get());
+        when(cache.getAllById(any(), any())).thenAnswer(inv -> inv.<Function<List<Long>, List<DataProductsResponse>>>getArgument(1)
+                .apply(inv.getArgument(0)).stream()
+                .collect(Collectors.toMap(DataProductsResponse::id, product -> product)));
+        service = new ServiceProductRead(repository, cache, mock(ServiceProductCounts.class), mock(ServiceProductSearch.class), mock(ServiceProductFilter.class), mock(ServiceProductVariants.class));
+
+        for (int i = 0; i < 60; i++) {
+            ProductModel p = new ProductModel();
+            p.setName("Produto " + i);
+            p.setPrice(BigDecimal.valueOf(10 + i));
+            p.setQuant(5);
+            p.setItem(i % 2 == 0 ? CategoryItem.CAMISETA : CategoryItem.CALÇA);
+            p.setType(CategoryType.UNISSEX);
+            p.setSizes(new ArrayList<>(List.of("P", "M", "G")));
+            p.setColors(new ArrayList<>(List.of("AZUL", "PRETO")));
+            repository.save(p);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private long statementsFor(Supplier<DataProductsPage> listing) {
+        statistics.clear();
+        DataProductsPage page = listing.get();
+        page.content().forEach(this::touchCollections);
+        entityManager.clear();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void touchCollections(DataProductsResponse product) {
+        assertEquals(3, product.sizes().size());
+        assertEquals(2, product.colors().size());
+    }
+
+    @Test
+    void offsetPage_LoadsCollectionsInConstantStatements() {
+        long small = statementsFor(() -> service.findAll(DataPageRequest.of(1, 5, null)));
+        long large = statementsFor(() -> service.findAll(DataPageRequest.of(0, 50, null)));
+
+        assertEquals(3, small);
+        assertEquals(3, large);
+    }
+
+    @Test
+    void keysetPage_LoadsCollectionsInConstantStatements() {
+        DataProductsPage first = service.findByItem(CategoryItem.CAMISETA, DataPageRequest.of(0, 5, null));
+
+        long statements = statementsFor(() -> service.findByItem(CategoryItem.CAMISETA, DataPageRequest.of(0, 20, first.nextCursor())));
+
+        assertEquals(3, statements);
+    }
+
+    @Test
+    void batch_LoadsProductsAndCollectionsInConstantStatements() {
+        List<Long> ids = new ArrayList<>(repository.findAll().stream().map(ProductModel::getId).toList());
+        entityManager.clear();
+        Collections.reverse(ids);
+        ids.add(999_999L);
+
+        statistics.clear();
+        DataProductsBatch batch = service.findAllByIds(ids);
+        batch.products().forEach(this::touchCollections);
+
+        assertEquals(60, batch.products().size());
+        assertEquals(List.of(999_999L), batch.missing());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sparsePage_NeverLoadsUnrequestedCollections() {
+        DataFields fields = DataFields.parse("id,name,price,imageUrl", DataProductsResponse.class);
+
+        statistics.clear();
+        DataProductsPage page = service.findAll(DataPageRequest.of(0, 50, null, false, fields));
+        entityManager.clear();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(50, page.content().size());
+        assertNull(page.content().get(0).sizes());
+        assertEquals(List.of("id", "name", "price", "imageUrl"), List.copyOf(fields.select(page.content().get(0)).keySet()));
+    }
+
+    @Test
+    void priceOrderedPage_LoadsCollectionsInConstantStatements() {
+        long statements = statementsFor(() -> service.findAllOrderByPrice("desc", DataPageRequest.of(0, 30, null)));
+
+        assertEquals(3, statements);
+    }
+}
@@ -1,6 +1,15 @@
 package com.ecommerce.aplication.services;
 
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
+import com.ecommerce.aplication.records.ProductsRecords.DataPageRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatch;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsBatchRequest;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsCursor;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsFilter;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsPage;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsQuery;
 import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.search.SearchHit;
 import com.ecommerce.infra.exceptions.BusinessRuleException;
 import com.ecommerce.infra.exceptions.ResourceNotFoundException;
 import com.ecommerce.model.product.CategoryItem;
@@ -12,28 +21,52 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 class ServiceProductReadTest {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private ServiceProductCache cache;
+
+    @Mock
+    private ServiceProductCounts counts;
+
+    @Mock
+    private ServiceProductSearch search;
+
+    @Mock
+    private ServiceProductFilter filter;
+
+    @Mock
+    private ServiceProductVariants variants;
+
     @InjectMocks
     private ServiceProductRead service;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        when(cache.getById(any(), any())).thenAnswer(inv -> inv.<Supplier<DataProductsResponse>>getArgument(1).get());
+        when(cache.getPage(anyString(), any())).thenAnswer(inv -> inv.<Supplier<DataProductsPage>>getArgument(1).get());
+        when(variants.exists(anyString(), anyString(), anyString(), any())).thenAnswer(inv -> inv.<BooleanSupplier>getArgument(3).getAsBoolean());
     }
 
     private ProductModel createProduct(Long id, String name) {
@@ -70,102 +103,270 @@ class ServiceProductReadTest {
         assertTrue(ex.getMessage().contains("não encontrado"));
     }
 
+    @Test
+    void findById_FieldsSkipTheCacheAndTheCollectionsNotRequested() {
+        ProductModel product = spy(createProduct(1L, "Tênis Azul"));
+        when(repository.findById(1L)).thenReturn(Optional.of(product));
+
+        DataProductsResponse response = service.findById(1L, DataFields.parse("id,name", DataProductsResponse.class));
+
+        assertEquals("Tênis Azul", response.name());
+        assertNull(response.sizes());
+        assertNull(response.colors());
+        verify(product, never()).getSizes();
+        verify(product, never()).getColors();
+        verify(cache, never()).getById(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findAllByIds_PreservesOrderAndReportsMissing() {
+        when(cache.getAllById(any(), any())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            return inv.<Function<List<Long>, List<DataProductsResponse>>>getArgument(1).apply(ids).stream()
+                    .collect(Collectors.toMap(DataProductsResponse::id, p -> p));
+        });
+        when(repository.findAllById(List.of(3L, 1L, 7L))).thenReturn(List.of(createProduct(1L, "Um"), createProduct(3L, "Três")));
+
+        DataProductsBatch batch = service.findAllByIds(Arrays.asList(3L, 1L, 3L, null, 7L));
+
+        assertEquals(List.of(3L, 1L), batch.products().stream().map(DataProductsResponse::id).toList());
+        assertEquals(List.of(7L), batch.missing());
+        verify(repository).findAllById(List.of(3L, 1L, 7L));
+    }
+
+    @Test
+    void findAllByIds_RejectsEmptyAndOversizedRequests() {
+        List<Long> tooMany = LongStream.rangeClosed(1, DataProductsBatchRequest.MAX_IDS + 1).boxed().toList();
+
+        assertThrows(BusinessRuleException.class, () -> service.findAllByIds(List.of()));
+        assertThrows(BusinessRuleException.class, () -> service.findAllByIds(null));
+        assertThrows(BusinessRuleException.class, () -> service.findAllByIds(tooMany));
+        verifyNoInteractions(repository);
+    }
+
     @Test
     void findAll_ReturnsPage() {
         ProductModel p1 = createProduct(1L, "Produto1");
         ProductModel p2 = createProduct(2L, "Produto2");
 
-        Page<ProductModel> page = new PageImpl<>(List.of(p1, p2));
-        when(repository.findAll(PageRequest.of(0, 5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p1, p2));
+        when(repository.findBy(PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
+
+        var result = service.findAll(DataPageRequest.ofPage(0));
+        assertEquals(2, result.content().size());
+        assertEquals("http://img.com/produto.jpg", result.content().get(0).imageUrl());
+    }
+    @Test
+    void findById_ServedFromCacheWithoutRepository() {
+        DataProductsResponse cached = new DataProductsResponse(1L, "Tênis Azul", BigDecimal.TEN, 3,
+                CategoryItem.TÊNIS, CategoryType.CALÇADOS, List.of("M"), List.of("AZUL"), "url");
+        doReturn(cached).when(cache).getById(eq(1L), any());
+
+        DataProductsResponse response = service.findById(1L);
 
-        var result = service.findAll(0);
-        assertEquals(2, result.getContent().size());
-        assertEquals("http://img.com/produto.jpg", result.getContent().get(0).imageUrl());
+        assertSame(cached, response);
+        verify(repository, never()).findById(any());
     }
+
+    @Test
+    void findAll_UsesPageKeyAndServesCachedPage() {
+        DataProductsResponse cached = new DataProductsResponse(1L, "Produto1", BigDecimal.TEN, 3,
+                CategoryItem.TÊNIS, CategoryType.CALÇADOS, List.of("M"), List.of("AZUL"), "url");
+        doReturn(new DataProductsPage(List.of(cached), null)).when(cache).getPage(eq("todos:p2:5"), any());
+
+        var result = service.findAll(DataPageRequest.ofPage(2));
+
+        assertEquals(List.of(cached), result.content());
+        verify(repository, never()).findBy(any(Pageable.class));
+    }
+
+    @Test
+    void findAll_PageModeReturnsCursorForNextPage() {
+        ProductModel p1 = createProduct(1L, "Produto1");
+        ProductModel p2 = createProduct(2L, "Produto2");
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id"));
+        when(repository.findBy(pageable)).thenReturn(new SliceImpl<>(List.of(p1, p2), pageable, true));
+
+        var result = service.findAll(DataPageRequest.of(0, 2, null));
+
+        DataProductsCursor next = DataProductsCursor.decode(result.nextCursor(), DataProductsCursor.SORT_ID);
+        assertEquals(2L, next.id());
+    }
+
+    @Test
+    void findByItem_TotalComesFromCountsWhenRequested() {
+        ProductModel p = createProduct(1L, "Produto1");
+        when(repository.findByItem(CategoryItem.TÊNIS, PageRequest.of(0, 5, Sort.by("id")))).thenReturn(new SliceImpl<>(List.of(p)));
+        when(counts.count(DataProductsFilter.byItem(CategoryItem.TÊNIS))).thenReturn(42L);
+
+        var withTotal = service.findByItem(CategoryItem.TÊNIS, DataPageRequest.of(0, 5, null, true));
+        var withoutTotal = service.findByItem(CategoryItem.TÊNIS, DataPageRequest.of(0, 5, null, false));
+
+        assertEquals(42L, withTotal.total());
+        assertNull(withoutTotal.total());
+        verify(counts, times(1)).count(any());
+    }
+
+    @Test
+    void findAll_CursorModeUsesKeysetAfterLastId() {
+        ProductModel p3 = createProduct(3L, "Produto3");
+        String cursor = new DataProductsCursor(DataProductsCursor.SORT_ID, null, 2L).encode();
+        when(repository.findBy(eq(ScrollPosition.forward(Map.of("id", 2L))), eq(Limit.of(5)), eq(Sort.by("id"))))
+                .thenReturn(Window.from(List.of(p3), i -> ScrollPosition.offset(i), false));
+
+        var result = service.findAll(DataPageRequest.of(0, null, cursor));
+
+        assertEquals(3L, result.content().get(0).id());
+        assertNull(result.nextCursor());
+        verify(repository, never()).findBy(any(Pageable.class));
+    }
+
+    @Test
+    void findAllOrderByPrice_CursorFromOtherListingThrows() {
+        String cursor = new DataProductsCursor(DataProductsCursor.SORT_ID, null, 2L).encode();
+
+        assertThrows(BusinessRuleException.class,
+                () -> service.findAllOrderByPrice("asc", DataPageRequest.of(0, 5, cursor)));
+    }
+
+    @Test
+    void findAllOrderByPrice_CursorKeepsPriceAndId() {
+        ProductModel p = createProduct(9L, "Produto9");
+        String cursor = new DataProductsCursor(DataProductsCursor.SORT_PRICE_DESC, BigDecimal.valueOf(120), 4L).encode();
+        Sort sort = Sort.by("price").descending().and(Sort.by("id").descending());
+        when(repository.findBy(eq(ScrollPosition.forward(Map.of("price", BigDecimal.valueOf(120), "id", 4L))), eq(Limit.of(5)), eq(sort)))
+                .thenReturn(Window.from(List.of(p), i -> ScrollPosition.offset(i), true));
+
+        var result = service.findAllOrderByPrice("desc", DataPageRequest.of(0, 5, cursor));
+
+        DataProductsCursor next = DataProductsCursor.decode(result.nextCursor(), DataProductsCursor.SORT_PRICE_DESC);
+        assertEquals(9L, next.id());
+        assertEquals(0, BigDecimal.valueOf(100.0).compareTo(next.key()));
+    }
+
+    @Test
+    void pageRequest_SizeIsCapped() {
+        assertEquals(DataPageRequest.MAX_SIZE, DataPageRequest.of(0, 10_000, null).size());
+        assertThrows(BusinessRuleException.class, () -> DataPageRequest.of(0, 0, null));
+    }
+
     @Test
     void findByItem_Success() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findByItem(CategoryItem.TÊNIS, PageRequest.of(0,5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findByItem(CategoryItem.TÊNIS, PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
 
-        var result = service.findByItem(CategoryItem.TÊNIS, 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findByItem(CategoryItem.TÊNIS, DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
     }
 
     @Test
     void findByType_Success() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findByType(CategoryType.CALÇADOS, PageRequest.of(0,5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findByType(CategoryType.CALÇADOS, PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
 
-        var result = service.findByType(CategoryType.CALÇADOS, 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findByType(CategoryType.CALÇADOS, DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
     }
 
     @Test
     void findByItemAndType_Success() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findByItemAndType(CategoryItem.TÊNIS, CategoryType.CALÇADOS, PageRequest.of(0,5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findByItemAndType(CategoryItem.TÊNIS, CategoryType.CALÇADOS, PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
 
-        var result = service.findByItemAndType(CategoryItem.TÊNIS, CategoryType.CALÇADOS, 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findByItemAndType(CategoryItem.TÊNIS, CategoryType.CALÇADOS, DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
     }
 
     @Test
     void findByNameContaining_Success() {
         ProductModel p = createProduct(1L, "Tênis Azul");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findByNameContainingIgnoreCase("Tênis", PageRequest.of(0,5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findByNameContainingIgnoreCase("Tênis", PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
+
+        var result = service.findByNameContaining("Tênis", false, DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
+    }
 
-        var result = service.findByNameContaining("Tênis", 0);
-        assertEquals(1, result.getContent().size());
+    @Test
+    void findByNameContaining_RankedFromIndexWhenReady() {
+        when(search.isReady()).thenReturn(true);
+        when(search.search("tenis", false)).thenReturn(List.of(
+                new SearchHit(3L, 2.5f), new SearchHit(1L, 1.5f), new SearchHit(2L, 1.5f)));
+        when(repository.findAllById(List.of(3L, 1L)))
+                .thenReturn(List.of(createProduct(1L, "Tênis Azul"), createProduct(3L, "Tênis Tênis")));
+        when(repository.findAllById(List.of(2L))).thenReturn(List.of(createProduct(2L, "Tênis Preto")));
+
+        DataProductsPage first = service.findByNameContaining("tenis", false, DataPageRequest.of(0, 2, null, true));
+        DataProductsPage second = service.findByNameContaining("tenis", false, DataPageRequest.of(0, 2, first.nextCursor()));
+
+        assertEquals(List.of(3L, 1L), first.content().stream().map(DataProductsResponse::id).toList());
+        assertEquals(3L, first.total());
+        assertEquals(List.of(2L), second.content().stream().map(DataProductsResponse::id).toList());
+        assertNull(second.nextCursor());
+        assertNull(second.total());
+        verify(repository, never()).findByNameContainingIgnoreCase(anyString(), any(Pageable.class));
     }
 
     @Test
     void findByNameContaining_EmptyNameThrows() {
-        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.findByNameContaining(" ", 0));
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.findByNameContaining(" ", false, DataPageRequest.ofPage(0)));
         assertTrue(ex.getMessage().contains("não pode ser vazio"));
     }
 
     @Test
     void findBySize_Success() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findBySizesContainingIgnoreCase("M", PageRequest.of(0,5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findBySizesContainingIgnoreCase("M", PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
 
-        var result = service.findBySize("M", 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findBySize("M", DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
     }
 
     @Test
     void findByColor_Success() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findByColorsContainingIgnoreCase("AZUL", PageRequest.of(0,5))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findByColorsContainingIgnoreCase("AZUL", PageRequest.of(0, 5, Sort.by("id")))).thenReturn(page);
 
-        var result = service.findByColor("azul", 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findByColor("azul", DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
     }
 
     @Test
     void findAllOrderByPrice_Ascending() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findAll(PageRequest.of(0, 5, Sort.by("price").ascending()))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findBy(PageRequest.of(0, 5, Sort.by("price").ascending().and(Sort.by("id").ascending())))).thenReturn(page);
 
-        var result = service.findAllOrderByPrice("asc", 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findAllOrderByPrice("asc", DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
+    }
+
+    @Test
+    void findAllOrderByPrice_ServedFromFilterIndexWhenReady() {
+        DataPageRequest request = DataPageRequest.ofPage(0);
+        DataProductsPage indexed = new DataProductsPage(List.of(), null);
+        when(filter.isReady()).thenReturn(true);
+        when(filter.search(new DataProductsQuery(null, null, null, null, null, null, DataProductsCursor.SORT_PRICE_DESC), request))
+                .thenReturn(indexed);
+
+        assertSame(indexed, service.findAllOrderByPrice("desc", request));
+        verify(repository, never()).findBy(any(Pageable.class));
     }
 
     @Test
     void findAllOrderByPrice_Descending() {
         ProductModel p = createProduct(1L, "Produto1");
-        Page<ProductModel> page = new PageImpl<>(List.of(p));
-        when(repository.findAll(PageRequest.of(0, 5, Sort.by("price").descending()))).thenReturn(page);
+        Slice<ProductModel> page = new SliceImpl<>(List.of(p));
+        when(repository.findBy(PageRequest.of(0, 5, Sort.by("price").descending().and(Sort.by("id").descending())))).thenReturn(page);
 
-        var result = service.findAllOrderByPrice("desc", 0);
-        assertEquals(1, result.getContent().size());
+        var result = service.findAllOrderByPrice("desc", DataPageRequest.ofPage(0));
+        assertEquals(1, result.content().size());
     }
 
     @Test
@@ -176,6 +377,15 @@ class ServiceProductReadTest {
         assertTrue(exists);
     }
 
+    @Test
+    void existsByNameAndColorAndSize_FilterNegativeSkipsQuery() {
+        doReturn(false).when(variants).exists(anyString(), anyString(), anyString(), any());
+
+        assertFalse(service.existsByNameAndColorAndSize(" Tênis ", "azul", "m"));
+        verify(variants).exists(eq("Tênis"), eq("AZUL"), eq("M"), any());
+        verify(repository, never()).existsByNameAndColorAndSize(any(), any(), any());
+    }
+
     @Test
     void existsByNameAndColorAndSize_MissingNameThrows() {
         BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.existsByNameAndColorAndSize(null, "AZUL", "M"));
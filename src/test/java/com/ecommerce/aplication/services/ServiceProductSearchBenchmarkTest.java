@@ -0,0 +1,95 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// mvn -B test -Pbenchmark
+@Tag("benchmark")
+class ServiceProductSearchBenchmarkTest {
+    private static final String[] ITEMS = {"camiseta", "calça", "tênis", "bermuda", "jaqueta", "moletom", "boné", "vestido", "saia", "meia"};
+    private static final String[] ADJECTIVES = {"básica", "estampada", "slim", "oversized", "esportiva", "social", "casual", "térmica", "listrada", "jeans"};
+    private static final String[] COLORS = {"azul", "preto", "branco", "vermelho", "verde", "cinza", "amarelo", "marrom"};
+    private static final String SYLLABLES = "ba be bi bo ca ce co da de do fa fe ga go la le li lo ma me mo na ne no pa pe po ra re ri ro sa se so ta te to va ve vo";
+    private static final int WARMUP = 2_000;
+    private static final int QUERIES = 5_000;
+
+    private final Random random = new Random(42);
+    private final String[] brands = brands(2_000);
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 300_000})
+    void fuzzySearchLatency(int catalogSize) {
+        List<DataProductsResponse> catalog = new ArrayList<>(catalogSize);
+        for (long id = 1; id <= catalogSize; id++) {
+            catalog.add(product(id, name()));
+        }
+        ServiceProductSearch search = new ServiceProductSearch();
+        search.rebuild(catalog);
+
+        for (int i = 0; i < WARMUP; i++) {
+            search.search(typo(catalog.get(random.nextInt(catalogSize)).name()), true);
+        }
+
+        long[] nanos = new long[QUERIES];
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            String query = typo(catalog.get(random.nextInt(catalogSize)).name());
+            long start = System.nanoTime();
+            int hits = search.search(query, true).size();
+            nanos[i] = System.nanoTime() - start;
+            found += hits > 0 ? 1 : 0;
+        }
+        Arrays.sort(nanos);
+
+        System.out.printf("busca aproximada | catálogo %,d | p50 %.3f ms | p99 %.3f ms | com resultado %.1f%%%n",
+                catalogSize, nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6, 100.0 * found / QUERIES);
+        assertTrue(found > QUERIES * 0.9);
+    }
+
+    private String name() {
+        return pick(ITEMS) + " " + pick(ADJECTIVES) + " " + pick(brands) + " " + pick(COLORS);
+    }
+
+    // Troca uma letra da palavra mais longa das duas primeiras do nome: "camiseta básica" -> "camiseta bazica".
+    private String typo(String name) {
+        String[] words = name.split(" ");
+        int target = words[0].length() >= words[1].length() ? 0 : 1;
+        char[] chars = words[target].toCharArray();
+        int position = 1 + random.nextInt(chars.length - 1);
+        chars[position] = chars[position] == 'z' ? 's' : 'z';
+        words[target] = new String(chars);
+        return words[0] + " " + words[1];
+    }
+
+    private String[] brands(int count) {
+        String[] syllables = SYLLABLES.split(" ");
+        String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = syllables[random.nextInt(syllables.length)]
+                    + syllables[random.nextInt(syllables.length)]
+                    + syllables[random.nextInt(syllables.length)];
+        }
+        return result;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private DataProductsResponse product(Long id, String name) {
+        return new DataProductsResponse(id, name, BigDecimal.TEN, 1, CategoryItem.CAMISETA, CategoryType.UNISSEX,
+                List.of("M"), List.of("AZUL"), null);
+    }
+}
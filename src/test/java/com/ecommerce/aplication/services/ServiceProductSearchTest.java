@@ -0,0 +1,137 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.search.SearchHit;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceProductSearchTest {
+    private ServiceProductSearch service;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceProductSearch();
+        service.rebuild(List.of(
+                product(1L, "Camiseta Básica Algodão"),
+                product(2L, "Camisetas Estampadas"),
+                product(3L, "Calça Jeans Slim"),
+                product(4L, "Tênis Corrida Camiseta Camiseta")
+        ));
+    }
+
+    private DataProductsResponse product(Long id, String name) {
+        return new DataProductsResponse(id, name, BigDecimal.TEN, 1, CategoryItem.CAMISETA, CategoryType.UNISSEX,
+                List.of("M"), List.of("AZUL"), null);
+    }
+
+    private List<Long> ids(String query) {
+        return service.search(query, false).stream().map(SearchHit::productId).toList();
+    }
+
+    @Test
+    void notReadyBeforeFirstRebuild() {
+        assertFalse(new ServiceProductSearch().isReady());
+        assertTrue(service.isReady());
+    }
+
+    @Test
+    void search_FoldsAccentsAndCase() {
+        assertEquals(List.of(4L), ids("TENIS"));
+        assertEquals(List.of(3L), ids("calça"));
+        assertEquals(List.of(1L), ids("algodao basica"));
+    }
+
+    @Test
+    void search_MatchesPluralsAndRanksByBm25() {
+        List<Long> result = ids("camisetas");
+
+        assertEquals(3, result.size());
+        assertEquals(4L, result.get(0));
+    }
+
+    @Test
+    void search_RequiresAllTermsAndExpandsPrefixes() {
+        assertEquals(List.of(3L), ids("jeans sli"));
+        assertEquals(List.of(), ids("jeans algodao"));
+        assertEquals(List.of(), ids("de"));
+    }
+
+    @Test
+    void upsert_ReusesTheSlotOfRemovedProducts() {
+        service.remove(1L);
+        service.upsert(product(5L, "Camiseta Jeans"));
+        service.upsert(product(3L, "Calça Jeans Slim"));
+        service.upsert(product(3L, "Calça Jeans Skinny"));
+
+        assertEquals(List.of(3L, 5L), ids("jeans").stream().sorted().toList());
+        assertEquals(List.of(5L), ids("camiseta jeans"));
+        assertEquals(List.of(3L), ids("skinny"));
+        assertEquals(List.of(), ids("slim"));
+        assertEquals(List.of(), ids("algodao"));
+    }
+
+    private List<Long> fuzzyIds(String query) {
+        return service.search(query, true).stream().map(SearchHit::productId).toList();
+    }
+
+    @Test
+    void fuzzySearch_ToleratesTypos() {
+        assertEquals(List.of(), ids("camizeta"));
+        assertEquals(List.of(4L, 2L, 1L), fuzzyIds("camizeta"));
+        assertEquals(List.of(3L), fuzzyIds("calsa jeans"));
+        assertEquals(List.of(1L), fuzzyIds("algodao basca"));
+    }
+
+    @Test
+    void fuzzySearch_RanksExactMatchesAboveTypos() {
+        service.upsert(product(5L, "Camiseta Azul"));
+        service.upsert(product(6L, "Camizeta Azul"));
+
+        List<Long> result = fuzzyIds("camizeta azul");
+
+        assertEquals(6L, result.get(0));
+        assertTrue(result.contains(5L));
+    }
+
+    @Test
+    void fuzzySearch_RecycledTermsMatchOnlyTheirNewTerm() {
+        service.remove(3L);
+        service.upsert(product(5L, "Moletom Canguru"));
+        service.upsert(product(6L, "Calça Moletom"));
+
+        assertEquals(List.of(), fuzzyIds("calsa jeans"));
+        assertEquals(List.of(5L), fuzzyIds("kanguru"));
+        assertEquals(List.of(5L, 6L), fuzzyIds("moleton").stream().sorted().toList());
+        assertEquals(List.of(6L), fuzzyIds("calsa"));
+    }
+
+    @Test
+    void fuzzySearch_ShortTokensMustMatchExactly() {
+        assertEquals(List.of(), fuzzyIds("bxa"));
+    }
+
+    @Test
+    void upsertAndRemove_ApplyIncrementally() {
+        service.upsert(product(3L, "Calça Moletom"));
+        service.remove(1L);
+
+        assertEquals(List.of(), ids("jeans"));
+        assertEquals(List.of(3L), ids("moletom"));
+        assertFalse(ids("camiseta").contains(1L));
+    }
+
+    @Test
+    void rebuild_ReplacesIndex() {
+        service.rebuild(List.of(product(9L, "Boné Aba Reta")));
+
+        assertEquals(List.of(), ids("camiseta"));
+        assertEquals(List.of(9L), ids("bone"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.CacheRecords.DataBloomFilterStats;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceProductVariantsTest {
+    private ServiceProductVariants service;
+    private AtomicInteger queries;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceProductVariants();
+        queries = new AtomicInteger();
+    }
+
+    private DataProductsResponse product(Long id, String name, List<String> sizes, List<String> colors) {
+        return new DataProductsResponse(id, name, BigDecimal.TEN, 1, CategoryItem.TÊNIS, CategoryType.CALÇADOS, sizes, colors, null);
+    }
+
+    private boolean exists(String name, String color, String size, boolean database) {
+        return service.exists(name, color, size, () -> {
+            queries.incrementAndGet();
+            return database;
+        });
+    }
+
+    @Test
+    void exists_BeforeRebuildAlwaysQueries() {
+        assertTrue(exists("Tênis", "AZUL", "40", true));
+        assertFalse(exists("Tênis", "AZUL", "41", false));
+        assertEquals(2, queries.get());
+        assertFalse(service.stats().ready());
+    }
+
+    @Test
+    void exists_NegativesSkipTheQueryAndPositivesAreConfirmed() {
+        service.rebuild(List.of(product(1L, "Tênis", List.of("40", "41"), List.of("AZUL", "PRETO"))));
+
+        assertFalse(exists("Tênis", "VERDE", "40", true));
+        assertFalse(exists("Bota", "AZUL", "40", true));
+        assertEquals(0, queries.get());
+
+        assertTrue(exists("Tênis", "PRETO", "41", true));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void upsert_AddsVariantsOfChangedProducts() {
+        service.rebuild(List.of());
+        assertFalse(exists("Sandália", "BRANCO", "37", true));
+
+        service.upsert(product(2L, "Sandália", List.of("37"), List.of("BRANCO")));
+
+        assertTrue(exists("Sandália", "BRANCO", "37", true));
+    }
+
+    @Test
+    void stats_ReportsObservedFalsePositiveRate() {
+        service.rebuild(List.of(product(1L, "Tênis", List.of("40"), List.of("AZUL"))));
+
+        exists("Tênis", "AZUL", "40", false);
+        exists("Tênis", "AZUL", "40", true);
+        exists("Bota", "AZUL", "40", false);
+        exists("Chinelo", "AZUL", "40", false);
+        exists("Sapato", "AZUL", "40", false);
+
+        DataBloomFilterStats stats = service.stats();
+        assertTrue(stats.ready());
+        assertEquals(1, stats.entries());
+        assertEquals(5, stats.checks());
+        assertEquals(3, stats.negatives());
+        assertEquals(1, stats.falsePositives());
+        assertEquals(0.25, stats.observedFalsePositiveRate(), 1e-9);
+        assertTrue(stats.expectedFalsePositiveRate() < ServiceProductVariants.FALSE_POSITIVE_RATE);
+    }
+}
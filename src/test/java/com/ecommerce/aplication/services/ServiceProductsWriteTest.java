@@ -1,25 +1,39 @@
 package com.ecommerce.aplication.services;
 
+import com.ecommerce.aplication.records.ProductsRecords.DataProductStock;
 import com.ecommerce.aplication.records.ProductsRecords.DataProducts;
 import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
 import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.infra.exceptions.ConcurrentUpdateException;
 import com.ecommerce.infra.exceptions.ResourceNotFoundException;
 import com.ecommerce.model.product.CategoryItem;
 import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductFingerprint;
 import com.ecommerce.model.product.ProductModel;
 import com.ecommerce.model.repositorys.ProductRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +44,18 @@ class ServiceProductsWriteTest {
     @Mock
     private ServiceAsync serviceAsync;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ServiceProductFingerprints fingerprints;
+
+    @Mock
+    private ServiceStockShards shards;
+
+    @Spy
+    private ServiceOptimisticRetry retry = new ServiceOptimisticRetry(mock(PlatformTransactionManager.class), 3, 0);
+
     @InjectMocks
     private ServiceProductsWrite service;
 
@@ -70,8 +96,7 @@ class ServiceProductsWriteTest {
     void createProduct_Success() {
         DataProducts data = createValidData();
 
-        when(repository.findAll()).thenReturn(List.of());
-        when(repository.save(any())).thenAnswer(invocation -> {
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
             ProductModel p = invocation.getArgument(0);
             p.setId(1L);
             return p;
@@ -84,6 +109,8 @@ class ServiceProductsWriteTest {
         assertEquals(data.name(), response.name());
         assertEquals(data.imageUrl(), response.imageUrl());
         verify(serviceAsync).updateRecommendations(any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+        verify(repository, never()).findAll();
     }
 
     @Test
@@ -92,10 +119,42 @@ class ServiceProductsWriteTest {
 
         ProductModel existing = createProduct(1L, data.name(), data.sizes(), data.colors(), data.imageUrl());
 
-        when(repository.findAll()).thenReturn(List.of(existing));
+        when(fingerprints.isDuplicate(ProductFingerprint.of(existing), null)).thenReturn(true);
 
         BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.create(data));
         assertEquals("Produto já cadastrado com estas especificações.", ex.getMessage());
+        verify(repository, never()).saveAndFlush(any());
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void createProduct_UniqueConstraintConflictThrows() {
+        when(repository.saveAndFlush(any())).thenThrow(violation(ProductModel.FINGERPRINT_CONSTRAINT));
+
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.create(createValidData()));
+        assertEquals("Produto já cadastrado com estas especificações.", ex.getMessage());
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void createProduct_OtherConstraintIsNotReportedAsDuplicate() {
+        DataIntegrityViolationException other = violation("fk_" + ProductModel.FINGERPRINT_CONSTRAINT);
+        when(repository.saveAndFlush(any())).thenThrow(other);
+
+        assertSame(other, assertThrows(DataIntegrityViolationException.class, () -> service.create(createValidData())));
+    }
+
+    @Test
+    void createProduct_UniqueIndexReportedByH2IsADuplicate() {
+        when(repository.saveAndFlush(any())).thenThrow(violation("PUBLIC.UK_PRODUTOS_ASSINATURA_INDEX_F ON PUBLIC.PRODUTOS(ASSINATURA)"));
+
+        assertThrows(BusinessRuleException.class, () -> service.create(createValidData()));
+    }
+
+    // O nome da restrição aparece também na mensagem, como no driver; só a causa do Hibernate deve decidir.
+    private DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement; constraint [" + constraint + "]",
+                new ConstraintViolationException("duplicate key", new SQLException("23505"), constraint));
     }
 
     @Test
@@ -123,13 +182,165 @@ class ServiceProductsWriteTest {
         ProductModel existing = createProduct(id, "OldName", List.of("M"), List.of("AZUL"), data.imageUrl());
 
         when(repository.findById(id)).thenReturn(Optional.of(existing));
-        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         DataProductsResponse response = service.update(id, data);
 
         assertEquals(data.name(), response.name());
         assertEquals(data.imageUrl(), response.imageUrl());
+        assertEquals(ProductFingerprint.of(existing), existing.getFingerprint());
+        verify(fingerprints).isDuplicate(existing.getFingerprint(), id);
         verify(serviceAsync).updateRecommendations(any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(id));
+    }
+
+    @Test
+    void updateProduct_RereadsAndRetriesAfterVersionConflict() {
+        DataProducts data = createValidData();
+        ProductModel existing = createProduct(1L, "OldName", List.of("M"), List.of("AZUL"), data.imageUrl());
+
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+        when(repository.saveAndFlush(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ProductModel.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        DataProductsResponse response = service.update(1L, data);
+
+        assertEquals(data.name(), response.name());
+        verify(repository, times(2)).findById(1L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+        assertEquals(1, retry.stats(10).get(0).conflicts());
+        assertEquals(0, retry.stats(10).get(0).exhausted());
+    }
+
+    @Test
+    void updateProduct_GivesUpAfterTheLastAttempt() {
+        ProductModel existing = createProduct(1L, "Nome", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+        when(repository.saveAndFlush(any())).thenThrow(new ObjectOptimisticLockingFailureException(ProductModel.class, 1L));
+
+        assertThrows(ConcurrentUpdateException.class, () -> service.update(1L, createValidData()));
+        verify(repository, times(3)).saveAndFlush(existing);
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+        assertEquals(3, retry.stats(10).get(0).conflicts());
+        assertEquals(1, retry.stats(10).get(0).exhausted());
+    }
+
+    @Test
+    void updateProduct_KeepsTheCurrentStock() {
+        ProductModel existing = createProduct(1L, "OldName", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+        existing.setQuant(3);
+
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DataProducts data = createValidData();
+        DataProductsResponse response = service.update(1L, new DataProducts(data.name(), data.price(), data.description(),
+                data.item(), data.type(), null, data.sizes(), data.colors(), data.imageUrl()));
+
+        assertEquals(3, response.quant());
+    }
+
+    @Test
+    void updateProduct_DifferentStockPointsToTheStockPatch() {
+        ProductModel existing = createProduct(1L, "OldName", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+        existing.setQuant(3);
+
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.update(1L, createValidData()));
+        assertEquals(ServiceProductsWrite.STOCK_IN_UPDATE_MESSAGE, ex.getMessage());
+        assertEquals(3, existing.getQuant());
+        verify(repository, never()).saveAndFlush(any());
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void setQuant_AppliesTheValueWhenTheVersionMatches() {
+        when(repository.setQuant(1L, 7, 4L)).thenReturn(1);
+
+        DataProductStock stock = service.setQuant(1L, 7, 4L);
+
+        assertEquals(new DataProductStock(1L, 7, 5L), stock);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void setQuant_StaleVersionIsAConflict() {
+        ProductModel existing = createProduct(1L, "Nome", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+        existing.setVersion(5L);
+        when(repository.setQuant(1L, 7, 4L)).thenReturn(0);
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+
+        assertThrows(ConcurrentUpdateException.class, () -> service.setQuant(1L, 7, 4L));
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void setQuant_ShardedProductMustUseTheDelta() {
+        ProductModel existing = createProduct(1L, "Nome", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+        existing.setStockShards(4);
+        when(repository.setQuant(1L, 7, 4L)).thenReturn(0);
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.setQuant(1L, 7, 4L));
+        assertEquals(ServiceProductsWrite.SHARDED_STOCK_MESSAGE, ex.getMessage());
+    }
+
+    @Test
+    void adjustQuant_AppliesTheDeltaInOneUpdate() {
+        when(repository.adjustQuant(1L, -2)).thenReturn(1);
+
+        service.adjustQuant(1L, -2);
+
+        verify(repository, never()).saveAndFlush(any());
+        verify(shards, never()).refresh(any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void adjustQuant_ShardedProductGoesToTheShards() {
+        when(repository.adjustQuant(1L, 5)).thenReturn(0);
+        when(shards.refresh(1L)).thenReturn(true);
+        when(shards.give(1L, 5)).thenReturn(true);
+
+        service.adjustQuant(1L, 5);
+
+        verify(shards).give(1L, 5);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void adjustQuant_NegativeStockThrows() {
+        ProductModel existing = createProduct(1L, "Nome", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+        when(repository.adjustQuant(1L, -20)).thenReturn(0);
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.adjustQuant(1L, -20));
+        assertEquals("O estoque não pode ficar negativo.", ex.getMessage());
+        verify(eventPublisher, never()).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void adjustQuant_NotFoundThrows() {
+        when(repository.adjustQuant(1L, 1)).thenReturn(0);
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.adjustQuant(1L, 1));
+    }
+
+    @Test
+    void updateProduct_DuplicateOfAnotherProductThrows() {
+        DataProducts data = createValidData();
+        ProductModel existing = createProduct(1L, "OldName", List.of("M"), List.of("AZUL"), data.imageUrl());
+
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+        when(fingerprints.isDuplicate(any(), any())).thenReturn(true);
+
+        BusinessRuleException ex = assertThrows(BusinessRuleException.class, () -> service.update(1L, data));
+        assertEquals("Produto já cadastrado com estas especificações.", ex.getMessage());
+        verify(repository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -148,6 +359,17 @@ class ServiceProductsWriteTest {
         service.delete(1L);
 
         verify(repository).delete(existing);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void saveProduct_PublishesChange() {
+        ProductModel existing = createProduct(1L, "Nome", List.of("M"), List.of("AZUL"), "https://cdn.imagens.com/tenis.jpg");
+
+        service.save(existing);
+
+        verify(repository).save(existing);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
     }
 
     @Test
@@ -0,0 +1,83 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.infra.exceptions.IndexNotReadyException;
+import com.ecommerce.infra.exceptions.ResourceNotFoundException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceRelatedProductsTest {
+    private ServiceRelatedProducts service;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceRelatedProducts();
+        List<DataProductsResponse> products = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            products.add(product(id, CategoryItem.CAMISETA));
+        }
+        products.add(product(21L, CategoryItem.BOTA));
+        products.add(product(22L, CategoryItem.BOTA));
+        products.add(product(23L, CategoryItem.CINTO));
+        service.rebuild(products);
+    }
+
+    private DataProductsResponse product(Long id, CategoryItem item) {
+        return new DataProductsResponse(id, "Produto " + id, BigDecimal.TEN, 1, item, CategoryType.UNISSEX, List.of("M"), List.of("AZUL"), null);
+    }
+
+    private List<Long> related(Long id) {
+        return service.related(id).stream().map(DataProductsResponse::id).toList();
+    }
+
+    @Test
+    void related_SamplesSixDistinctProductsOfTheSameItem() {
+        for (int i = 0; i < 200; i++) {
+            List<Long> ids = related(5L);
+            assertEquals(ServiceRelatedProducts.RELATED_LIMIT, ids.size());
+            assertEquals(ids.size(), new HashSet<>(ids).size());
+            assertFalse(ids.contains(5L));
+            assertTrue(ids.stream().allMatch(id -> id >= 1 && id <= 20));
+        }
+    }
+
+    @Test
+    void related_CoversTheWholePoolOverManyCalls() {
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            seen.addAll(related(1L));
+        }
+        assertEquals(19, seen.size());
+    }
+
+    @Test
+    void related_SmallPoolsReturnEveryOtherProduct() {
+        assertEquals(List.of(22L), related(21L));
+        assertEquals(List.of(), related(23L));
+    }
+
+    @Test
+    void upsert_MovesProductBetweenPoolsAndRemoveDropsIt() {
+        service.upsert(product(23L, CategoryItem.BOTA));
+        assertEquals(Set.of(21L, 22L), new HashSet<>(related(23L)));
+
+        service.remove(22L);
+        assertEquals(List.of(23L), related(21L));
+        assertThrows(ResourceNotFoundException.class, () -> service.related(22L));
+    }
+
+    @Test
+    void related_BeforeRebuildThrows() {
+        assertThrows(IndexNotReadyException.class, () -> new ServiceRelatedProducts().related(1L));
+    }
+}
@@ -0,0 +1,328 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
+import com.ecommerce.aplication.scheduling.HierarchicalTimingWheel;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.model.orders.OrderModel;
+import com.ecommerce.model.orders.OrderStatus;
+import com.ecommerce.model.orders.ordersItems.OrderItem;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.OrdersRepository;
+import com.ecommerce.model.repositorys.ProductRepository;
+import com.ecommerce.model.repositorys.StockReservationRepository;
+import com.ecommerce.model.repositorys.UsersRepositroy;
+import com.ecommerce.model.users.TypeRole;
+import com.ecommerce.model.users.Users;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// O prazo só entra na roda no commit do checkout, então os dados do teste precisam estar confirmados.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ServiceStockReservationsTest {
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    private static final class MovableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-10T12:00:00Z");
+
+        void plus(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    @Autowired
+    private UsersRepositroy usersRepositroy;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ServiceStock stock = mock(ServiceStock.class);
+    private final ServiceInventoryLedger ledger = mock(ServiceInventoryLedger.class);
+    private final MovableClock clock = new MovableClock();
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transaction;
+    private ServiceStockReservations reservations;
+    private Long tenis;
+    private Long bota;
+
+    @BeforeEach
+    void setup() {
+        jdbc = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(transactionManager);
+        reservations = reservations();
+        tenis = product("Tênis", 10);
+        bota = product("Bota", 4);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbc.update("DELETE FROM reservas_estoque");
+        jdbc.update("DELETE FROM itens_pedido");
+        jdbc.update("DELETE FROM pedido");
+        jdbc.update("DELETE FROM usuarios");
+        productRepository.deleteAll();
+    }
+
+    private ServiceStockReservations reservations() {
+        return new ServiceStockReservations(reservationRepository, stock, mock(ServiceStockShards.class), ledger, jdbc, transactionManager,
+                mock(ApplicationEventPublisher.class), TTL, 1000, clock);
+    }
+
+    private Long product(String name, int quant) {
+        ProductModel product = new ProductModel();
+        product.setName(name);
+        product.setPrice(BigDecimal.TEN);
+        product.setQuant(quant);
+        product.setItem(CategoryItem.TÊNIS);
+        product.setType(CategoryType.UNISSEX);
+        product.setSizes(new ArrayList<>(List.of("40")));
+        product.setColors(new ArrayList<>(List.of("PRETO")));
+        return productRepository.save(product).getId();
+    }
+
+    // Cada pedido num usuário próprio; a reserva é criada na mesma transação que grava o pedido, como no checkout.
+    private OrderModel checkout(int tenisQuant, int botaQuant) {
+        Users user = new Users();
+        user.setName("Cliente");
+        user.setEmail("cliente" + System.nanoTime() + "@email.com");
+        user.setPassword("senha");
+        user.setRole(TypeRole.CLIENTE);
+
+        return transaction.execute(status -> {
+            OrderModel order = new OrderModel();
+            order.setUsers(usersRepositroy.save(user));
+            order.setStatus(OrderStatus.PENDENTE);
+            order.setCreatedAt(clock.instant().atZone(ZoneOffset.UTC).toLocalDateTime());
+            List<OrderItem> items = new ArrayList<>();
+            items.add(item(order, tenis, tenisQuant));
+            items.add(item(order, bota, botaQuant));
+            order.setItems(items);
+            ordersRepository.save(order);
+            reservations.hold(order);
+            return order;
+        });
+    }
+
+    private OrderItem item(OrderModel order, Long productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(productRepository.findById(productId).orElseThrow());
+        item.setQuantity(quantity);
+        item.setPrice(BigDecimal.TEN);
+        item.setColor("PRETO");
+        item.setSize("40");
+        return item;
+    }
+
+    private int quant(Long productId) {
+        return jdbc.queryForObject("SELECT quantidade FROM produtos WHERE id = ?", Integer.class, productId);
+    }
+
+    private String reservation(Long orderId) {
+        return jdbc.queryForObject("SELECT status FROM reservas_estoque WHERE pedido_id = ?", String.class, orderId);
+    }
+
+    private String order(Long orderId) {
+        return jdbc.queryForObject("SELECT status FROM pedido WHERE id = ?", String.class, orderId);
+    }
+
+    @Test
+    void expire_ReleasesEveryExpiredReservationInOneBatch() {
+        OrderModel first = checkout(2, 1);
+        OrderModel second = checkout(3, 1);
+        assertEquals(2, reservations.pending());
+
+        clock.plus(TTL.minusSeconds(1));
+        reservations.expire();
+        assertEquals("ATIVA", reservation(first.getId()));
+        assertEquals(10, quant(tenis));
+
+        clock.plus(Duration.ofSeconds(1));
+        reservations.expire();
+
+        assertEquals(15, quant(tenis));
+        assertEquals(6, quant(bota));
+        for (OrderModel order : List.of(first, second)) {
+            assertEquals("LIBERADA", reservation(order.getId()));
+            assertEquals("CANCELADO", order(order.getId()));
+        }
+        assertEquals(0, reservations.pending());
+    }
+
+    @Test
+    void commit_ConfirmsAndTheDeadlineNoLongerFires() {
+        OrderModel order = checkout(2, 1);
+
+        transaction.executeWithoutResult(status -> reservations.commit(order));
+        clock.plus(TTL.plusMinutes(1));
+        reservations.expire();
+
+        assertEquals("CONFIRMADA", reservation(order.getId()));
+        assertEquals("PENDENTE", order(order.getId()));
+        assertEquals(10, quant(tenis));
+        verifyNoInteractions(stock);
+    }
+
+    @Test
+    void release_ReturnsStockButKeepsTheOrderPendingForAnotherAttempt() {
+        OrderModel order = checkout(2, 1);
+
+        transaction.executeWithoutResult(status -> reservations.release(order.getId()));
+
+        assertEquals("LIBERADA", reservation(order.getId()));
+        assertEquals("PENDENTE", order(order.getId()));
+        assertEquals(12, quant(tenis));
+        assertEquals(5, quant(bota));
+        assertEquals(0, reservations.pending());
+    }
+
+    @Test
+    void commit_AfterReleaseTakesTheStockAgain() {
+        OrderModel order = checkout(2, 1);
+        transaction.executeWithoutResult(status -> reservations.release(order.getId()));
+
+        transaction.executeWithoutResult(status ->
+                reservations.commit(ordersRepository.findById(order.getId()).orElseThrow()));
+
+        assertEquals("CONFIRMADA", reservation(order.getId()));
+        verify(stock).decrement(argThat(lines -> lines.size() == 2
+                && lines.containsAll(List.of(new DataStockLine(tenis, "Tênis", 2), new DataStockLine(bota, "Bota", 1)))));
+    }
+
+    @Test
+    void commit_RejectsPaymentForAnOrderCancelledByExpiry() {
+        OrderModel order = checkout(2, 1);
+        clock.plus(TTL);
+        reservations.expire();
+
+        assertThrows(BusinessRuleException.class, () -> transaction.executeWithoutResult(status ->
+                reservations.commit(ordersRepository.findById(order.getId()).orElseThrow())));
+
+        assertEquals("LIBERADA", reservation(order.getId()));
+        assertEquals("CANCELADO", order(order.getId()));
+        assertEquals(12, quant(tenis));
+        verifyNoInteractions(stock);
+    }
+
+    @Test
+    void load_SchedulesReservationsLeftActiveByAPreviousRun() {
+        OrderModel order = checkout(2, 1);
+        clock.plus(TTL.plusMinutes(1));
+
+        ServiceStockReservations restarted = reservations();
+        restarted.load();
+        assertEquals(1, restarted.pending());
+        restarted.expire();
+
+        assertEquals("LIBERADA", reservation(order.getId()));
+        assertEquals(12, quant(tenis));
+    }
+
+    @Test
+    void sweep_ReleasesReservationsLeftOnTheWheelOfAnotherInstance() {
+        OrderModel order = checkout(2, 1);
+        ServiceStockReservations otherInstance = reservations();
+        clock.plus(TTL.minusSeconds(1));
+
+        otherInstance.sweep();
+        assertEquals("ATIVA", reservation(order.getId()));
+
+        clock.plus(Duration.ofSeconds(1));
+        otherInstance.sweep();
+
+        assertEquals("LIBERADA", reservation(order.getId()));
+        assertEquals("CANCELADO", order(order.getId()));
+        assertEquals(12, quant(tenis));
+        assertEquals(5, quant(bota));
+
+        reservations.expire();
+        assertEquals(12, quant(tenis));
+    }
+
+    @Test
+    void release_ReturnsLedgerProductsToTheirLease() {
+        when(ledger.give(eq(bota), anyInt())).thenReturn(true);
+        OrderModel order = checkout(2, 1);
+
+        transaction.executeWithoutResult(status -> reservations.release(order.getId()));
+
+        verify(ledger).give(bota, 1);
+        assertEquals(4, quant(bota));
+        assertEquals(12, quant(tenis));
+    }
+
+    @Test
+    void timingWheel_FiresEachDeadlineOnItsTickAcrossLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 8, 3, 0);
+        wheel.schedule("perto", 5);
+        wheel.schedule("segunda-roda", 70);
+        wheel.schedule("terceira-roda", 300);
+        wheel.schedule("alem-das-rodas", 2000);
+        wheel.schedule("cancelado", 70);
+        assertTrue(wheel.cancel("cancelado"));
+
+        List<String> fired = new ArrayList<>();
+        List<Long> ticks = new ArrayList<>();
+        for (long now = 1; now <= 2000; now++) {
+            for (String key : wheel.advance(now)) {
+                fired.add(key);
+                ticks.add(now);
+            }
+        }
+
+        assertEquals(List.of("perto", "segunda-roda", "terceira-roda", "alem-das-rodas"), fired);
+        assertEquals(List.of(5L, 70L, 300L, 2000L), ticks);
+        assertEquals(0, wheel.size());
+    }
+}
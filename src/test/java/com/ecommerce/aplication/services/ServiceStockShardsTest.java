@@ -0,0 +1,224 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
+import com.ecommerce.aplication.records.StockRecords.DataStockShardStats;
+import com.ecommerce.infra.exceptions.BusinessRuleException;
+import com.ecommerce.infra.exceptions.StockUnavailableException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Rebalanceamento usa transação própria, então os dados do teste precisam estar confirmados.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ServiceStockShardsTest {
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private JdbcTemplate jdbc;
+    private ServiceStockShards shards;
+    private ServiceStock stock;
+    private Long productId;
+
+    @BeforeEach
+    void setup() {
+        jdbc = new JdbcTemplate(dataSource);
+        shards = shards();
+        stock = stock(shards);
+        productId = save(10);
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbc.update("DELETE FROM estoque_fracoes");
+        repository.deleteAll();
+    }
+
+    private ServiceStockShards shards() {
+        return new ServiceStockShards(jdbc, transactionManager, eventPublisher,
+                mock(ServiceInventoryLedger.class), Duration.ofMinutes(1));
+    }
+
+    private ServiceStock stock(ServiceStockShards target) {
+        return new ServiceStock(jdbc, mock(ApplicationEventPublisher.class), mock(ServiceInventoryLedger.class), target);
+    }
+
+    private Long save(int quant) {
+        ProductModel product = new ProductModel();
+        product.setName("Tênis");
+        product.setPrice(BigDecimal.TEN);
+        product.setQuant(quant);
+        product.setItem(CategoryItem.TÊNIS);
+        product.setType(CategoryType.UNISSEX);
+        product.setSizes(new ArrayList<>(List.of("40")));
+        product.setColors(new ArrayList<>(List.of("PRETO")));
+        return repository.save(product).getId();
+    }
+
+    private int quant() {
+        return jdbc.queryForObject("SELECT quantidade FROM produtos WHERE id = ?", Integer.class, productId);
+    }
+
+    private List<Integer> shardQuantities() {
+        return jdbc.queryForList("SELECT quantidade FROM estoque_fracoes WHERE produto_id = ? ORDER BY fracao",
+                Integer.class, productId);
+    }
+
+    private void checkout(ServiceStock target, int quantity) {
+        target.decrement(List.of(new DataStockLine(productId, "Tênis", quantity)));
+    }
+
+    @Test
+    void enable_SplitsTheStockEvenly() {
+        DataStockShardStats stats = shards.enable(productId, 4);
+
+        assertEquals(List.of(3, 3, 2, 2), stats.shards());
+        assertEquals(List.of(3, 3, 2, 2), shardQuantities());
+        assertTrue(shards.handles(productId));
+        assertEquals(10, shards.available(productId));
+        assertThrows(BusinessRuleException.class, () -> shards.enable(productId, 4));
+    }
+
+    @Test
+    void decrement_TakesFromShardsAndSyncWritesTheSum() {
+        shards.enable(productId, 4);
+
+        checkout(stock, 2);
+        assertEquals(10, quant());
+        assertEquals(8, shardQuantities().stream().mapToInt(Integer::intValue).sum());
+
+        shards.sync();
+        assertEquals(8, quant());
+    }
+
+    @Test
+    void decrement_SpansShardsWhenNoSingleShardIsEnough() {
+        shards.enable(productId, 4);
+
+        checkout(stock, 7);
+        assertEquals(3, shardQuantities().stream().mapToInt(Integer::intValue).sum());
+
+        assertThrows(StockUnavailableException.class, () -> checkout(stock, 4));
+        assertEquals(3, shardQuantities().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void decrement_InstanceUnawareOfTheShardsFindsThemOnFailure() {
+        shards.enable(productId, 4);
+        ServiceStockShards otherInstance = shards();
+        assertFalse(otherInstance.handles(productId));
+
+        checkout(stock(otherInstance), 3);
+
+        assertTrue(otherInstance.handles(productId));
+        assertEquals(10, quant());
+        assertEquals(7, shardQuantities().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void sync_PublishesOnlyWhenTheSnapshotCrossesZero() {
+        shards.enable(productId, 2);
+        clearInvocations(eventPublisher);
+        long version = jdbc.queryForObject("SELECT versao FROM produtos WHERE id = ?", Long.class, productId);
+
+        checkout(stock, 4);
+        shards.sync();
+        assertEquals(6, quant());
+        assertEquals(version, jdbc.queryForObject("SELECT versao FROM produtos WHERE id = ?", Long.class, productId));
+        verify(eventPublisher, never()).publishEvent(any());
+
+        checkout(stock, 6);
+        shards.sync();
+        assertEquals(0, quant());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(productId));
+    }
+
+    @Test
+    void sync_RebalancesEmptiedShards() {
+        shards.enable(productId, 4);
+        jdbc.update("UPDATE estoque_fracoes SET quantidade = CASE fracao WHEN 3 THEN 8 ELSE 0 END WHERE produto_id = ?", productId);
+
+        shards.sync();
+
+        assertEquals(List.of(2, 2, 2, 2), shardQuantities());
+        assertEquals(8, quant());
+    }
+
+    @Test
+    void disable_MergesTheShardsBackIntoTheProduct() {
+        shards.enable(productId, 3);
+        checkout(stock, 4);
+
+        shards.disable(productId);
+
+        assertFalse(shards.handles(productId));
+        assertTrue(shardQuantities().isEmpty());
+        assertEquals(6, quant());
+        checkout(stock, 6);
+        assertEquals(0, quant());
+    }
+
+    @Test
+    void decrement_ParallelCheckoutsSellExactlyTheStock() throws Exception {
+        Long bestseller = save(200);
+        shards.enable(bestseller, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 8; writer++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 25; i++) {
+                        stock.decrement(List.of(new DataStockLine(bestseller, "Tênis", 1)));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, jdbc.queryForObject("SELECT SUM(quantidade) FROM estoque_fracoes WHERE produto_id = ?",
+                Integer.class, bestseller));
+        assertThrows(StockUnavailableException.class,
+                () -> stock.decrement(List.of(new DataStockLine(bestseller, "Tênis", 1))));
+    }
+}
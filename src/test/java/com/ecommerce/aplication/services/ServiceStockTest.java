@@ -0,0 +1,106 @@
+package com.ecommerce.aplication.services;
+
+import com.ecommerce.aplication.records.StockRecords.DataStockLine;
+import com.ecommerce.infra.exceptions.StockUnavailableException;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.ecommerce.model.product.ProductChangedEvent;
+import com.ecommerce.model.product.ProductStockChangedEvent;
+import com.ecommerce.model.product.ProductModel;
+import com.ecommerce.model.repositorys.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ServiceStockTest {
+    @Autowired
+    private ProductRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private ServiceStock service;
+    private Long tenis;
+    private Long bota;
+    private Long cinto;
+
+    @BeforeEach
+    void setup() {
+        service = new ServiceStock(new JdbcTemplate(dataSource), eventPublisher, mock(ServiceInventoryLedger.class),
+                mock(ServiceStockShards.class));
+        tenis = save("Tênis", 5);
+        bota = save("Bota", 2);
+        cinto = save("Cinto", 1);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Long save(String name, int quant) {
+        ProductModel product = new ProductModel();
+        product.setName(name);
+        product.setPrice(BigDecimal.TEN);
+        product.setQuant(quant);
+        product.setItem(CategoryItem.TÊNIS);
+        product.setType(CategoryType.UNISSEX);
+        product.setSizes(new ArrayList<>(List.of("40")));
+        product.setColors(new ArrayList<>(List.of("PRETO")));
+        return repository.save(product).getId();
+    }
+
+    private int quant(Long id) {
+        entityManager.clear();
+        return repository.findById(id).orElseThrow().getQuant();
+    }
+
+    @Test
+    void decrement_AppliesEveryLineAndPublishesChanges() {
+        service.decrement(List.of(new DataStockLine(bota, "Bota", 2), new DataStockLine(tenis, "Tênis", 3)));
+
+        assertEquals(2, quant(tenis));
+        assertEquals(0, quant(bota));
+        verify(eventPublisher).publishEvent(new ProductStockChangedEvent(tenis));
+        verify(eventPublisher, never()).publishEvent(new ProductChangedEvent(tenis));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(bota));
+        verify(eventPublisher, never()).publishEvent(new ProductStockChangedEvent(bota));
+    }
+
+    @Test
+    void decrement_ReportsExactlyTheShortLines() {
+        StockUnavailableException ex = assertThrows(StockUnavailableException.class, () -> service.decrement(List.of(
+                new DataStockLine(tenis, "Tênis", 1),
+                new DataStockLine(bota, "Bota", 3),
+                new DataStockLine(cinto, "Cinto", 2))));
+
+        assertEquals(List.of("Bota", "Cinto"), ex.getProducts());
+        assertEquals("Estoque insuficiente para os produtos: Bota, Cinto", ex.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void decrement_SumsLinesOfTheSameProduct() {
+        StockUnavailableException ex = assertThrows(StockUnavailableException.class, () -> service.decrement(List.of(
+                new DataStockLine(bota, "Bota", 1),
+                new DataStockLine(bota, "Bota", 2))));
+
+        assertEquals(List.of("Bota"), ex.getProducts());
+        assertEquals(2, quant(bota));
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.infra.controllers;
+
+import com.ecommerce.aplication.records.FieldsRecords.DataFields;
+import com.ecommerce.aplication.records.ProductsRecords.DataProductsResponse;
+import com.ecommerce.aplication.services.ServiceCatalogVersion;
+import com.ecommerce.aplication.services.ServiceProductAutocomplete;
+import com.ecommerce.aplication.services.ServiceProductFilter;
+import com.ecommerce.aplication.services.ServiceProductJson;
+import com.ecommerce.aplication.services.ServiceProductRead;
+import com.ecommerce.aplication.services.ServiceRelatedProducts;
+import com.ecommerce.model.product.CategoryItem;
+import com.ecommerce.model.product.CategoryType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class CatalogConditionalGetInterceptorTest {
+    private ServiceCatalogVersion versions;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setup() {
+        ServiceProductRead read = mock(ServiceProductRead.class);
+        // Tamanhos suficientes para o JSON passar de ServiceProductJson.GZIP_MIN_SIZE e ser comprimido.
+        List<String> sizes = IntStream.range(0, 200).mapToObj(i -> "T" + i).toList();
+        when(read.findById(eq(1L), any(DataFields.class))).thenReturn(new DataProductsResponse(1L, "Tênis", BigDecimal.TEN, 3,
+                CategoryItem.TÊNIS, CategoryType.CALÇADOS, sizes, List.of("AZUL"), null));
+
+        versions = new ServiceCatalogVersion();
+        ProductsControllerRead controller = new ProductsControllerRead(read, mock(ServiceProductAutocomplete.class),
+                mock(ServiceProductFilter.class), new ServiceProductJson(new ObjectMapper(), 100), mock(ServiceRelatedProducts.class));
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .addInterceptors(new CatalogConditionalGetInterceptor(versions))
+                .build();
+    }
+
+    private MockHttpServletResponse fetch(String acceptEncoding, String ifNoneMatch) throws Exception {
+        var request = get("/api/products/1");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mvc.perform(request).andReturn().getResponse();
+    }
+
+    @Test
+    void gzipBodyCarriesItsOwnEtag() throws Exception {
+        String identity = versions.product(1L).etag();
+        String gzip = CatalogConditionalGetInterceptor.withSuffix(identity, "gzip");
+
+        MockHttpServletResponse compressed = fetch("gzip, deflate", null);
+        MockHttpServletResponse plain = fetch(null, null);
+
+        assertEquals("gzip", compressed.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(gzip), compressed.getHeaders(HttpHeaders.ETAG));
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(identity), plain.getHeaders(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void ifNoneMatchAcceptsBothFormsOnlyForTheirEncoding() throws Exception {
+        String identity = versions.product(1L).etag();
+        String gzip = CatalogConditionalGetInterceptor.withSuffix(identity, "gzip");
+
+        MockHttpServletResponse revalidatedGzip = fetch("gzip", gzip);
+        assertEquals(304, revalidatedGzip.getStatus());
+        assertEquals(gzip, revalidatedGzip.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse revalidatedIdentity = fetch("gzip", identity);
+        assertEquals(304, revalidatedIdentity.getStatus());
+        assertEquals(identity, revalidatedIdentity.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse gzipTagWithoutGzip = fetch("identity", gzip);
+        assertEquals(200, gzipTagWithoutGzip.getStatus());
+        assertNull(gzipTagWithoutGzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(identity, gzipTagWithoutGzip.getHeader(HttpHeaders.ETAG));
+    }
+}